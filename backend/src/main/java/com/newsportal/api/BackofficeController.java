@@ -1,17 +1,32 @@
 package com.newsportal.api;
 
+import com.newsportal.dto.BulkModerationRequest;
+import com.newsportal.dto.BulkModerationResponse;
 import com.newsportal.dto.CommentResponse;
+import com.newsportal.dto.JobResponse;
 import com.newsportal.dto.NewsResponse;
+import com.newsportal.jobs.JobPublisher;
+import com.newsportal.jobs.JobTracker;
+import com.newsportal.service.AuditPartitionManager;
 import com.newsportal.service.CommentService;
+import com.newsportal.service.LLMService;
+import com.newsportal.service.MediaGarbageCollector;
 import com.newsportal.service.NewsService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/backoffice")
@@ -22,6 +37,10 @@ public class BackofficeController {
 
     private final NewsService newsService;
     private final CommentService commentService;
+    private final JobPublisher jobPublisher;
+    private final JobTracker jobTracker;
+    private final MediaGarbageCollector mediaGarbageCollector;
+    private final AuditPartitionManager auditPartitionManager;
 
     @GetMapping("/pending")
     public ResponseEntity<Page<NewsResponse>> getPendingNews(
@@ -45,6 +64,54 @@ public class BackofficeController {
         return ResponseEntity.ok(news);
     }
 
+    /**
+     * Publish many articles at once; approving an article publishes it
+     */
+    @PostMapping("/news/bulk/publish")
+    public ResponseEntity<BulkModerationResponse> publishNews(@Valid @RequestBody BulkModerationRequest request) {
+        return ResponseEntity.ok(newsService.publishNews(request.getIds()));
+    }
+
+    @PostMapping("/news/bulk/reject")
+    public ResponseEntity<BulkModerationResponse> rejectNews(@Valid @RequestBody BulkModerationRequest request) {
+        return ResponseEntity.ok(newsService.rejectNews(request.getIds()));
+    }
+
+    @PostMapping(value = "/news/{id}/rewrite/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<LLMService.RewriteEvent>> streamRewrite(@PathVariable Long id) {
+        return newsService.streamRewrite(id)
+                .map(event -> ServerSentEvent.builder(event)
+                        .event(event.getType().name().toLowerCase())
+                        .build());
+    }
+
+    @PostMapping("/news/{id}/bump")
+    public ResponseEntity<List<JobResponse>> bumpNews(@PathVariable Long id) {
+        List<JobResponse> jobs = jobPublisher.bumpPendingJobs(id).stream()
+                .map(jobTracker::getJob)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(jobs);
+    }
+
+    /**
+     * Delete stored media no longer referenced by any news; dry run by default
+     */
+    @PostMapping("/media/gc")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MediaGarbageCollector.Report> collectMediaGarbage(
+            @RequestParam(defaultValue = "true") boolean dryRun) {
+        return ResponseEntity.ok(mediaGarbageCollector.run(dryRun));
+    }
+
+    /**
+     * Create upcoming audit log partitions and archive the expired ones now
+     */
+    @PostMapping("/audit/partitions/maintain")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AuditPartitionManager.Report> maintainAuditPartitions() {
+        return ResponseEntity.ok(auditPartitionManager.run());
+    }
+
     @GetMapping("/comments/unmoderated")
     public ResponseEntity<Page<CommentResponse>> getUnmoderatedComments(
             @RequestParam(defaultValue = "0") int page,
@@ -55,6 +122,19 @@ public class BackofficeController {
         return ResponseEntity.ok(comments);
     }
 
+    /**
+     * Comments at or above the auto-hide report threshold, most reported first
+     */
+    @GetMapping("/comments/reported")
+    public ResponseEntity<Page<CommentResponse>> getReportedComments(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Pageable pageable = PageRequest.of(page, size);
+        Page<CommentResponse> comments = commentService.getReportedComments(pageable);
+        return ResponseEntity.ok(comments);
+    }
+
     @PostMapping("/comments/{id}/approve")
     public ResponseEntity<CommentResponse> approveComment(@PathVariable Long id) {
         CommentResponse comment = commentService.approveComment(id);
@@ -66,4 +146,14 @@ public class BackofficeController {
         CommentResponse comment = commentService.rejectComment(id);
         return ResponseEntity.ok(comment);
     }
+
+    @PostMapping("/comments/bulk/approve")
+    public ResponseEntity<BulkModerationResponse> approveComments(@Valid @RequestBody BulkModerationRequest request) {
+        return ResponseEntity.ok(commentService.approveComments(request.getIds()));
+    }
+
+    @PostMapping("/comments/bulk/reject")
+    public ResponseEntity<BulkModerationResponse> rejectComments(@Valid @RequestBody BulkModerationRequest request) {
+        return ResponseEntity.ok(commentService.rejectComments(request.getIds()));
+    }
 }
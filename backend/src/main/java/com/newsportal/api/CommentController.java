@@ -1,8 +1,11 @@
 package com.newsportal.api;
 
+import com.newsportal.dto.CommentPageResponse;
 import com.newsportal.dto.CommentRequest;
 import com.newsportal.dto.CommentResponse;
 import com.newsportal.service.CommentService;
+import com.newsportal.service.WriteRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -10,7 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.security.Principal;
 
 @RestController
 @RequestMapping("/api/news/{newsId}/comments")
@@ -19,19 +22,45 @@ import java.util.List;
 public class CommentController {
 
     private final CommentService commentService;
+    private final WriteRateLimiter writeRateLimiter;
 
     @GetMapping
-    public ResponseEntity<List<CommentResponse>> getComments(@PathVariable Long newsId) {
-        List<CommentResponse> comments = commentService.getCommentsByNewsId(newsId);
+    public ResponseEntity<CommentPageResponse> getComments(
+            @PathVariable Long newsId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        CommentPageResponse comments = commentService.getCommentsByNewsId(newsId, cursor, limit);
         return ResponseEntity.ok(comments);
     }
 
+    @GetMapping("/{commentId}/replies")
+    public ResponseEntity<CommentPageResponse> getReplies(
+            @PathVariable Long newsId,
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        CommentPageResponse replies = commentService.getReplies(newsId, commentId, cursor, limit);
+        return ResponseEntity.ok(replies);
+    }
+
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<CommentResponse> createComment(
             @PathVariable Long newsId,
-            @Valid @RequestBody CommentRequest request) {
-        CommentResponse comment = commentService.createComment(newsId, request);
+            @Valid @RequestBody CommentRequest request,
+            Principal principal,
+            HttpServletRequest httpRequest) {
+        // Duplicates are turned away before they use up a slot of the rate limit
+        String fingerprint = writeRateLimiter.checkDuplicate(principal.getName(), request.getContent());
+        CommentResponse comment;
+        try {
+            writeRateLimiter.acquire(WriteRateLimiter.Action.COMMENT, principal.getName(), httpRequest.getRemoteAddr());
+            comment = commentService.createComment(newsId, request);
+        } catch (RuntimeException e) {
+            // Not posted, so the same text may be sent again straight away
+            writeRateLimiter.releaseDuplicate(fingerprint);
+            throw e;
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body(comment);
     }
 
@@ -44,7 +73,11 @@ public class CommentController {
 
     @PostMapping("/{commentId}/report")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Void> reportComment(@PathVariable Long commentId) {
+    public ResponseEntity<Void> reportComment(
+            @PathVariable Long commentId,
+            Principal principal,
+            HttpServletRequest httpRequest) {
+        writeRateLimiter.acquire(WriteRateLimiter.Action.REPORT, principal.getName(), httpRequest.getRemoteAddr());
         commentService.reportComment(commentId);
         return ResponseEntity.ok().build();
     }
@@ -0,0 +1,45 @@
+package com.newsportal.api;
+
+import com.newsportal.dto.JobResponse;
+import com.newsportal.dto.StageLatencyResponse;
+import com.newsportal.jobs.JobTracker;
+import com.newsportal.model.Job;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/backoffice/jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+@PreAuthorize("hasAnyRole('EDITOR', 'ADMIN')")
+public class JobController {
+
+    private final JobTracker jobTracker;
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<JobResponse> getJob(@PathVariable String jobId) {
+        JobResponse job = jobTracker.getJob(jobId);
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<JobResponse>> getJobsForNews(@RequestParam Long newsId) {
+        List<JobResponse> jobs = jobTracker.getJobsForNews(newsId);
+        return ResponseEntity.ok(jobs);
+    }
+
+    @GetMapping("/latency")
+    public ResponseEntity<List<StageLatencyResponse>> getStageLatencies(
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(required = false) Job.JobType type) {
+
+        List<StageLatencyResponse> latencies = jobTracker.getStageLatencies(
+                LocalDateTime.now().minusHours(hours), type);
+        return ResponseEntity.ok(latencies);
+    }
+}
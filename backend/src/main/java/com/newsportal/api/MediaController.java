@@ -0,0 +1,235 @@
+package com.newsportal.api;
+
+import com.newsportal.service.MediaCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves media files. With the local-disk media store files are served where they are; with S3
+ * they are proxied through the on-disk {@link MediaCache}, so each object is fetched once per node.
+ * <p>
+ * Files are handed to Tomcat's sendfile support when the connector offers it, so the kernel
+ * copies file pages straight to the socket; the media cache keeps an evicted file on disk long
+ * enough for Tomcat to open it. Otherwise, and for small files, they are copied through the
+ * response from a channel opened before eviction could remove them. Single byte ranges are
+ * honoured for resumable downloads and seeking. Media keys never change content (they are
+ * derived from it), so responses are cacheable for a year as immutable, and the ETag is the
+ * content hash the key carries.
+ * <p>
+ * Only keys under {@code app.media.public-prefixes} are served; anything else in the store, such
+ * as in-flight uploads, is a 404 without touching the cache or the store.
+ */
+@RestController
+@Slf4j
+@RequestMapping("/media")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class MediaController {
+
+    private static final String PATH_PREFIX = "/media/";
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // Below this the sendfile setup costs more than copying through the response buffer
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+    private static final Pattern CONTENT_KEY = Pattern.compile("^media/sha256/[0-9a-f]{2}/([0-9a-f]{64})\\.");
+
+    private final MediaCache mediaCache;
+
+    @Value("${app.media.public-prefixes:media/sha256/,news/}")
+    private List<String> publicPrefixes;
+
+    @RequestMapping(value = "/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String key = UriUtils.decode(path.substring(PATH_PREFIX.length()), StandardCharsets.UTF_8);
+
+        if (!isPublic(key)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        MediaCache.CachedFile file;
+        try {
+            file = mediaCache.openFile(key);
+        } catch (IllegalArgumentException e) {
+            file = null;
+        } catch (RuntimeException e) {
+            log.warn("Could not fetch media {}: {}", key, e.getMessage());
+            response.sendError(HttpServletResponse.SC_BAD_GATEWAY);
+            return;
+        }
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        try (MediaCache.CachedFile opened = file) {
+            send(request, response, key, opened);
+        }
+    }
+
+    private void send(HttpServletRequest request, HttpServletResponse response, String key,
+                      MediaCache.CachedFile file) throws IOException {
+        long size = file.getSize();
+        String etag = etag(key, size);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, file.getLastModified());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setContentType(MediaTypeFactory.getMediaType(key)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString());
+
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long count = size;
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                count = bounds[1] - bounds[0] + 1;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + bounds[0] + "-" + bounds[1] + "/" + size);
+            }
+        }
+
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        // Tomcat reopens the file by name after this method returns; an evicted cache file
+        // stays on disk for the cache's unlink delay
+        if (count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+
+        FileChannel channel = file.getChannel();
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        long remaining = count;
+        while (remaining > 0) {
+            long sent = channel.transferTo(position, remaining, out);
+            if (sent <= 0) {
+                throw new IOException("File shrank while sending: " + key);
+            }
+            position += sent;
+            remaining -= sent;
+        }
+    }
+
+    /**
+     * Content-addressed keys carry the SHA-256 of their bytes; other keys get a strong hash of
+     * the key and size, the same on every node
+     */
+    static String etag(String key, long size) {
+        Matcher matcher = CONTENT_KEY.matcher(key);
+        if (matcher.find()) {
+            return "\"" + matcher.group(1) + "\"";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((key + "\n" + size).getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean isPublic(String key) {
+        if (key.contains("..")) {
+            return false;
+        }
+        for (String prefix : publicPrefixes) {
+            if (key.startsWith(prefix.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bounds of a single byte range as {first, last}; an empty array to serve the whole file
+     * (multiple ranges or a malformed header), or null if the range cannot be satisfied
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+
+            if (first.isEmpty()) {
+                // Suffix range: the last n bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, size - suffix), size - 1};
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (end < start) {
+                return new long[0];
+            }
+            if (start >= size) {
+                return null;
+            }
+            return new long[]{start, Math.min(end, size - 1)};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
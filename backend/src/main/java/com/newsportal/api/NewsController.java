@@ -2,6 +2,7 @@ package com.newsportal.api;
 
 import com.newsportal.dto.NewsRequest;
 import com.newsportal.dto.NewsResponse;
+import com.newsportal.service.ArticleEventService;
 import com.newsportal.service.NewsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -10,9 +11,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -23,6 +26,7 @@ import java.util.List;
 public class NewsController {
 
     private final NewsService newsService;
+    private final ArticleEventService articleEventService;
 
     @GetMapping
     public ResponseEntity<Page<NewsResponse>> getAllNews(
@@ -68,6 +72,18 @@ public class NewsController {
         return ResponseEntity.ok(news);
     }
 
+    /**
+     * Server-sent events with new comments and article changes, merged into one "update" event
+     * per short window
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@PathVariable Long id) {
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(articleEventService.subscribe(id));
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('EDITOR', 'ADMIN')")
     public ResponseEntity<NewsResponse> createNews(@Valid @RequestBody NewsRequest request) {
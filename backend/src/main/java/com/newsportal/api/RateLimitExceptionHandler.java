@@ -0,0 +1,35 @@
+package com.newsportal.api;
+
+import com.newsportal.service.RateLimitExceededException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * 429 responses for throttled writes, with Retry-After and the RateLimit-* fields
+ * (draft-ietf-httpapi-ratelimit-headers) so clients can back off without guessing
+ */
+@RestControllerAdvice
+public class RateLimitExceptionHandler {
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleRateLimit(RateLimitExceededException e) {
+        long retryAfter = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        if (e.getLimit() != null) {
+            response.header("RateLimit-Limit", String.valueOf(e.getLimit()))
+                    .header("RateLimit-Remaining", "0")
+                    .header("RateLimit-Reset", String.valueOf(retryAfter));
+        }
+        return response.body(Map.of(
+                        "status", HttpStatus.TOO_MANY_REQUESTS.value(),
+                        "error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(),
+                        "message", e.getMessage(),
+                        "retryAfterSeconds", retryAfter));
+    }
+}
@@ -9,7 +9,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
- * RabbitMQ configuration for job queues
+ * RabbitMQ configuration for job queues.
+ * Job queues are priority queues so breaking-news jobs overtake backlog work;
+ * listener prefetch is kept low so priorities apply to what is still queued.
  */
 @Configuration
 public class RabbitMQConfig {
@@ -24,6 +26,8 @@ public class RabbitMQConfig {
     public static final String IMAGE_GEN_ROUTING_KEY = "news.image.generate";
     public static final String SOCIAL_CARD_ROUTING_KEY = "news.social.card";
 
+    public static final int MAX_PRIORITY = 10;
+
     @Bean
     public TopicExchange exchange() {
         return new TopicExchange(EXCHANGE);
@@ -33,6 +37,7 @@ public class RabbitMQConfig {
     public Queue newsRewriteQueue() {
         return QueueBuilder.durable(NEWS_REWRITE_QUEUE)
                 .withArgument("x-dead-letter-exchange", EXCHANGE + ".dlx")
+                .maxPriority(MAX_PRIORITY)
                 .build();
     }
 
@@ -40,6 +45,7 @@ public class RabbitMQConfig {
     public Queue imageGenerationQueue() {
         return QueueBuilder.durable(IMAGE_GENERATION_QUEUE)
                 .withArgument("x-dead-letter-exchange", EXCHANGE + ".dlx")
+                .maxPriority(MAX_PRIORITY)
                 .build();
     }
 
@@ -47,6 +53,7 @@ public class RabbitMQConfig {
     public Queue socialCardQueue() {
         return QueueBuilder.durable(SOCIAL_CARD_QUEUE)
                 .withArgument("x-dead-letter-exchange", EXCHANGE + ".dlx")
+                .maxPriority(MAX_PRIORITY)
                 .build();
     }
 
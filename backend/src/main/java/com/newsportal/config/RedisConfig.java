@@ -0,0 +1,31 @@
+package com.newsportal.config;
+
+import com.newsportal.service.ArticleEventService;
+import com.newsportal.service.CommentThreadCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis pub/sub subscriptions. Every node subscribes to the article event channel, pushes what
+ * it receives to its own connected readers and drops its copies of changed comment threads.
+ */
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            ArticleEventService articleEventService,
+            CommentThreadCache commentThreadCache,
+            @Value("${app.events.channel:article-events}") String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(articleEventService, new ChannelTopic(channel));
+        container.addMessageListener(commentThreadCache, new ChannelTopic(channel));
+        return container;
+    }
+}
@@ -0,0 +1,109 @@
+package com.newsportal.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * S3 clients, created once and shared.
+ * The sync client (pooled Apache HTTP) serves streaming uploads and reads; the async client
+ * (Netty) uploads, copies and deletes without blocking a thread and splits large objects into
+ * parallel multipart transfers. With an endpoint override (MinIO, LocalStack) path-style
+ * addressing is used so no bucket DNS is needed.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "s3", matchIfMissing = true)
+public class S3Config {
+
+    @Value("${app.storage.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${app.storage.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${app.storage.s3.secret-key:}")
+    private String secretKey;
+
+    @Value("${app.storage.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${app.storage.s3.path-style:true}")
+    private boolean pathStyle;
+
+    @Value("${app.storage.s3.max-connections:64}")
+    private int maxConnections;
+
+    @Value("${app.storage.s3.max-concurrency:128}")
+    private int maxConcurrency;
+
+    @Value("${app.storage.s3.connection-timeout:5s}")
+    private Duration connectionTimeout;
+
+    @Value("${app.storage.s3.multipart-threshold:8MB}")
+    private DataSize multipartThreshold;
+
+    @Value("${app.storage.s3.part-size:8MB}")
+    private DataSize partSize;
+
+    @Bean
+    public S3Client s3Client() {
+        var builder = S3Client.builder()
+                .credentialsProvider(credentialsProvider())
+                .region(Region.of(region))
+                .httpClientBuilder(ApacheHttpClient.builder()
+                        .maxConnections(maxConnections)
+                        .connectionTimeout(connectionTimeout)
+                        .tcpKeepAlive(true));
+
+        if (hasEndpoint()) {
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(pathStyle);
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public S3AsyncClient s3AsyncClient() {
+        var builder = S3AsyncClient.builder()
+                .credentialsProvider(credentialsProvider())
+                .region(Region.of(region))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConcurrency)
+                        .connectionTimeout(connectionTimeout)
+                        .tcpKeepAlive(true))
+                .multipartEnabled(true)
+                .multipartConfiguration(multipart -> multipart
+                        .thresholdInBytes(multipartThreshold.toBytes())
+                        .minimumPartSizeInBytes(partSize.toBytes()));
+
+        if (hasEndpoint()) {
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(pathStyle);
+        }
+        return builder.build();
+    }
+
+    private AwsCredentialsProvider credentialsProvider() {
+        if (accessKey == null || accessKey.isEmpty()) {
+            // Instance profile, environment or ~/.aws credentials
+            return DefaultCredentialsProvider.create();
+        }
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+    }
+
+    private boolean hasEndpoint() {
+        return endpoint != null && !endpoint.isEmpty();
+    }
+}
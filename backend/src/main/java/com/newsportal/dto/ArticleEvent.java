@@ -0,0 +1,36 @@
+package com.newsportal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change to an article or its comments, published once the transaction that made it commits
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleEvent {
+
+    private Long newsId;
+    private Type type;
+
+    /** The comment now visible, for COMMENT_ADDED */
+    private CommentResponse comment;
+
+    /** The comment no longer visible, for COMMENT_REMOVED */
+    private Long commentId;
+
+    /** Parent of the removed comment, if it was a reply */
+    private Long parentId;
+
+    public enum Type {
+        ARTICLE_UPDATED,
+        COMMENT_ADDED,
+        COMMENT_REMOVED,
+        /** Many comments changed at once; readers reload them */
+        COMMENTS_CHANGED
+    }
+}
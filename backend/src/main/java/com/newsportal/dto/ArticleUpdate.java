@@ -0,0 +1,34 @@
+package com.newsportal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Article events of one coalescing window, pushed to readers as a single server-sent event
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleUpdate {
+
+    private Long newsId;
+
+    /** The article itself changed and should be fetched again */
+    private boolean articleChanged;
+
+    /** Comments that became visible, oldest first */
+    @Builder.Default
+    private List<CommentResponse> addedComments = new ArrayList<>();
+
+    @Builder.Default
+    private List<Long> removedCommentIds = new ArrayList<>();
+
+    /** Too many changes to list; comments should be fetched again */
+    private boolean commentsChanged;
+}
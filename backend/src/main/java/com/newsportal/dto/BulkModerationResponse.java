@@ -0,0 +1,24 @@
+package com.newsportal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkModerationResponse {
+
+    private int requested;
+
+    /**
+     * Ids whose state changed; the others do not exist or were already in the requested state
+     */
+    @Builder.Default
+    private List<Long> updatedIds = new ArrayList<>();
+}
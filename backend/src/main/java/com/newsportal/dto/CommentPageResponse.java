@@ -0,0 +1,24 @@
+package com.newsportal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentPageResponse {
+
+    @Builder.Default
+    private List<CommentResponse> comments = new ArrayList<>();
+
+    /**
+     * Pass back as {@code cursor} to fetch the next page; null on the last page
+     */
+    private String nextCursor;
+}
@@ -24,9 +24,25 @@ public class CommentResponse {
     @Builder.Default
     private List<CommentResponse> replies = new ArrayList<>();
 
+    /**
+     * Approved direct replies, of which {@code replies} may hold only the first few
+     */
+    private Long replyCount;
+
+    /**
+     * Cursor for the replies after those included here, when there are more
+     */
+    private String repliesCursor;
+
     private Boolean moderated;
     private Boolean approved;
     private Integer reportedCount;
+
+    /**
+     * Classifier score, only in moderation views
+     */
+    private Double moderationScore;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
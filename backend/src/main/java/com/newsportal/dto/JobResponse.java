@@ -0,0 +1,56 @@
+package com.newsportal.dto;
+
+import com.newsportal.model.Job;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobResponse {
+
+    private String id;
+    private Long newsId;
+    private Job.JobType type;
+    private Job.JobStatus status;
+    private Job.JobPriority priority;
+    private Integer attempts;
+    private String lastError;
+    private LocalDateTime queuedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    @Builder.Default
+    private List<Transition> transitions = new ArrayList<>();
+
+    @Builder.Default
+    private List<StageTiming> stages = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Transition {
+        private Job.JobStatus from;
+        private Job.JobStatus to;
+        private Integer attempt;
+        private LocalDateTime at;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StageTiming {
+        private Job.JobStage stage;
+        private Integer attempt;
+        private Long durationMs;
+    }
+}
@@ -7,6 +7,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @Builder
@@ -26,4 +28,32 @@ public class MediaAssetResponse {
     private Boolean aiGenerated;
     private Integer displayOrder;
     private LocalDateTime createdAt;
+
+    /**
+     * JPEG candidates for the img srcset attribute, original included
+     */
+    private String srcset;
+
+    private String thumbnailUrl;
+
+    /**
+     * Placeholder to show until the image has loaded
+     */
+    private String blurHash;
+    private String dominantColor;
+
+    /**
+     * Modern-format alternatives for picture/source elements
+     */
+    @Builder.Default
+    private List<Source> sources = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Source {
+        private String type;
+        private String srcset;
+    }
 }
@@ -0,0 +1,19 @@
+package com.newsportal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StageLatencyResponse {
+
+    private String stage;
+    private Long samples;
+    private Double p50Ms;
+    private Double p95Ms;
+    private Double p99Ms;
+}
@@ -0,0 +1,221 @@
+package com.newsportal.jobs;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newsportal.model.Job;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Broker-less job transport for single-node deployments.
+ * <p>
+ * Published jobs are appended to a {@link MappedJobLog} on local disk, so enqueueing is a
+ * memory copy instead of a network round trip, and jobs survive a restart. A dispatcher thread
+ * reads the log from the committed consumer offset and hands records to a bounded worker pool;
+ * among the records read ahead, higher priority lanes run first. The committed offset only
+ * advances past records whose processing finished, so after a crash unfinished jobs are
+ * replayed and duplicates are filtered by {@link IdempotentJobRunner}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jobs.transport", havingValue = "embedded")
+@Slf4j
+@RequiredArgsConstructor
+public class EmbeddedJobTransport implements JobTransport {
+
+    private static final String TYPE_FIELD = "type";
+    private static final String PRIORITY_FIELD = "priority";
+    private static final String MESSAGE_FIELD = "message";
+
+    private final NewsJobConsumer newsJobConsumer;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.jobs.embedded.dir:./data/job-log}")
+    private String directory;
+
+    @Value("${app.jobs.embedded.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${app.jobs.embedded.workers:4}")
+    private int workers;
+
+    @Value("${app.jobs.embedded.max-in-flight:64}")
+    private int maxInFlight;
+
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private final Object commitLock = new Object();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private MappedJobLog jobLog;
+    private ThreadPoolExecutor executor;
+    private Semaphore permits;
+    private Thread dispatcher;
+    private volatile boolean running;
+    private long readOffset;
+
+    @PostConstruct
+    public void start() throws IOException {
+        jobLog = new MappedJobLog(Path.of(directory), (int) segmentSize.toBytes());
+        readOffset = jobLog.getCommittedOffset();
+        permits = new Semaphore(maxInFlight);
+
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                runnable -> new Thread(runnable, "embedded-job-" + sequence.incrementAndGet()));
+
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "embedded-job-dispatcher");
+        dispatcher.start();
+
+        log.info("Embedded job transport started at {} ({} workers, {} pending bytes)",
+                directory, workers, jobLog.getWriteOffset() - readOffset);
+    }
+
+    @Override
+    public void send(Job.JobType type, String jobId, Job.JobPriority priority, Map<String, Object> message) {
+        Map<String, Object> record = new HashMap<>();
+        record.put(TYPE_FIELD, type.name());
+        record.put(PRIORITY_FIELD, priority.name());
+        record.put(MESSAGE_FIELD, message);
+
+        try {
+            jobLog.append(objectMapper.writeValueAsBytes(record));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to enqueue " + type + " job " + jobId, e);
+        }
+    }
+
+    /**
+     * Force appended jobs and the consumer offset to disk
+     */
+    @Scheduled(fixedDelayString = "${app.jobs.embedded.flush-interval-ms:200}")
+    public void flush() {
+        if (running) {
+            jobLog.flush();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            // Unfinished jobs stay behind the committed offset and are replayed on restart
+            executor.shutdownNow();
+        }
+        jobLog.close();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                if (!jobLog.awaitData(readOffset, 500, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+                permits.acquire();
+
+                MappedJobLog.Record record = jobLog.read(readOffset);
+                if (record == null) {
+                    permits.release();
+                    continue;
+                }
+
+                synchronized (commitLock) {
+                    inFlight.add(record.getOffset());
+                    readOffset = record.getNextOffset();
+                }
+                dispatch(record);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Embedded job dispatcher error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void dispatch(MappedJobLog.Record record) {
+        Job.JobType type;
+        Job.JobPriority priority;
+        Map<String, Object> message;
+        try {
+            Map<String, Object> entry = objectMapper.readValue(record.getPayload(), new TypeReference<>() {
+            });
+            type = Job.JobType.valueOf(entry.get(TYPE_FIELD).toString());
+            priority = Job.JobPriority.valueOf(entry.get(PRIORITY_FIELD).toString());
+            @SuppressWarnings("unchecked")
+            Map<String, Object> body = (Map<String, Object>) entry.get(MESSAGE_FIELD);
+            message = body;
+        } catch (Exception e) {
+            log.error("Discarding unreadable job record at offset {}: {}", record.getOffset(), e.getMessage());
+            completed(record.getOffset());
+            return;
+        }
+
+        executor.execute(new DispatchTask(record.getOffset(), priority.getLevel(), () -> {
+            try {
+                handle(type, message);
+            } finally {
+                completed(record.getOffset());
+            }
+        }));
+    }
+
+    private void handle(Job.JobType type, Map<String, Object> message) {
+        switch (type) {
+            case NEWS_REWRITE -> newsJobConsumer.processNewsRewrite(message);
+            case IMAGE_GENERATION -> newsJobConsumer.processImageGeneration(message);
+            case SOCIAL_CARD -> newsJobConsumer.processSocialCardGeneration(message);
+        }
+    }
+
+    private void completed(long offset) {
+        synchronized (commitLock) {
+            inFlight.remove(offset);
+            jobLog.commit(inFlight.isEmpty() ? readOffset : inFlight.first());
+        }
+        permits.release();
+    }
+
+    /**
+     * Queued work ordered by priority lane, then by log position
+     */
+    @RequiredArgsConstructor
+    private static class DispatchTask implements Runnable, Comparable<DispatchTask> {
+        private final long offset;
+        private final int priority;
+        private final Runnable work;
+
+        @Override
+        public void run() {
+            work.run();
+        }
+
+        @Override
+        public int compareTo(DispatchTask other) {
+            int byPriority = Integer.compare(other.priority, priority);
+            return byPriority != 0 ? byPriority : Long.compare(offset, other.offset);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.newsportal.jobs;
+
+import com.newsportal.model.Job;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Runs job messages at most once per idempotency key.
+ * Concurrent duplicates on this node wait for the in-flight execution instead of
+ * repeating it; duplicates across nodes and redeliveries are filtered by {@link JobDedupStore}.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotentJobRunner {
+
+    public static final String NEWS_ID_KEY = "newsId";
+    public static final String JOB_ID_KEY = "jobId";
+    public static final String IDEMPOTENCY_KEY = "idempotencyKey";
+
+    private final JobTracker jobTracker;
+    private final JobDedupStore jobDedupStore;
+
+    private final ConcurrentMap<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    public interface JobWork {
+        void run(String jobId, Long newsId) throws Exception;
+    }
+
+    /**
+     * Default idempotency key of a job: unique to the published job, so only redeliveries and
+     * bumped copies of it are filtered, and a later job for the same article still runs
+     */
+    public static String defaultKey(Job.JobType type, Long newsId, String jobId) {
+        return type.name() + ":" + newsId + ":" + jobId;
+    }
+
+    /**
+     * Opt-in key that coalesces every job of a type for an article into one execution while
+     * the completed claim lasts
+     */
+    public static String coalescingKey(Job.JobType type, Long newsId) {
+        return type.name() + ":" + newsId;
+    }
+
+    /**
+     * Execute the job unless an equivalent one already ran or is running
+     */
+    public void run(Map<String, Object> message, Job.JobType type, JobWork work) {
+        Long newsId;
+        try {
+            newsId = Long.valueOf(message.get(NEWS_ID_KEY).toString());
+        } catch (Exception e) {
+            log.error("Discarding malformed {} job message: {}", type, message);
+            return;
+        }
+
+        Object messageJobId = message.get(JOB_ID_KEY);
+        Object messageKey = message.get(IDEMPOTENCY_KEY);
+        // Messages published before tracking carry neither key nor job id
+        String key = messageKey != null ? messageKey.toString()
+                : messageJobId != null ? defaultKey(type, newsId, messageJobId.toString())
+                : coalescingKey(type, newsId);
+
+        CompletableFuture<Boolean> execution = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing;
+        while ((existing = inFlight.putIfAbsent(key, execution)) != null) {
+            log.info("Coalescing duplicate {} job onto in-flight execution for key {}", type, key);
+            if (existing.join()) {
+                jobTracker.skipped(messageJobId, type, newsId, "Coalesced with concurrent execution");
+                return;
+            }
+            // The in-flight execution failed: try to run it ourselves
+        }
+
+        boolean succeeded = false;
+        String jobId = null;
+        String owner = messageJobId != null ? messageJobId.toString() : key;
+        try {
+            JobDedupStore.ClaimResult claim = jobDedupStore.claim(key, owner);
+            if (claim != JobDedupStore.ClaimResult.CLAIMED) {
+                log.info("Skipping duplicate {} job for key {} ({})", type, key, claim);
+                jobTracker.skipped(messageJobId, type, newsId, "Duplicate of " + claim.name().toLowerCase() + " job");
+                succeeded = claim == JobDedupStore.ClaimResult.COMPLETED;
+                return;
+            }
+
+            jobId = jobTracker.started(messageJobId, type, newsId);
+            if (jobId == null) {
+                // Superseded or already finished: a stale copy of the message, not a new run
+                log.info("Dropping {} job {} for key {}, it is already settled", type, messageJobId, key);
+                releaseQuietly(key, owner);
+                return;
+            }
+            work.run(jobId, newsId);
+            jobDedupStore.complete(key, owner);
+            jobTracker.succeeded(jobId);
+            succeeded = true;
+
+        } catch (Exception e) {
+            log.error("Error processing {} job for news ID {}: {}", type, newsId, e.getMessage(), e);
+            releaseQuietly(key, owner);
+            if (jobId != null) {
+                jobTracker.failed(jobId, e);
+            }
+            // TODO: Implement retry logic with exponential backoff
+        } finally {
+            inFlight.remove(key, execution);
+            execution.complete(succeeded);
+        }
+    }
+
+    private void releaseQuietly(String key, String owner) {
+        try {
+            jobDedupStore.release(key, owner);
+        } catch (Exception e) {
+            log.warn("Could not release job dedup key {}: {}", key, e.getMessage());
+        }
+    }
+}
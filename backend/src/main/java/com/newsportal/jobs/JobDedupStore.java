@@ -0,0 +1,139 @@
+package com.newsportal.jobs;
+
+import com.newsportal.model.JobDedupEntry;
+import com.newsportal.repository.JobDedupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency store for job consumption.
+ * Keys live in Redis with a TTL; when Redis is unavailable the job_dedup table is used instead.
+ * A key is either claimed by an owner (the job id processing it) for the lease duration,
+ * or marked DONE for the completed TTL.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class JobDedupStore {
+
+    private static final String KEY_PREFIX = "job:dedup:";
+    private static final String DONE = "DONE";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JobDedupRepository jobDedupRepository;
+
+    @Value("${app.jobs.dedup.lease:15m}")
+    private Duration lease;
+
+    @Value("${app.jobs.dedup.completed-ttl:30m}")
+    private Duration completedTtl;
+
+    public enum ClaimResult {
+        CLAIMED,
+        IN_FLIGHT,
+        COMPLETED
+    }
+
+    /**
+     * Try to claim a key for the given owner.
+     * A redelivery of the same owner's message takes its claim back.
+     */
+    @Transactional
+    public ClaimResult claim(String key, String owner) {
+        try {
+            return claimInRedis(key, owner);
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for job dedup, falling back to database: {}", e.getMessage());
+            return claimInDatabase(key, owner);
+        }
+    }
+
+    /**
+     * Mark the key as completed so later duplicates are skipped
+     */
+    @Transactional
+    public void complete(String key, String owner) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, DONE, completedTtl);
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for job dedup, falling back to database: {}", e.getMessage());
+            LocalDateTime now = LocalDateTime.now();
+            jobDedupRepository.save(JobDedupEntry.builder()
+                    .idempotencyKey(key)
+                    .owner(owner)
+                    .status(DONE)
+                    .expiresAt(now.plus(completedTtl))
+                    .updatedAt(now)
+                    .build());
+        }
+    }
+
+    /**
+     * Drop the owner's claim so the job can be retried
+     */
+    @Transactional
+    public void release(String key, String owner) {
+        try {
+            String redisKey = KEY_PREFIX + key;
+            if (owner.equals(redisTemplate.opsForValue().get(redisKey))) {
+                redisTemplate.delete(redisKey);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for job dedup, falling back to database: {}", e.getMessage());
+            jobDedupRepository.release(key, owner);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.dedup.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = jobDedupRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired job dedup entries", purged);
+        }
+    }
+
+    private ClaimResult claimInRedis(String key, String owner) {
+        String redisKey = KEY_PREFIX + key;
+
+        if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(redisKey, owner, lease))) {
+            return ClaimResult.CLAIMED;
+        }
+
+        String holder = redisTemplate.opsForValue().get(redisKey);
+        if (holder == null) {
+            // Expired between the two calls
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(redisKey, owner, lease))
+                    ? ClaimResult.CLAIMED
+                    : ClaimResult.IN_FLIGHT;
+        }
+        if (DONE.equals(holder)) {
+            return ClaimResult.COMPLETED;
+        }
+        if (holder.equals(owner)) {
+            redisTemplate.expire(redisKey, lease);
+            return ClaimResult.CLAIMED;
+        }
+        return ClaimResult.IN_FLIGHT;
+    }
+
+    private ClaimResult claimInDatabase(String key, String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        if (jobDedupRepository.claim(key, owner, now.plus(lease), now) > 0) {
+            return ClaimResult.CLAIMED;
+        }
+
+        return jobDedupRepository.findById(key)
+                .map(entry -> DONE.equals(entry.getStatus()) ? ClaimResult.COMPLETED : ClaimResult.IN_FLIGHT)
+                .orElse(ClaimResult.IN_FLIGHT);
+    }
+}
@@ -1,75 +1,132 @@
 package com.newsportal.jobs;
 
+import com.newsportal.model.Job;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
- * Service for publishing jobs to RabbitMQ
+ * Service for publishing jobs through the configured {@link JobTransport}.
+ * Every message carries its job id and an
+ * idempotency key; by default the key is unique to the job, so redeliveries and bumped copies
+ * of it run once while every newly published job runs. Pass
+ * {@link IdempotentJobRunner#coalescingKey} to run a job at most once per article.
+ * Messages are delivered in the priority lane of their {@link Job.JobPriority}.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class JobPublisher {
 
-    private final RabbitTemplate rabbitTemplate;
-
-    private static final String EXCHANGE = "newsportal.exchange";
-    private static final String REWRITE_ROUTING_KEY = "news.rewrite";
-    private static final String IMAGE_GEN_ROUTING_KEY = "news.image.generate";
-    private static final String SOCIAL_CARD_ROUTING_KEY = "news.social.card";
+    private final JobTransport jobTransport;
+    private final JobTracker jobTracker;
 
     /**
      * Publish news rewrite job
      */
-    public void publishNewsRewriteJob(Long newsId) {
-        log.info("Publishing news rewrite job for ID: {}", newsId);
+    public String publishNewsRewriteJob(Long newsId) {
+        return publishNewsRewriteJob(newsId, Job.JobPriority.NORMAL, null);
+    }
 
-        Map<String, Object> message = new HashMap<>();
-        message.put("newsId", newsId);
-        message.put("timestamp", System.currentTimeMillis());
+    public String publishNewsRewriteJob(Long newsId, Job.JobPriority priority) {
+        return publishNewsRewriteJob(newsId, priority, null);
+    }
 
-        rabbitTemplate.convertAndSend(EXCHANGE, REWRITE_ROUTING_KEY, message);
+    public String publishNewsRewriteJob(Long newsId, Job.JobPriority priority, String idempotencyKey) {
+        log.info("Publishing news rewrite job for ID: {} ({})", newsId, priority);
+        return publish(Job.JobType.NEWS_REWRITE, newsId, priority, idempotencyKey);
     }
 
     /**
      * Publish image generation job
      */
-    public void publishImageGenerationJob(Long newsId) {
-        log.info("Publishing image generation job for ID: {}", newsId);
+    public String publishImageGenerationJob(Long newsId) {
+        return publishImageGenerationJob(newsId, Job.JobPriority.NORMAL, null);
+    }
 
-        Map<String, Object> message = new HashMap<>();
-        message.put("newsId", newsId);
-        message.put("timestamp", System.currentTimeMillis());
+    public String publishImageGenerationJob(Long newsId, Job.JobPriority priority) {
+        return publishImageGenerationJob(newsId, priority, null);
+    }
 
-        rabbitTemplate.convertAndSend(EXCHANGE, IMAGE_GEN_ROUTING_KEY, message);
+    public String publishImageGenerationJob(Long newsId, Job.JobPriority priority, String idempotencyKey) {
+        log.info("Publishing image generation job for ID: {} ({})", newsId, priority);
+        return publish(Job.JobType.IMAGE_GENERATION, newsId, priority, idempotencyKey);
     }
 
     /**
      * Publish social card generation job
      */
-    public void publishSocialCardJob(Long newsId) {
-        log.info("Publishing social card generation job for ID: {}", newsId);
+    public String publishSocialCardJob(Long newsId) {
+        return publishSocialCardJob(newsId, Job.JobPriority.NORMAL, null);
+    }
 
-        Map<String, Object> message = new HashMap<>();
-        message.put("newsId", newsId);
-        message.put("timestamp", System.currentTimeMillis());
+    public String publishSocialCardJob(Long newsId, Job.JobPriority priority) {
+        return publishSocialCardJob(newsId, priority, null);
+    }
 
-        rabbitTemplate.convertAndSend(EXCHANGE, SOCIAL_CARD_ROUTING_KEY, message);
+    public String publishSocialCardJob(Long newsId, Job.JobPriority priority, String idempotencyKey) {
+        log.info("Publishing social card generation job for ID: {} ({})", newsId, priority);
+        return publish(Job.JobType.SOCIAL_CARD, newsId, priority, idempotencyKey);
     }
 
     /**
      * Publish complete pipeline job (rewrite -> image -> social card)
      */
     public void publishCompletePipeline(Long newsId) {
-        log.info("Publishing complete pipeline for news ID: {}", newsId);
+        publishCompletePipeline(newsId, Job.JobPriority.NORMAL);
+    }
+
+    public void publishCompletePipeline(Long newsId, Job.JobPriority priority) {
+        log.info("Publishing complete pipeline for news ID: {} ({})", newsId, priority);
+
+        publishNewsRewriteJob(newsId, priority);
+        publishImageGenerationJob(newsId, priority);
+        publishSocialCardJob(newsId, priority);
+    }
+
+    /**
+     * Re-publish the article's queued jobs in the breaking-news lane.
+     * The copies share the original idempotency keys, so whichever message is consumed
+     * first runs and the other is skipped as a duplicate. The originals stay in their queue
+     * marked as skipped, and consumers drop them whenever they are reached.
+     */
+    public List<String> bumpPendingJobs(Long newsId) {
+        List<String> bumped = new ArrayList<>();
+
+        for (Job pending : jobTracker.getPendingJobs(newsId)) {
+            if (pending.getPriority() == Job.JobPriority.BREAKING) {
+                continue;
+            }
+
+            String jobId = publish(pending.getType(), newsId, Job.JobPriority.BREAKING, pending.getIdempotencyKey());
+            if (!jobTracker.superseded(pending.getId(), "Superseded by breaking job " + jobId)) {
+                // Already being consumed; the breaking copy is skipped as its duplicate
+                log.debug("Job {} started before it could be bumped", pending.getId());
+            }
+            bumped.add(jobId);
+        }
+
+        log.info("Bumped {} pending jobs for news ID: {}", bumped.size(), newsId);
+        return bumped;
+    }
+
+    private String publish(Job.JobType type, Long newsId, Job.JobPriority priority, String idempotencyKey) {
+        Job job = jobTracker.queued(type, newsId, priority, idempotencyKey);
+        String jobId = job.getId();
+
+        Map<String, Object> message = new HashMap<>();
+        message.put(IdempotentJobRunner.JOB_ID_KEY, jobId);
+        message.put(IdempotentJobRunner.NEWS_ID_KEY, newsId);
+        message.put(IdempotentJobRunner.IDEMPOTENCY_KEY, job.getIdempotencyKey());
+        message.put("priority", priority.name());
+        message.put("timestamp", System.currentTimeMillis());
 
-        publishNewsRewriteJob(newsId);
-        publishImageGenerationJob(newsId);
-        publishSocialCardJob(newsId);
+        jobTransport.send(type, jobId, priority, message);
+        return jobId;
     }
 }
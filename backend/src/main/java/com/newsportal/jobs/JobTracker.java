@@ -0,0 +1,313 @@
+package com.newsportal.jobs;
+
+import com.newsportal.dto.JobResponse;
+import com.newsportal.dto.StageLatencyResponse;
+import com.newsportal.model.Job;
+import com.newsportal.model.JobStageTiming;
+import com.newsportal.model.JobTransition;
+import com.newsportal.repository.JobRepository;
+import com.newsportal.repository.JobStageTimingRepository;
+import com.newsportal.repository.JobTransitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Persists job lifecycle (queued, started, retried, finished) and per-stage durations.
+ * The job being processed is bound to the worker thread between {@link #started} and
+ * {@link #succeeded}/{@link #failed} so services can time their stages with {@link #time}.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class JobTracker {
+
+    private static final ThreadLocal<Job> CURRENT_JOB = new ThreadLocal<>();
+    private static final int MAX_ERROR_LENGTH = 4000;
+
+    private final JobRepository jobRepository;
+    private final JobTransitionRepository transitionRepository;
+    private final JobStageTimingRepository stageTimingRepository;
+
+    /**
+     * Record a newly published job; without an idempotency key it gets the job's own default key
+     */
+    @Transactional
+    public Job queued(Job.JobType type, Long newsId, Job.JobPriority priority, String idempotencyKey) {
+        String id = UUID.randomUUID().toString();
+        Job job = Job.builder()
+                .id(id)
+                .newsId(newsId)
+                .type(type)
+                .priority(priority)
+                .idempotencyKey(idempotencyKey != null ? idempotencyKey : IdempotentJobRunner.defaultKey(type, newsId, id))
+                .status(Job.JobStatus.QUEUED)
+                .queuedAt(LocalDateTime.now())
+                .build();
+
+        jobRepository.save(job);
+        recordTransition(job, null);
+
+        return job;
+    }
+
+    /**
+     * Mark a job as running on the current thread, or return null if it already finished or
+     * was superseded and the message must be dropped.
+     * Messages published before tracking existed carry no id and get a job on the fly.
+     */
+    @Transactional
+    public String started(Object jobId, Job.JobType type, Long newsId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        Job job = jobId == null ? null : jobRepository.findByIdForUpdate(jobId.toString()).orElse(null);
+        if (job != null && isFinished(job.getStatus())) {
+            return null;
+        }
+        if (job == null) {
+            job = Job.builder()
+                    .id(jobId != null ? jobId.toString() : UUID.randomUUID().toString())
+                    .newsId(newsId)
+                    .type(type)
+                    .queuedAt(now)
+                    .build();
+        }
+
+        Job.JobStatus previous = job.getStatus();
+        job.setAttempts(job.getAttempts() + 1);
+        job.setStatus(job.getAttempts() > 1 ? Job.JobStatus.RETRYING : Job.JobStatus.RUNNING);
+        job.setStartedAt(now);
+        job.setFinishedAt(null);
+        job = jobRepository.save(job);
+        recordTransition(job, previous);
+
+        if (job.getAttempts() == 1) {
+            recordStage(job, Job.JobStage.QUEUE, Duration.between(job.getQueuedAt(), now).toMillis());
+        }
+
+        CURRENT_JOB.set(job);
+        return job.getId();
+    }
+
+    /**
+     * Mark the job as finished successfully
+     */
+    @Transactional
+    public void succeeded(String jobId) {
+        try {
+            finish(jobId, Job.JobStatus.SUCCEEDED, null);
+        } finally {
+            CURRENT_JOB.remove();
+        }
+    }
+
+    /**
+     * Mark the job as failed
+     */
+    @Transactional
+    public void failed(String jobId, Throwable error) {
+        try {
+            finish(jobId, Job.JobStatus.FAILED, error);
+        } finally {
+            CURRENT_JOB.remove();
+        }
+    }
+
+    /**
+     * Mark a job as skipped without running it (duplicate delivery or publish). A job that
+     * already finished keeps its outcome.
+     */
+    @Transactional
+    public void skipped(Object jobId, Job.JobType type, Long newsId, String reason) {
+        Job job = jobId == null ? null : jobRepository.findByIdForUpdate(jobId.toString()).orElse(null);
+        if (job != null && isFinished(job.getStatus())) {
+            log.debug("Job {} already {}, not marking it skipped", job.getId(), job.getStatus());
+            return;
+        }
+        if (job == null) {
+            job = Job.builder()
+                    .id(jobId != null ? jobId.toString() : UUID.randomUUID().toString())
+                    .newsId(newsId)
+                    .type(type)
+                    .queuedAt(LocalDateTime.now())
+                    .build();
+        }
+
+        Job.JobStatus previous = job.getStatus();
+        job.setStatus(Job.JobStatus.SKIPPED);
+        job.setLastError(reason);
+        job.setFinishedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+        recordTransition(job, previous);
+    }
+
+    /**
+     * Mark a job that is still waiting in its queue as skipped in favour of another one;
+     * returns false if a consumer already took it
+     */
+    @Transactional
+    public boolean superseded(String jobId, String reason) {
+        Job job = jobRepository.findByIdForUpdate(jobId).orElse(null);
+        if (job == null || job.getStatus() != Job.JobStatus.QUEUED) {
+            return false;
+        }
+        job.setStatus(Job.JobStatus.SKIPPED);
+        job.setLastError(reason);
+        job.setFinishedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+        recordTransition(job, Job.JobStatus.QUEUED);
+        return true;
+    }
+
+    /**
+     * Time a stage of the job bound to the current thread (no-op outside a job)
+     */
+    public <T> T time(Job.JobStage stage, Supplier<T> work) {
+        Job job = CURRENT_JOB.get();
+        if (job == null) {
+            return work.get();
+        }
+
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            recordStage(job, stage, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public JobResponse getJob(String jobId) {
+        Job job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
+        return convertToResponse(job);
+    }
+
+    /**
+     * Jobs of an article that are still waiting in a queue
+     */
+    @Transactional(readOnly = true)
+    public List<Job> getPendingJobs(Long newsId) {
+        return jobRepository.findByNewsIdAndStatus(newsId, Job.JobStatus.QUEUED);
+    }
+
+    @Transactional(readOnly = true)
+    public List<JobResponse> getJobsForNews(Long newsId) {
+        return jobRepository.findByNewsIdOrderByQueuedAtDesc(newsId).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * p50/p95/p99 per stage for jobs recorded since the given time
+     */
+    @Transactional(readOnly = true)
+    public List<StageLatencyResponse> getStageLatencies(LocalDateTime since, Job.JobType type) {
+        return stageTimingRepository.findStageLatencies(since, type != null ? type.name() : null).stream()
+                .map(latency -> StageLatencyResponse.builder()
+                        .stage(latency.getStage())
+                        .samples(latency.getSamples())
+                        .p50Ms(latency.getP50())
+                        .p95Ms(latency.getP95())
+                        .p99Ms(latency.getP99())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Succeeded, failed or skipped: no later delivery may change the outcome
+     */
+    static boolean isFinished(Job.JobStatus status) {
+        return status == Job.JobStatus.SUCCEEDED || status == Job.JobStatus.FAILED || status == Job.JobStatus.SKIPPED;
+    }
+
+    private void finish(String jobId, Job.JobStatus status, Throwable error) {
+        Job job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            log.warn("Finishing untracked job: {}", jobId);
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Job.JobStatus previous = job.getStatus();
+        job.setStatus(status);
+        job.setFinishedAt(now);
+        if (error != null) {
+            String message = String.valueOf(error.getMessage());
+            job.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        }
+        job = jobRepository.save(job);
+        recordTransition(job, previous);
+
+        if (status == Job.JobStatus.SUCCEEDED) {
+            recordStage(job, Job.JobStage.TOTAL, Duration.between(job.getQueuedAt(), now).toMillis());
+        }
+    }
+
+    private void recordTransition(Job job, Job.JobStatus from) {
+        transitionRepository.save(JobTransition.builder()
+                .jobId(job.getId())
+                .fromStatus(from)
+                .toStatus(job.getStatus())
+                .attempt(job.getAttempts())
+                .build());
+    }
+
+    private void recordStage(Job job, Job.JobStage stage, long durationMs) {
+        try {
+            stageTimingRepository.save(JobStageTiming.builder()
+                    .jobId(job.getId())
+                    .stage(stage)
+                    .attempt(job.getAttempts())
+                    .durationMs(durationMs)
+                    .build());
+        } catch (Exception e) {
+            // Timing is best effort and must never fail the job itself
+            log.warn("Could not record {} timing for job {}: {}", stage, job.getId(), e.getMessage());
+        }
+    }
+
+    private JobResponse convertToResponse(Job job) {
+        List<JobResponse.Transition> transitions = transitionRepository.findByJobIdOrderByCreatedAtAsc(job.getId())
+                .stream()
+                .map(t -> JobResponse.Transition.builder()
+                        .from(t.getFromStatus())
+                        .to(t.getToStatus())
+                        .attempt(t.getAttempt())
+                        .at(t.getCreatedAt())
+                        .build())
+                .collect(Collectors.toList());
+
+        List<JobResponse.StageTiming> stages = stageTimingRepository.findByJobIdOrderByCreatedAtAsc(job.getId())
+                .stream()
+                .map(s -> JobResponse.StageTiming.builder()
+                        .stage(s.getStage())
+                        .attempt(s.getAttempt())
+                        .durationMs(s.getDurationMs())
+                        .build())
+                .collect(Collectors.toList());
+
+        return JobResponse.builder()
+                .id(job.getId())
+                .newsId(job.getNewsId())
+                .type(job.getType())
+                .status(job.getStatus())
+                .priority(job.getPriority())
+                .attempts(job.getAttempts())
+                .lastError(job.getLastError())
+                .queuedAt(job.getQueuedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .transitions(transitions)
+                .stages(stages)
+                .build();
+    }
+}
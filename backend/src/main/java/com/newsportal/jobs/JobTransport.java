@@ -0,0 +1,17 @@
+package com.newsportal.jobs;
+
+import com.newsportal.model.Job;
+
+import java.util.Map;
+
+/**
+ * Delivers published job messages to the consumers.
+ * Selected with {@code app.jobs.transport}: {@code rabbitmq} (default) or {@code embedded}.
+ */
+public interface JobTransport {
+
+    /**
+     * Hand a job message over for asynchronous processing
+     */
+    void send(Job.JobType type, String jobId, Job.JobPriority priority, Map<String, Object> message);
+}
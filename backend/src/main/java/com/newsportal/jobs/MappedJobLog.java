@@ -0,0 +1,300 @@
+package com.newsportal.jobs;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable append-only log of job records on local disk, backed by memory-mapped segment files.
+ * <p>
+ * Records are laid out as {@code [int length][int crc32][payload]}; a length of 0 marks the
+ * unwritten tail and -1 marks the end of a segment. Offsets are global: the segment's base
+ * offset plus the position inside it. The consumer offset is a single long in its own mapped
+ * file. Writes reach the page cache immediately, so a process crash loses nothing; pages are
+ * forced to disk by {@link #flush()} (periodically and on close).
+ * <p>
+ * On open the last segment is scanned and validated against the CRCs to find the write position,
+ * which discards a record torn by a crash mid-append.
+ */
+@Slf4j
+public class MappedJobLog implements Closeable {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String OFFSET_FILE = "consumer.offset";
+    private static final int HEADER_SIZE = 8;
+    private static final int END_OF_SEGMENT = -1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition appended = appendLock.newCondition();
+    private final FileChannel offsetChannel;
+    private final MappedByteBuffer offsetBuffer;
+
+    private Segment active;
+    private volatile long writeOffset;
+
+    public MappedJobLog(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        Files.createDirectories(directory);
+
+        this.offsetChannel = FileChannel.open(directory.resolve(OFFSET_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.offsetBuffer = offsetChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+
+        recover();
+    }
+
+    /**
+     * Append a record and return its offset
+     */
+    public long append(byte[] payload) throws IOException {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Job record of " + payload.length + " bytes exceeds segment size");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        appendLock.lock();
+        try {
+            int position = (int) (writeOffset - active.baseOffset);
+            if (position + recordSize + Integer.BYTES > segmentSize) {
+                active.buffer.putInt(position, END_OF_SEGMENT);
+                active = openSegment(active.baseOffset + segmentSize);
+                position = 0;
+            }
+
+            long offset = active.baseOffset + position;
+            ByteBuffer buffer = active.buffer;
+            buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+            buffer.put(position + HEADER_SIZE, payload);
+            // Length last: a record becomes visible to recovery only once fully written
+            buffer.putInt(position, payload.length);
+
+            writeOffset = offset + recordSize;
+            appended.signalAll();
+            return offset;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Read the record at the given offset, or null if nothing has been written there yet
+     */
+    public Record read(long offset) {
+        while (offset < writeOffset) {
+            var entry = segments.floorEntry(offset);
+            if (entry == null) {
+                // Segment already deleted: skip to the oldest one we still have
+                var oldest = segments.firstEntry();
+                if (oldest == null) {
+                    return null;
+                }
+                offset = oldest.getKey();
+                continue;
+            }
+
+            Segment segment = entry.getValue();
+            int position = (int) (offset - segment.baseOffset);
+            ByteBuffer buffer = segment.buffer;
+            int length = position + Integer.BYTES <= segmentSize ? buffer.getInt(position) : END_OF_SEGMENT;
+
+            if (length == END_OF_SEGMENT) {
+                offset = segment.baseOffset + segmentSize;
+                continue;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_SIZE, payload);
+            return new Record(offset, offset + HEADER_SIZE + length, payload);
+        }
+        return null;
+    }
+
+    /**
+     * Wait until data has been appended beyond the given offset
+     */
+    public boolean awaitData(long offset, long timeout, TimeUnit unit) throws InterruptedException {
+        if (writeOffset > offset) {
+            return true;
+        }
+        appendLock.lock();
+        try {
+            long nanos = unit.toNanos(timeout);
+            while (writeOffset <= offset && nanos > 0) {
+                nanos = appended.awaitNanos(nanos);
+            }
+            return writeOffset > offset;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long getCommittedOffset() {
+        return offsetBuffer.getLong(0);
+    }
+
+    /**
+     * Persist the consumer offset and drop segments that are entirely consumed
+     */
+    public void commit(long offset) {
+        offsetBuffer.putLong(0, offset);
+
+        // Under the append lock, so a rollover cannot swap the active segment mid-scan
+        appendLock.lock();
+        try {
+            for (Segment segment : new ArrayList<>(segments.headMap(active.baseOffset).values())) {
+                if (segment.baseOffset + segmentSize <= offset) {
+                    segments.remove(segment.baseOffset);
+                    segment.delete();
+                }
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long getWriteOffset() {
+        return writeOffset;
+    }
+
+    /**
+     * Force written pages and the consumer offset to disk
+     */
+    public void flush() {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+        }
+        offsetBuffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        offsetChannel.close();
+    }
+
+    private void recover() throws IOException {
+        List<Long> bases = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> bases.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        bases.sort(Long::compareTo);
+
+        long committed = getCommittedOffset();
+        for (Long base : bases) {
+            if (base + segmentSize <= committed && !base.equals(bases.get(bases.size() - 1))) {
+                Files.deleteIfExists(segmentPath(base));
+            } else {
+                segments.put(base, mapSegment(base));
+            }
+        }
+
+        if (segments.isEmpty()) {
+            long base = committed - committed % segmentSize;
+            active = openSegment(base);
+            writeOffset = Math.max(base, committed);
+            return;
+        }
+
+        active = segments.lastEntry().getValue();
+        writeOffset = active.baseOffset + scanValidEnd(active);
+        log.info("Recovered embedded job log: committed offset {}, write offset {}", committed, writeOffset);
+    }
+
+    private int scanValidEnd(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        CRC32 crc = new CRC32();
+
+        while (position + HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_SIZE, payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                log.warn("Discarding torn job record at offset {}", segment.baseOffset + position);
+                buffer.putInt(position, 0);
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    private Segment openSegment(long base) throws IOException {
+        Segment segment = mapSegment(base);
+        segments.put(base, segment);
+        return segment;
+    }
+
+    private Segment mapSegment(long base) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(base),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        return new Segment(base, channel, buffer, segmentPath(base));
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * A record read from the log; {@code nextOffset} is where the following record starts
+     */
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class Record {
+        private long offset;
+        private long nextOffset;
+        private byte[] payload;
+    }
+
+    @lombok.AllArgsConstructor
+    private static class Segment {
+        private final long baseOffset;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final Path path;
+
+        void delete() {
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not delete consumed job log segment {}: {}", path, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,53 +1,67 @@
 package com.newsportal.jobs;
 
+import com.newsportal.model.Job;
+import com.newsportal.model.MediaAsset;
 import com.newsportal.model.News;
 import com.newsportal.repository.NewsRepository;
 import com.newsportal.service.ImageGenerationService;
+import com.newsportal.service.ImageRenditionService;
 import com.newsportal.service.LLMService;
+import com.newsportal.service.NewsService;
+import com.newsportal.service.SocialCardService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Map;
 
 /**
- * Consumer for processing news-related jobs from RabbitMQ
+ * Consumer for processing news-related jobs from RabbitMQ or the embedded transport.
+ * The RabbitMQ listeners only start when {@code app.jobs.transport} is {@code rabbitmq}.
+ * Each job runs through {@link IdempotentJobRunner} so redeliveries and duplicate
+ * publishes do not repeat LLM or image generation calls.
  */
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class NewsJobConsumer {
 
-    private static final String NEWS_ID_KEY = "newsId";
     private static final String NEWS_NOT_FOUND_MSG = "News not found: ";
+    private static final String RABBIT_TRANSPORT = "#{'${app.jobs.transport:rabbitmq}' == 'rabbitmq'}";
 
     private final NewsRepository newsRepository;
     private final LLMService llmService;
     private final ImageGenerationService imageGenerationService;
+    private final ImageRenditionService imageRenditionService;
+    private final NewsService newsService;
+    private final SocialCardService socialCardService;
+    private final JobTracker jobTracker;
+    private final IdempotentJobRunner jobRunner;
 
     /**
      * Process news rewriting job
      */
-    @RabbitListener(queues = "${app.rabbitmq.queue.news-rewrite:news_rewrite}")
+    @RabbitListener(queues = "${app.rabbitmq.queue.news-rewrite:news_rewrite}", autoStartup = RABBIT_TRANSPORT)
     public void processNewsRewrite(Map<String, Object> message) {
         log.info("Processing news rewrite job: {}", message);
 
-        try {
-            Long newsId = Long.valueOf(message.get(NEWS_ID_KEY).toString());
+        jobRunner.run(message, Job.JobType.NEWS_REWRITE, (jobId, newsId) -> {
             News news = newsRepository.findById(newsId)
                     .orElseThrow(() -> new RuntimeException(NEWS_NOT_FOUND_MSG + newsId));
 
             // Rewrite the article using LLM
-            LLMService.RewriteResult result = llmService.rewriteArticle(
+            LLMService.RewriteResult result = jobTracker.time(Job.JobStage.LLM, () -> llmService.rewriteArticle(
                     news.getBody(),
                     news.getAuthorSource(),
-                    news.getUrlSource());
+                    news.getUrlSource()));
 
             // Update news with rewritten content
             news.setTitle(result.getTitle());
             news.setExcerpt(result.getExcerpt());
             news.setBody(result.getBodyHtml());
+            news.setGeneratedByJobId(jobId);
 
             if (result.getTags() != null && !result.getTags().isEmpty()) {
                 news.setTagsFromList(result.getTags());
@@ -56,69 +70,57 @@ public class NewsJobConsumer {
             newsRepository.save(news);
 
             log.info("Successfully rewrote news ID: {}", newsId);
-
-        } catch (Exception e) {
-            log.error("Error processing news rewrite: {}", e.getMessage(), e);
-            // TODO: Implement retry logic with exponential backoff
-        }
+        });
     }
 
     /**
      * Process image generation job
      */
-    @RabbitListener(queues = "${app.rabbitmq.queue.image-generation:image_generation}")
+    @RabbitListener(queues = "${app.rabbitmq.queue.image-generation:image_generation}", autoStartup = RABBIT_TRANSPORT)
     public void processImageGeneration(Map<String, Object> message) {
         log.info("Processing image generation job: {}", message);
 
-        try {
-            Long newsId = Long.valueOf(message.get(NEWS_ID_KEY).toString());
+        jobRunner.run(message, Job.JobType.IMAGE_GENERATION, (jobId, newsId) -> {
             News news = newsRepository.findById(newsId)
                     .orElseThrow(() -> new RuntimeException(NEWS_NOT_FOUND_MSG + newsId));
 
             // Generate image prompt from article
-            String imagePrompt = llmService.generateImagePrompt(news.getTitle(), news.getExcerpt());
+            String imagePrompt = jobTracker.time(Job.JobStage.LLM,
+                    () -> llmService.generateImagePrompt(news.getTitle(), news.getExcerpt()));
 
-            // Generate image
+            // Generate image (provider call and storage upload are timed as separate stages)
             ImageGenerationService.ImageGenerationResult result = imageGenerationService.generateImage(imagePrompt,
                     newsId.toString());
 
             // Update news with generated image
-            news.setPrimaryImageUrl(result.getImageUrl());
-            newsRepository.save(news);
+            MediaAsset image = newsService.attachGeneratedImage(newsId, result);
 
-            log.info("Successfully generated image for news ID: {}", newsId);
+            // Responsive renditions are best effort: the original is already usable
+            try {
+                jobTracker.time(Job.JobStage.RENDITIONS, () -> imageRenditionService.createRenditions(image));
+            } catch (Exception e) {
+                log.error("Could not create renditions for news ID {}: {}", newsId, e.getMessage(), e);
+            }
 
-        } catch (Exception e) {
-            log.error("Error processing image generation: {}", e.getMessage(), e);
-            // TODO: Implement retry logic with exponential backoff
-        }
+            log.info("Successfully generated image for news ID: {}", newsId);
+        });
     }
 
     /**
      * Process social media card generation job
      */
-    @RabbitListener(queues = "${app.rabbitmq.queue.social-card:social_card_generation}")
+    @RabbitListener(queues = "${app.rabbitmq.queue.social-card:social_card_generation}", autoStartup = RABBIT_TRANSPORT)
     public void processSocialCardGeneration(Map<String, Object> message) {
         log.info("Processing social card generation job: {}", message);
 
-        try {
-            Long newsId = Long.valueOf(message.get(NEWS_ID_KEY).toString());
-            News news = newsRepository.findById(newsId)
-                    .orElseThrow(() -> new RuntimeException(NEWS_NOT_FOUND_MSG + newsId));
-
-            // Generate social media card
-            String socialCardUrl = imageGenerationService.generateSocialCard(
-                    newsId.toString(),
-                    news.getTitle(),
-                    news.getExcerpt(),
-                    news.getPrimaryImageUrl());
-
-            log.info("Successfully generated social card for news ID: {} at URL: {}", newsId, socialCardUrl);
+        jobRunner.run(message, Job.JobType.SOCIAL_CARD, (jobId, newsId) -> {
+            // Render and store the Open Graph and Twitter cards
+            List<MediaAsset> cards = jobTracker.time(Job.JobStage.SOCIAL_CARD,
+                    () -> socialCardService.generateCards(newsId));
 
-            // TODO: Store social card URL in MediaAsset and trigger social media posting
+            log.info("Successfully generated {} social cards for news ID: {}", cards.size(), newsId);
 
-        } catch (Exception e) {
-            log.error("Error processing social card generation: {}", e.getMessage(), e);
-        }
+            // TODO: Trigger social media posting
+        });
     }
 }
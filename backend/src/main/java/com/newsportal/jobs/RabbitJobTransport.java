@@ -0,0 +1,39 @@
+package com.newsportal.jobs;
+
+import com.newsportal.config.RabbitMQConfig;
+import com.newsportal.model.Job;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Job transport over RabbitMQ.
+ * The job id is set as the AMQP message id and the priority lane as the AMQP priority.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jobs.transport", havingValue = "rabbitmq", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RabbitJobTransport implements JobTransport {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Override
+    public void send(Job.JobType type, String jobId, Job.JobPriority priority, Map<String, Object> message) {
+        rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE, routingKey(type), message, amqpMessage -> {
+            amqpMessage.getMessageProperties().setMessageId(jobId);
+            amqpMessage.getMessageProperties().setPriority(priority.getLevel());
+            return amqpMessage;
+        });
+    }
+
+    private String routingKey(Job.JobType type) {
+        return switch (type) {
+            case NEWS_REWRITE -> RabbitMQConfig.REWRITE_ROUTING_KEY;
+            case IMAGE_GENERATION -> RabbitMQConfig.IMAGE_GEN_ROUTING_KEY;
+            case SOCIAL_CARD -> RabbitMQConfig.SOCIAL_CARD_ROUTING_KEY;
+        };
+    }
+}
@@ -55,6 +55,12 @@ public class Comment {
     @Builder.Default
     private Integer reportedCount = 0;
 
+    /**
+     * Spam/abuse probability assigned by automatic moderation, null until classified
+     */
+    @Column(name = "moderation_score")
+    private Double moderationScore;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -78,8 +84,4 @@ public class Comment {
         this.approved = false;
         this.moderated = true;
     }
-
-    public void report() {
-        this.reportedCount++;
-    }
 }
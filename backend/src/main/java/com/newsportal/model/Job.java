@@ -0,0 +1,108 @@
+package com.newsportal.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Job {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(name = "news_id")
+    private Long newsId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private JobStatus status = JobStatus.QUEUED;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private JobPriority priority = JobPriority.NORMAL;
+
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "queued_at", nullable = false)
+    private LocalDateTime queuedAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum JobType {
+        NEWS_REWRITE,
+        IMAGE_GENERATION,
+        SOCIAL_CARD
+    }
+
+    /**
+     * Priority lane of a job, mapped to the AMQP message priority
+     */
+    public enum JobPriority {
+        LOW(1),
+        NORMAL(4),
+        HIGH(7),
+        BREAKING(10);
+
+        private final int level;
+
+        JobPriority(int level) {
+            this.level = level;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+    }
+
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        RETRYING,
+        SUCCEEDED,
+        FAILED,
+        SKIPPED
+    }
+
+    public enum JobStage {
+        QUEUE,
+        LLM,
+        IMAGE_GENERATION,
+        STORAGE_UPLOAD,
+        RENDITIONS,
+        SOCIAL_CARD,
+        TOTAL
+    }
+}
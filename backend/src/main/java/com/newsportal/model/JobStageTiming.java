@@ -0,0 +1,40 @@
+package com.newsportal.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "job_stage_timings")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobStageTiming {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false, length = 64)
+    private String jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Job.JobStage stage;
+
+    @Column(nullable = false)
+    private Integer attempt;
+
+    @Column(name = "duration_ms", nullable = false)
+    private Long durationMs;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
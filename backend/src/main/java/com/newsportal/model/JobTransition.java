@@ -0,0 +1,41 @@
+package com.newsportal.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "job_transitions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobTransition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false, length = 64)
+    private String jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status")
+    private Job.JobStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false)
+    private Job.JobStatus toStatus;
+
+    @Column(nullable = false)
+    private Integer attempt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -35,6 +35,12 @@ public class MediaAsset {
     @Column(nullable = false)
     private MediaType type;
 
+    /**
+     * SHA-256 of the stored bytes; links the asset to its {@link MediaBlob}
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "file_size")
     private Long fileSize;
 
@@ -47,6 +53,15 @@ public class MediaAsset {
     @Column(name = "height")
     private Integer height;
 
+    /**
+     * BlurHash and hex colour shown while the image loads
+     */
+    @Column(name = "blur_hash", length = 64)
+    private String blurHash;
+
+    @Column(name = "dominant_color", length = 7)
+    private String dominantColor;
+
     @Column(name = "alt_text")
     private String altText;
 
@@ -57,6 +72,12 @@ public class MediaAsset {
     @Builder.Default
     private Boolean aiGenerated = false;
 
+    /**
+     * Original asset this one is a rendition of; null for originals
+     */
+    @Column(name = "parent_asset_id")
+    private Long parentAssetId;
+
     @Column(name = "display_order")
     @Builder.Default
     private Integer displayOrder = 0;
@@ -66,6 +66,7 @@ public class News {
     private String generatedByJobId;
 
     @OneToMany(mappedBy = "news", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("displayOrder ASC, id ASC")
     @Builder.Default
     private List<MediaAsset> images = new ArrayList<>();
 
@@ -110,18 +111,30 @@ public class News {
         this.status = NewsStatus.REJECTED;
     }
 
+    /**
+     * First regular image of the article; social cards are not candidates
+     */
+    public MediaAsset getPrimaryImage() {
+        return images.stream()
+                .filter(image -> image.getType() == MediaAsset.MediaType.IMAGE)
+                .findFirst()
+                .orElse(null);
+    }
+
     public String getPrimaryImageUrl() {
-        return images.isEmpty() ? null : images.get(0).getUrl();
+        MediaAsset primary = getPrimaryImage();
+        return primary == null ? null : primary.getUrl();
     }
 
     public void setPrimaryImageUrl(String url) {
-        if (images.isEmpty()) {
+        MediaAsset primary = getPrimaryImage();
+        if (primary == null) {
             MediaAsset asset = new MediaAsset();
             asset.setUrl(url);
             asset.setType(MediaAsset.MediaType.IMAGE);
             addImage(asset);
         } else {
-            images.get(0).setUrl(url);
+            primary.setUrl(url);
         }
     }
 
@@ -7,23 +7,191 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     Page<Comment> findByNewsIdAndParentIsNull(Long newsId, Pageable pageable);
 
-    List<Comment> findByNewsIdAndParentIsNullOrderByCreatedAtDesc(Long newsId);
-
     List<Comment> findByParentIdOrderByCreatedAtAsc(Long parentId);
 
-    @Query("SELECT c FROM Comment c WHERE c.moderated = false ORDER BY c.reportedCount DESC, c.createdAt ASC")
+    /**
+     * Hidden comments awaiting a moderator: held by automatic moderation or hidden by reports
+     */
+    @Query("SELECT c FROM Comment c WHERE c.moderated = false AND c.approved = false " +
+            "ORDER BY c.reportedCount DESC, c.createdAt ASC")
     Page<Comment> findUnmoderatedComments(Pageable pageable);
 
     @Query("SELECT c FROM Comment c WHERE c.reportedCount >= :threshold ORDER BY c.reportedCount DESC")
     Page<Comment> findReportedComments(@Param("threshold") int threshold, Pageable pageable);
 
     long countByNewsIdAndApprovedTrue(Long newsId);
+
+    /**
+     * Text of the given comments that automatic moderation has still to score
+     */
+    @Query("SELECT c.id AS id, c.content AS content FROM Comment c " +
+            "WHERE c.id IN :ids AND c.moderationScore IS NULL AND c.moderated = false")
+    List<ModerationCandidate> findModerationCandidates(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Pending comments created in the window that were never scored, oldest first
+     */
+    @Query("SELECT c.id FROM Comment c WHERE c.moderationScore IS NULL AND c.moderated = false " +
+            "AND c.approved = false AND c.createdAt BETWEEN :from AND :to ORDER BY c.createdAt")
+    List<Long> findUnscoredIds(@Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            Pageable pageable);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.id IN :ids")
+    List<Comment> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Record a user's report and bump the comment's count in one statement, hiding a comment no
+     * moderator has reviewed once it reaches the threshold. Returns whether this report hid a
+     * visible comment; empty when this user already reported it or it does not exist.
+     */
+    @Transactional
+    @Query(value = "WITH report AS (" +
+            "INSERT INTO comment_reports (comment_id, user_id) " +
+            "SELECT id, :userId FROM comments WHERE id = :commentId " +
+            "ON CONFLICT DO NOTHING RETURNING comment_id), " +
+            "counted AS (UPDATE comments c SET reported_count = COALESCE(c.reported_count, 0) + 1, " +
+            "approved = CASE WHEN NOT c.moderated AND COALESCE(c.reported_count, 0) + 1 >= :hideThreshold " +
+            "THEN FALSE ELSE c.approved END " +
+            "FROM comments old WHERE old.id = c.id AND c.id IN (SELECT comment_id FROM report) " +
+            "RETURNING old.approved AND NOT c.approved AS hidden) " +
+            "SELECT hidden FROM counted", nativeQuery = true)
+    Optional<Boolean> addReport(@Param("commentId") Long commentId,
+            @Param("userId") Long userId,
+            @Param("hideThreshold") int hideThreshold);
+
+    String COMMENT_VIEW = "SELECT c.id AS id, c.news.id AS newsId, p.id AS parentId, u.username AS username, " +
+            "c.content AS content, c.moderated AS moderated, c.approved AS approved, " +
+            "c.reportedCount AS reportedCount, c.createdAt AS createdAt, c.updatedAt AS updatedAt " +
+            "FROM Comment c JOIN c.user u LEFT JOIN c.parent p ";
+
+    /**
+     * Newest approved top-level comments of an article
+     */
+    @Query(COMMENT_VIEW + "WHERE c.news.id = :newsId AND c.parent IS NULL AND c.approved = true " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentView> findRootPage(@Param("newsId") Long newsId, Pageable pageable);
+
+    /**
+     * Approved top-level comments older than the cursor comment
+     */
+    @Query(COMMENT_VIEW + "WHERE c.news.id = :newsId AND c.parent IS NULL AND c.approved = true " +
+            "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentView> findRootPageBefore(@Param("newsId") Long newsId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    /**
+     * Oldest approved replies to a comment
+     */
+    @Query(COMMENT_VIEW + "WHERE p.id = :parentId AND c.approved = true ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentView> findReplyPage(@Param("parentId") Long parentId, Pageable pageable);
+
+    /**
+     * Approved replies to a comment newer than the cursor reply
+     */
+    @Query(COMMENT_VIEW + "WHERE p.id = :parentId AND c.approved = true " +
+            "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentView> findReplyPageAfter(@Param("parentId") Long parentId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    /**
+     * The first {@code limit} approved replies of each parent, fetched together
+     */
+    @Query(value = "SELECT r.id AS \"id\", r.news_id AS \"newsId\", r.parent_id AS \"parentId\", " +
+            "u.username AS \"username\", r.content AS \"content\", r.moderated AS \"moderated\", " +
+            "r.approved AS \"approved\", r.reported_count AS \"reportedCount\", " +
+            "r.created_at AS \"createdAt\", r.updated_at AS \"updatedAt\" " +
+            "FROM comments p CROSS JOIN LATERAL (" +
+            "SELECT * FROM comments c WHERE c.parent_id = p.id AND c.approved = true " +
+            "ORDER BY c.created_at, c.id LIMIT :limit) r " +
+            "JOIN users u ON u.id = r.user_id " +
+            "WHERE p.id IN (:parentIds) ORDER BY r.created_at, r.id", nativeQuery = true)
+    List<CommentView> findReplyPreviews(@Param("parentIds") Collection<Long> parentIds, @Param("limit") int limit);
+
+    @Query("SELECT c.parent.id AS parentId, COUNT(c) AS replies FROM Comment c " +
+            "WHERE c.parent.id IN :parentIds AND c.approved = true GROUP BY c.parent.id")
+    List<ReplyCount> countApprovedReplies(@Param("parentIds") Collection<Long> parentIds);
+
+    /**
+     * Approve every listed comment in one statement. Returns the comments changed, with whether
+     * each was visible before; the self-join reads the rows as they were before the update.
+     */
+    @Transactional
+    @Query(value = "WITH changed AS (UPDATE comments c SET approved = TRUE, moderated = TRUE, " +
+            "updated_at = CURRENT_TIMESTAMP FROM comments old WHERE old.id = c.id AND c.id IN (:ids) " +
+            "AND NOT (c.approved AND c.moderated) RETURNING c.id, c.news_id, old.approved) " +
+            "SELECT id AS \"id\", news_id AS \"newsId\", approved AS \"wasApproved\" FROM changed",
+            nativeQuery = true)
+    List<ModerationChange> approveAll(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reject every listed comment in one statement, as {@link #approveAll} does for approval
+     */
+    @Transactional
+    @Query(value = "WITH changed AS (UPDATE comments c SET approved = FALSE, moderated = TRUE, " +
+            "updated_at = CURRENT_TIMESTAMP FROM comments old WHERE old.id = c.id AND c.id IN (:ids) " +
+            "AND (c.approved OR NOT c.moderated) RETURNING c.id, c.news_id, old.approved) " +
+            "SELECT id AS \"id\", news_id AS \"newsId\", approved AS \"wasApproved\" FROM changed",
+            nativeQuery = true)
+    List<ModerationChange> rejectAll(@Param("ids") Collection<Long> ids);
+
+    interface ModerationChange {
+        Long getId();
+
+        Long getNewsId();
+
+        Boolean getWasApproved();
+    }
+
+    interface ModerationCandidate {
+        Long getId();
+
+        String getContent();
+    }
+
+    interface ReplyCount {
+        Long getParentId();
+
+        Long getReplies();
+    }
+
+    interface CommentView {
+        Long getId();
+
+        Long getNewsId();
+
+        Long getParentId();
+
+        String getUsername();
+
+        String getContent();
+
+        Boolean getModerated();
+
+        Boolean getApproved();
+
+        Integer getReportedCount();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+    }
 }
@@ -0,0 +1,38 @@
+package com.newsportal.repository;
+
+import com.newsportal.model.JobDedupEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobDedupRepository extends JpaRepository<JobDedupEntry, String> {
+
+    /**
+     * Claim a key unless another owner holds a live claim or it already completed.
+     * Returns 1 when the claim was taken.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO job_dedup (idempotency_key, owner, status, expires_at, updated_at) " +
+            "VALUES (:key, :owner, 'RUNNING', :expiresAt, :now) " +
+            "ON CONFLICT (idempotency_key) DO UPDATE SET owner = :owner, status = 'RUNNING', " +
+            "expires_at = :expiresAt, updated_at = :now " +
+            "WHERE job_dedup.expires_at < :now " +
+            "OR (job_dedup.owner = :owner AND job_dedup.status = 'RUNNING')", nativeQuery = true)
+    int claim(@Param("key") String key,
+            @Param("owner") String owner,
+            @Param("expiresAt") LocalDateTime expiresAt,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM JobDedupEntry e WHERE e.idempotencyKey = :key AND e.owner = :owner")
+    int release(@Param("key") String key, @Param("owner") String owner);
+
+    @Modifying
+    @Query("DELETE FROM JobDedupEntry e WHERE e.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,32 @@
+package com.newsportal.repository;
+
+import com.newsportal.model.Job;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JobRepository extends JpaRepository<Job, String> {
+
+    List<Job> findByNewsIdOrderByQueuedAtDesc(Long newsId);
+
+    Page<Job> findByStatus(Job.JobStatus status, Pageable pageable);
+
+    List<Job> findByNewsIdAndStatus(Long newsId, Job.JobStatus status);
+
+    /**
+     * Load a job and lock its row until the transaction ends, so a status check and the
+     * update that depends on it cannot interleave with another consumer
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM Job j WHERE j.id = :id")
+    Optional<Job> findByIdForUpdate(@Param("id") String id);
+}
@@ -0,0 +1,37 @@
+package com.newsportal.repository;
+
+import com.newsportal.model.JobStageTiming;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JobStageTimingRepository extends JpaRepository<JobStageTiming, Long> {
+
+    List<JobStageTiming> findByJobIdOrderByCreatedAtAsc(String jobId);
+
+    @Query(value = "SELECT t.stage AS stage, COUNT(*) AS samples, " +
+            "percentile_cont(0.5) WITHIN GROUP (ORDER BY t.duration_ms) AS p50, " +
+            "percentile_cont(0.95) WITHIN GROUP (ORDER BY t.duration_ms) AS p95, " +
+            "percentile_cont(0.99) WITHIN GROUP (ORDER BY t.duration_ms) AS p99 " +
+            "FROM job_stage_timings t JOIN jobs j ON j.id = t.job_id " +
+            "WHERE t.created_at >= :since AND (CAST(:type AS VARCHAR) IS NULL OR j.type = CAST(:type AS VARCHAR)) " +
+            "GROUP BY t.stage ORDER BY t.stage", nativeQuery = true)
+    List<StageLatency> findStageLatencies(@Param("since") LocalDateTime since, @Param("type") String type);
+
+    interface StageLatency {
+        String getStage();
+
+        Long getSamples();
+
+        Double getP50();
+
+        Double getP95();
+
+        Double getP99();
+    }
+}
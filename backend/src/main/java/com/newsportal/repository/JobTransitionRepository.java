@@ -0,0 +1,13 @@
+package com.newsportal.repository;
+
+import com.newsportal.model.JobTransition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JobTransitionRepository extends JpaRepository<JobTransition, Long> {
+
+    List<JobTransition> findByJobIdOrderByCreatedAtAsc(String jobId);
+}
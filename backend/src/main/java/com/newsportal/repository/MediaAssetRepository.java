@@ -2,9 +2,14 @@ package com.newsportal.repository;
 
 import com.newsportal.model.MediaAsset;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface MediaAssetRepository extends JpaRepository<MediaAsset, Long> {
@@ -14,4 +19,23 @@ public interface MediaAssetRepository extends JpaRepository<MediaAsset, Long> {
     List<MediaAsset> findByNewsIdAndType(Long newsId, MediaAsset.MediaType type);
 
     List<MediaAsset> findByAiGeneratedTrue();
+
+    List<MediaAsset> findByParentAssetIdIn(Collection<Long> parentAssetIds);
+
+    List<MediaAsset> findByParentAssetId(Long parentAssetId);
+
+    @Query("SELECT DISTINCT m.s3Key FROM MediaAsset m WHERE m.s3Key IN :keys")
+    Set<String> findKeysIn(@Param("keys") Collection<String> keys);
+
+    /**
+     * Take up to {@code limit} keys off the queue filled by the media_assets delete trigger
+     */
+    @Transactional
+    @Query(value = "WITH claimed AS (DELETE FROM media_delete_queue WHERE s3_key IN (" +
+            "SELECT s3_key FROM media_delete_queue ORDER BY queued_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING s3_key) SELECT s3_key FROM claimed", nativeQuery = true)
+    List<String> claimQueuedDeletes(@Param("limit") int limit);
+
+    @Query(value = "SELECT s3_key FROM media_delete_queue ORDER BY queued_at", nativeQuery = true)
+    List<String> findQueuedDeletes();
 }
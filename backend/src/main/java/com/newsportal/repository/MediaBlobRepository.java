@@ -0,0 +1,58 @@
+package com.newsportal.repository;
+
+import com.newsportal.model.MediaBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, String> {
+
+    /**
+     * Record a stored blob; a no-op when the hash is already known
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO media_blobs (content_hash, s3_key, mime_type, file_size, ref_count) " +
+            "VALUES (:hash, :key, :mimeType, :size, 0) " +
+            "ON CONFLICT (content_hash) DO NOTHING", nativeQuery = true)
+    int register(@Param("hash") String hash,
+            @Param("key") String key,
+            @Param("mimeType") String mimeType,
+            @Param("size") long size);
+
+    /**
+     * Look up a blob for reuse and mark it as recently used, so the garbage collector's grace
+     * period covers the window before the new media asset references it
+     */
+    @Transactional
+    @Query(value = "WITH touched AS (UPDATE media_blobs SET updated_at = CURRENT_TIMESTAMP " +
+            "WHERE content_hash = :hash RETURNING s3_key) SELECT s3_key FROM touched", nativeQuery = true)
+    Optional<String> touch(@Param("hash") String hash);
+
+    /**
+     * Remove up to {@code limit} blobs unreferenced since before the cutoff, returning their keys and sizes
+     */
+    @Transactional
+    @Query(value = "WITH claimed AS (DELETE FROM media_blobs WHERE content_hash IN (" +
+            "SELECT content_hash FROM media_blobs WHERE ref_count = 0 AND updated_at < :cutoff " +
+            "ORDER BY updated_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "AND ref_count = 0 RETURNING s3_key, file_size) " +
+            "SELECT s3_key, file_size FROM claimed", nativeQuery = true)
+    List<Object[]> claimUnreferenced(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Query("SELECT b FROM MediaBlob b WHERE b.refCount = 0 AND b.updatedAt < :cutoff ORDER BY b.updatedAt")
+    List<MediaBlob> findUnreferenced(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT b.s3Key FROM MediaBlob b WHERE b.s3Key IN :keys")
+    Set<String> findKeysIn(@Param("keys") Collection<String> keys);
+}
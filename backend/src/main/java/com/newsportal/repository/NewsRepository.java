@@ -7,8 +7,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,4 +42,28 @@ public interface NewsRepository extends JpaRepository<News, Long> {
     long countByStatus(News.NewsStatus status);
 
     long countByAutoGeneratedTrueAndStatus(News.NewsStatus status);
+
+    /**
+     * Publish every listed article in one statement, returning those that were not yet published
+     */
+    @Transactional
+    @Query(value = "WITH changed AS (UPDATE news SET status = 'PUBLISHED', published_at = CURRENT_TIMESTAMP, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id IN (:ids) AND status <> 'PUBLISHED' RETURNING id, title) " +
+            "SELECT id, title FROM changed", nativeQuery = true)
+    List<StatusChange> publishAll(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reject every listed article in one statement, returning those that were not yet rejected
+     */
+    @Transactional
+    @Query(value = "WITH changed AS (UPDATE news SET status = 'REJECTED', updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id IN (:ids) AND status <> 'REJECTED' RETURNING id, title) " +
+            "SELECT id, title FROM changed", nativeQuery = true)
+    List<StatusChange> rejectAll(@Param("ids") Collection<Long> ids);
+
+    interface StatusChange {
+        Long getId();
+
+        String getTitle();
+    }
 }
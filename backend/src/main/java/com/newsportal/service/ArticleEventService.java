@@ -0,0 +1,253 @@
+package com.newsportal.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newsportal.dto.ArticleEvent;
+import com.newsportal.dto.ArticleUpdate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes article and comment changes to readers over server-sent events.
+ * <p>
+ * Events are published to a Redis channel after their transaction commits, and every node
+ * delivers what it receives to its own subscribers. Events for an article are merged over a
+ * short window into one push, so a burst of comments costs each reader a single write.
+ * Idle streams hold no thread: they are async requests, kept open by a shared heartbeat.
+ * Pushes and heartbeats run on a timer thread of their own, so slow scheduled jobs elsewhere
+ * never delay them.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ArticleEventService implements MessageListener {
+
+    private static final long RECONNECT_MS = 3000;
+    // Subscribers written to by one fan-out task, so a popular article is spread across threads
+    private static final int FANOUT_CHUNK = 500;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, ArticleUpdate> pending = new ConcurrentHashMap<>();
+    private ExecutorService fanout;
+    private ScheduledExecutorService timer;
+
+    @Value("${app.events.channel:article-events}")
+    private String channel;
+
+    @Value("${app.events.stream-timeout:30m}")
+    private Duration streamTimeout;
+
+    @Value("${app.events.max-comments-per-push:50}")
+    private int maxCommentsPerPush;
+
+    @Value("${app.events.fanout-threads:4}")
+    private int fanoutThreads;
+
+    @Value("${app.events.coalesce-window-ms:250}")
+    private long coalesceWindowMs;
+
+    @Value("${app.events.heartbeat-interval-ms:25000}")
+    private long heartbeatIntervalMs;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        fanout = Executors.newFixedThreadPool(fanoutThreads, runnable -> {
+            Thread thread = new Thread(runnable, "article-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "article-events-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(guarded(this::flush), coalesceWindowMs, coalesceWindowMs, TimeUnit.MILLISECONDS);
+        timer.scheduleWithFixedDelay(guarded(this::heartbeat), heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        fanout.shutdownNow();
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    /**
+     * Open an event stream for an article; the client reconnects when it times out
+     */
+    public SseEmitter subscribe(Long newsId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        subscribers.compute(newsId, (id, emitters) -> {
+            Set<SseEmitter> set = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            set.add(emitter);
+            return set;
+        });
+
+        Runnable remove = () -> unsubscribe(newsId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        // Flushes the response headers so proxies and the browser see the stream open
+        try {
+            emitter.send(SseEmitter.event().comment("connected").reconnectTime(RECONNECT_MS));
+        } catch (IOException e) {
+            remove.run();
+        }
+        return emitter;
+    }
+
+    /**
+     * Publish to every node once the surrounding transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(ArticleEvent event) {
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            log.warn("Redis unavailable for article events, delivering locally only: {}", e.getMessage());
+            enqueue(event);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            ArticleEvent event = objectMapper.readValue(message.getBody(), ArticleEvent.class);
+            if (subscribers.containsKey(event.getNewsId())) {
+                enqueue(event);
+            }
+        } catch (IOException e) {
+            log.warn("Ignoring malformed article event: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Push the events merged since the last window
+     */
+    public void flush() {
+        for (Long newsId : pending.keySet()) {
+            ArticleUpdate update = pending.remove(newsId);
+            Set<SseEmitter> emitters = subscribers.get(newsId);
+            if (update == null || emitters == null) {
+                continue;
+            }
+
+            String data;
+            try {
+                data = objectMapper.writeValueAsString(update);
+            } catch (IOException e) {
+                log.warn("Could not serialise update for news {}: {}", newsId, e.getMessage());
+                continue;
+            }
+            broadcast(newsId, emitters, () -> SseEmitter.event().name("update").data(data));
+        }
+    }
+
+    /**
+     * Keep idle streams from being closed by proxies and detect readers that have gone away
+     */
+    public void heartbeat() {
+        subscribers.forEach((newsId, emitters) ->
+                broadcast(newsId, emitters, () -> SseEmitter.event().comment("")));
+    }
+
+    /**
+     * A task that throws would never be scheduled again
+     */
+    private Runnable guarded(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Article event task failed: {}", e.getMessage(), e);
+            }
+        };
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void enqueue(ArticleEvent event) {
+        pending.compute(event.getNewsId(), (id, update) -> merge(
+                update != null ? update : ArticleUpdate.builder().newsId(id).build(), event));
+    }
+
+    private ArticleUpdate merge(ArticleUpdate update, ArticleEvent event) {
+        switch (event.getType()) {
+            case ARTICLE_UPDATED -> update.setArticleChanged(true);
+            case COMMENT_ADDED -> {
+                if (!update.isCommentsChanged()) {
+                    update.getAddedComments().add(event.getComment());
+                }
+            }
+            case COMMENT_REMOVED -> {
+                if (!update.isCommentsChanged()) {
+                    update.getAddedComments().removeIf(comment -> comment.getId().equals(event.getCommentId()));
+                    update.getRemovedCommentIds().add(event.getCommentId());
+                }
+            }
+            case COMMENTS_CHANGED -> update.setCommentsChanged(true);
+        }
+
+        // Past this size readers are better off refetching than receiving every comment
+        if (update.isCommentsChanged()
+                || update.getAddedComments().size() + update.getRemovedCommentIds().size() > maxCommentsPerPush) {
+            update.setCommentsChanged(true);
+            update.getAddedComments().clear();
+            update.getRemovedCommentIds().clear();
+        }
+        return update;
+    }
+
+    private void broadcast(Long newsId, Set<SseEmitter> emitters, Supplier<SseEmitter.SseEventBuilder> event) {
+        List<SseEmitter> targets = new ArrayList<>(emitters);
+        for (int from = 0; from < targets.size(); from += FANOUT_CHUNK) {
+            List<SseEmitter> chunk = targets.subList(from, Math.min(targets.size(), from + FANOUT_CHUNK));
+            fanout.execute(() -> {
+                for (SseEmitter emitter : chunk) {
+                    try {
+                        // Builders are consumed by sending, so each subscriber gets its own
+                        emitter.send(event.get());
+                    } catch (IOException | IllegalStateException e) {
+                        unsubscribe(newsId, emitter);
+                    }
+                }
+            });
+        }
+    }
+
+    private void unsubscribe(Long newsId, SseEmitter emitter) {
+        subscribers.computeIfPresent(newsId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
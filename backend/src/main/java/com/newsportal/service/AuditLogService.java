@@ -1,74 +1,88 @@
 package com.newsportal.service;
 
-import com.newsportal.model.AuditLog;
 import com.newsportal.model.User;
-import com.newsportal.repository.AuditLogRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Audit trail of content and moderation changes, written through {@link AuditLogWriter}:
+ * security-critical actions within the caller's transaction, the rest in background batches
+ */
 @Service
 @RequiredArgsConstructor
 public class AuditLogService {
 
-    private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
 
-    @Transactional
     public void logAction(String entityType, Long entityId, String action, User user, String metadata) {
-        AuditLog log = AuditLog.builder()
+        auditLogWriter.write(AuditLogWriter.Entry.builder()
                 .entityType(entityType)
                 .entityId(entityId)
                 .action(action)
-                .user(user)
+                .userId(user != null ? user.getId() : null)
                 .metadata(metadata)
-                .build();
+                .build());
+    }
+
+    /**
+     * Log the same action on many entities with one batched insert; the map holds each
+     * entity's metadata
+     */
+    public void logActions(String entityType, String action, User user, Map<Long, String> metadataById) {
+        LocalDateTime now = LocalDateTime.now();
+        Long userId = user != null ? user.getId() : null;
 
-        auditLogRepository.save(log);
+        List<AuditLogWriter.Entry> entries = new ArrayList<>(metadataById.size());
+        metadataById.forEach((entityId, metadata) -> entries.add(AuditLogWriter.Entry.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .action(action)
+                .userId(userId)
+                .metadata(metadata)
+                .createdAt(now)
+                .build()));
+        auditLogWriter.writeAll(entries, auditLogWriter.durabilityOf(action));
     }
 
-    @Transactional
     public void logContentChange(String entityType, Long entityId, String action, User user,
             String originalContent, String rewrittenContent,
             String llmPrompt, String llmModel) {
-        AuditLog log = AuditLog.builder()
+        auditLogWriter.write(AuditLogWriter.Entry.builder()
                 .entityType(entityType)
                 .entityId(entityId)
                 .action(action)
-                .user(user)
+                .userId(user != null ? user.getId() : null)
                 .originalContent(originalContent)
                 .rewrittenContent(rewrittenContent)
                 .llmPrompt(llmPrompt)
                 .llmModel(llmModel)
-                .build();
-
-        auditLogRepository.save(log);
+                .build());
     }
 
-    @Transactional
     public void logLLMRewrite(String sourceName, String sourceUrl, String prompt, String response) {
         String metadata = String.format("Source: %s, URL: %s", sourceName, sourceUrl);
-        AuditLog log = AuditLog.builder()
+        auditLogWriter.write(AuditLogWriter.Entry.builder()
                 .entityType("NEWS")
                 .action("LLM_REWRITE")
                 .llmPrompt(prompt)
                 .rewrittenContent(response)
                 .metadata(metadata)
-                .build();
-
-        auditLogRepository.save(log);
+                .build());
     }
 
-    @Transactional
     public void logImageGeneration(String newsId, String prompt, String imageUrl) {
         String metadata = String.format("NewsID: %s, ImageURL: %s", newsId, imageUrl);
-        AuditLog log = AuditLog.builder()
+        auditLogWriter.write(AuditLogWriter.Entry.builder()
                 .entityType("NEWS")
                 .entityId(Long.parseLong(newsId))
                 .action("IMAGE_GENERATION")
                 .llmPrompt(prompt)
                 .metadata(metadata)
-                .build();
-
-        auditLogRepository.save(log);
+                .build());
     }
 }
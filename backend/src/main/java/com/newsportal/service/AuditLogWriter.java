@@ -0,0 +1,251 @@
+package com.newsportal.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes audit log rows with JDBC batch inserts.
+ * <p>
+ * Security-critical actions are written synchronously, inside the caller's transaction, so
+ * they commit or roll back with the change they describe. Everything else goes into a
+ * lock-free ring buffer once the caller's transaction has committed, and a writer thread
+ * inserts it in batches off the request path. When the buffer is full the caller writes its
+ * own row rather than losing it, and whatever is still buffered is flushed on shutdown.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AuditLogWriter {
+
+    private static final String INSERT = "INSERT INTO audit_logs (entity_type, entity_id, action, user_id, metadata, " +
+            "original_content, rewritten_content, llm_prompt, llm_model, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] TYPES = {Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private MpscRingBuffer<Entry> buffer;
+    private Thread writer;
+    private volatile boolean running;
+    private Set<String> syncActions;
+    private TransactionTemplate outsideTransaction;
+
+    public enum Durability {
+        /** Written in the caller's transaction */
+        SYNC,
+        /** Buffered after commit and written in batches */
+        ASYNC
+    }
+
+    // An unknown value fails startup rather than quietly meaning async
+    @Value("${app.audit.durability:async}")
+    private Durability durability;
+
+    @Value("${app.audit.sync-actions:DELETE,APPROVE,REJECT,PUBLISH}")
+    private List<String> configuredSyncActions;
+
+    @Value("${app.audit.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${app.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-ms:100}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.shutdown-timeout:10s}")
+    private Duration shutdownTimeout;
+
+    @PostConstruct
+    public void start() {
+        syncActions = new HashSet<>();
+        configuredSyncActions.forEach(action -> syncActions.add(action.trim().toUpperCase(Locale.ROOT)));
+        buffer = new MpscRingBuffer<>(bufferSize);
+        outsideTransaction = new TransactionTemplate(transactionManager);
+        outsideTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        running = true;
+        writer = new Thread(this::work, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop the writer and insert whatever is still buffered
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int remaining = flush();
+        if (remaining > 0 || buffer.size() > 0) {
+            log.info("Flushed {} audit entries on shutdown, {} left unwritten", remaining, buffer.size());
+        }
+    }
+
+    public Durability durabilityOf(String action) {
+        return durability == Durability.SYNC || syncActions.contains(action)
+                ? Durability.SYNC
+                : Durability.ASYNC;
+    }
+
+    public void write(Entry entry) {
+        writeAll(List.of(entry), durabilityOf(entry.getAction()));
+    }
+
+    public void writeAll(List<Entry> entries, Durability mode) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (mode == Durability.SYNC) {
+            insert(entries);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Audit only what actually committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entries);
+                }
+            });
+        } else {
+            enqueue(entries);
+        }
+    }
+
+    public int getBuffered() {
+        return buffer.size();
+    }
+
+    public long getOverflows() {
+        return overflows.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    private void enqueue(List<Entry> entries) {
+        List<Entry> rejected = null;
+        for (Entry entry : entries) {
+            if (!buffer.offer(entry)) {
+                if (rejected == null) {
+                    rejected = new ArrayList<>();
+                }
+                rejected.add(entry);
+            }
+        }
+        if (rejected != null) {
+            // Back pressure: the caller pays for its own row instead of the row being lost. This
+            // runs after the caller's commit, whose connection would never commit it again, so
+            // it autocommits on a connection of its own as the writer thread does.
+            overflows.addAndGet(rejected.size());
+            List<Entry> overflow = rejected;
+            outsideTransaction.executeWithoutResult(status -> insertQuietly(overflow));
+        }
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                if (flush() == 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                }
+            } catch (Throwable e) {
+                // A dead writer would leave every caller writing its own rows for good
+                log.error("Audit writer failed, continuing: {}", e.getMessage(), e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            }
+        }
+    }
+
+    /**
+     * Insert everything buffered, a batch at a time; returns the number of entries taken
+     */
+    private synchronized int flush() {
+        int total = 0;
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (buffer.drain(batch::add, batchSize) > 0) {
+            insertQuietly(batch);
+            total += batch.size();
+            batch.clear();
+        }
+        return total;
+    }
+
+    private void insertQuietly(List<Entry> entries) {
+        try {
+            insert(entries);
+        } catch (RuntimeException e) {
+            // One bad row must not cost the rest of the batch
+            log.warn("Audit batch of {} failed, inserting one at a time: {}", entries.size(), e.getMessage());
+            for (Entry entry : entries) {
+                try {
+                    insert(List.of(entry));
+                } catch (RuntimeException rowFailure) {
+                    failures.incrementAndGet();
+                    log.error("Could not write audit entry {} {} {}: {}", entry.getAction(), entry.getEntityType(),
+                            entry.getEntityId(), rowFailure.getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<Entry> entries) {
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            rows.add(new Object[]{entry.getEntityType(), entry.getEntityId(), entry.getAction(), entry.getUserId(),
+                    entry.getMetadata(), entry.getOriginalContent(), entry.getRewrittenContent(),
+                    entry.getLlmPrompt(), entry.getLlmModel(), Timestamp.valueOf(entry.getCreatedAt())});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows, TYPES);
+    }
+
+    /**
+     * One audit row; the time is taken when the action happens, not when it is written
+     */
+    @lombok.Value
+    @lombok.Builder
+    public static class Entry {
+        String entityType;
+        Long entityId;
+        String action;
+        Long userId;
+        String metadata;
+        String originalContent;
+        String rewrittenContent;
+        String llmPrompt;
+        String llmModel;
+        @lombok.Builder.Default
+        LocalDateTime createdAt = LocalDateTime.now();
+    }
+}
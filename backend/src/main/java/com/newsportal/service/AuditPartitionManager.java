@@ -0,0 +1,422 @@
+package com.newsportal.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Maintains the monthly partitions of {@code audit_logs}.
+ * <p>
+ * Each run creates the partitions for the next {@code months-ahead} months, so writes never
+ * find their month missing; rows that still fall outside them land in the default partition and
+ * are moved into their month once it is created. With retention enabled, every month older than
+ * {@code retention-months} is retired: the partition is detached, so it stops receiving rows and
+ * hot queries stop planning it, exported to a gzipped CSV in the archive directory or a private
+ * archive bucket, and dropped only once the archive holds every row. A partition left detached
+ * by a failed run is exported again on the next one.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AuditPartitionManager {
+
+    private static final String TABLE = "audit_logs";
+    private static final String DEFAULT_PARTITION = "audit_logs_default";
+    private static final String LOCK_KEY = "audit-partitions:lock";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String COLUMNS = "id, entity_type, entity_id, action, user_id, metadata, original_content, " +
+            "rewritten_content, llm_prompt, llm_model, llm_response_metadata, ip_address, created_at";
+    private static final int FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectProvider<S3Client> s3Client;
+    private final ObjectProvider<S3AsyncClient> s3AsyncClient;
+    private final StringRedisTemplate redisTemplate;
+
+    // DDL and exports run off the shared scheduler thread
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "audit-partitions");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private JdbcTemplate streamingTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate transactional;
+    private S3Client archiveClient;
+    private S3AsyncClient archiveAsyncClient;
+
+    public enum ArchiveTarget {
+        /** Files under {@code archive-dir} on the local disk */
+        DIRECTORY,
+        /** Objects under {@code archive-prefix} in {@code archive-bucket}, never the media bucket */
+        STORE
+    }
+
+    // Gates retention only; upcoming months are always created
+    @Value("${app.audit.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.audit.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.audit.partitions.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${app.audit.partitions.archive:directory}")
+    private String archive;
+
+    @Value("${app.audit.partitions.archive-dir:./data/audit-archive}")
+    private String archiveDir;
+
+    @Value("${app.audit.partitions.archive-prefix:audit-archive/}")
+    private String archivePrefix;
+
+    @Value("${app.audit.partitions.archive-bucket:}")
+    private String archiveBucket;
+
+    @Value("${app.storage.s3.bucket:newsportal-media}")
+    private String mediaBucket;
+
+    @Value("${app.audit.partitions.lock-ttl:6h}")
+    private Duration lockTtl;
+
+    private ArchiveTarget archiveTarget;
+
+    @PostConstruct
+    public void init() {
+        archiveTarget = ArchiveTarget.valueOf(archive.trim().toUpperCase(Locale.ROOT));
+        if (archiveTarget == ArchiveTarget.STORE) {
+            // The media bucket is public and proxied under /media, so archives get a bucket of their own
+            archiveClient = s3Client.getIfAvailable();
+            archiveAsyncClient = s3AsyncClient.getIfAvailable();
+            if (archiveClient == null || archiveAsyncClient == null) {
+                throw new IllegalStateException("app.audit.partitions.archive=store requires app.storage.backend=s3");
+            }
+            if (archiveBucket.isBlank()) {
+                throw new IllegalStateException("app.audit.partitions.archive=store requires app.audit.partitions.archive-bucket");
+            }
+            if (archiveBucket.equals(mediaBucket)) {
+                throw new IllegalStateException("Audit archives cannot go to the public media bucket " + mediaBucket);
+            }
+        }
+        // PostgreSQL only streams a result set with a fetch size inside a transaction
+        streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(FETCH_SIZE);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        transactional = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.audit.partitions.interval-ms:21600000}", initialDelay = 10000)
+    public void scheduledMaintain() {
+        executor.execute(() -> logReport(runExclusive(this::maintain)));
+    }
+
+    /**
+     * Create upcoming partitions and, with retention enabled, archive expired ones now
+     */
+    public Report run() {
+        Report report = runExclusive(this::maintain);
+        logReport(report);
+        return report;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Report maintain() {
+        Report report = new Report();
+        long startedAt = System.currentTimeMillis();
+        YearMonth current = YearMonth.now();
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            if (createPartition(current.plusMonths(i))) {
+                report.created.add(partitionName(current.plusMonths(i)));
+            }
+        }
+
+        if (enabled && retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            for (Partition partition : findPartitions()) {
+                if (partition.month.isBefore(oldestKept)) {
+                    try {
+                        report.archivedRows += retire(partition);
+                        report.archived.add(partition.name);
+                    } catch (RuntimeException e) {
+                        // Stays detached and undropped until a later run archives it
+                        log.error("Could not archive audit partition {}: {}", partition.name, e.getMessage());
+                        report.failed.add(partition.name);
+                    }
+                }
+            }
+        }
+        report.setDurationMs(System.currentTimeMillis() - startedAt);
+        return report;
+    }
+
+    private boolean createPartition(YearMonth month) {
+        String name = partitionName(month);
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        if (Boolean.TRUE.equals(exists)) {
+            return false;
+        }
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        String create = "CREATE TABLE " + name + " PARTITION OF " + TABLE +
+                " FOR VALUES FROM ('" + from.toLocalDate() + "') TO ('" + to.toLocalDate() + "')";
+
+        Boolean stray = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION +
+                " WHERE created_at >= ? AND created_at < ?)", Boolean.class, from, to);
+        if (!Boolean.TRUE.equals(stray)) {
+            jdbcTemplate.execute(create);
+            return true;
+        }
+
+        // PostgreSQL refuses a new partition whose rows sit in the default one, so move them
+        // over while the default is detached
+        Integer moved = transactional.execute(status -> {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + DEFAULT_PARTITION);
+            jdbcTemplate.execute(create);
+            int rows = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                    " WHERE created_at >= ? AND created_at < ? RETURNING " + COLUMNS + ") " +
+                    "INSERT INTO " + TABLE + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved", from, to);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+            return rows;
+        });
+        log.warn("Moved {} audit rows from {} into {}", moved, DEFAULT_PARTITION, name);
+        return true;
+    }
+
+    /**
+     * Monthly tables, both attached and left detached by an earlier run
+     */
+    private List<Partition> findPartitions() {
+        return jdbcTemplate.query("""
+                SELECT c.relname, c.relispartition
+                FROM pg_class c
+                JOIN pg_namespace n ON n.oid = c.relnamespace
+                WHERE n.nspname = current_schema()
+                  AND c.relkind = 'r'
+                  AND c.relname ~ '^audit_logs_[0-9]{6}$'
+                ORDER BY c.relname
+                """, (rs, row) -> new Partition(rs.getString(1),
+                YearMonth.parse(rs.getString(1).substring(TABLE.length() + 1), SUFFIX),
+                rs.getBoolean(2)));
+    }
+
+    /**
+     * Detach, export and drop one month; returns the number of rows archived
+     */
+    private long retire(Partition partition) {
+        if (partition.attached) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition.name);
+        }
+        Long expected = jdbcTemplate.queryForObject("SELECT count(*) FROM " + partition.name, Long.class);
+
+        String fileName = partition.name + ".csv.gz";
+        Path file;
+        try {
+            file = archiveTarget == ArchiveTarget.DIRECTORY
+                    ? Files.createDirectories(Path.of(archiveDir)).resolve(fileName + ".part")
+                    : Files.createTempFile(partition.name, ".csv.gz");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create audit archive file", e);
+        }
+
+        try {
+            long exported = export(partition.name, file);
+            if (expected == null || exported != expected) {
+                throw new IllegalStateException("Exported " + exported + " of " + expected + " rows");
+            }
+            store(file, fileName);
+            jdbcTemplate.execute("DROP TABLE " + partition.name);
+            return exported;
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stream a partition into a gzipped CSV that {@code COPY audit_logs (...) FROM ... CSV HEADER} reads back
+     */
+    private long export(String table, Path file) {
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)), 65536), StandardCharsets.UTF_8)) {
+            writer.write(COLUMNS.replace(" ", ""));
+            writer.write('\n');
+            int columns = COLUMNS.split(",").length;
+            long[] rows = {0};
+            readOnly.executeWithoutResult(status -> streamingTemplate.query(
+                    "SELECT " + COLUMNS + " FROM " + table, (ResultSet rs) -> {
+                        try {
+                            writeRow(writer, rs, columns);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        rows[0]++;
+                    }));
+            return rows[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write audit archive " + file, e);
+        }
+    }
+
+    /**
+     * Every value quoted, so an empty string stays distinct from NULL, which is left empty
+     */
+    private static void writeRow(Writer writer, ResultSet rs, int columns) throws SQLException, IOException {
+        for (int i = 1; i <= columns; i++) {
+            if (i > 1) {
+                writer.write(',');
+            }
+            String value = rs.getString(i);
+            if (value != null) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write('\n');
+    }
+
+    private void store(Path file, String fileName) {
+        try {
+            long size = Files.size(file);
+            if (archiveTarget == ArchiveTarget.DIRECTORY) {
+                Path target = file.resolveSibling(fileName);
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            }
+            String key = archivePrefix + fileName;
+            archiveAsyncClient.putObject(request -> request.bucket(archiveBucket).key(key).contentType("application/gzip"),
+                    AsyncRequestBody.fromFile(file)).join();
+            if (archiveClient.headObject(request -> request.bucket(archiveBucket).key(key)).contentLength() != size) {
+                throw new IllegalStateException("Archive " + key + " was not stored completely");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store audit archive " + fileName, e);
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return TABLE + "_" + month.format(SUFFIX);
+    }
+
+    /**
+     * One maintenance run at a time across the cluster, as for the media GC
+     */
+    private Report runExclusive(Supplier<Report> maintenance) {
+        if (!running.compareAndSet(false, true)) {
+            return Report.skipped();
+        }
+        String owner = UUID.randomUUID().toString();
+        boolean locked = false;
+        try {
+            try {
+                if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, owner, lockTtl))) {
+                    return Report.skipped();
+                }
+                locked = true;
+            } catch (RuntimeException e) {
+                log.warn("Redis unavailable for audit partition lock, running without it: {}", e.getMessage());
+            }
+            return maintenance.get();
+        } catch (DataAccessException e) {
+            log.error("Audit partition maintenance failed: {}", e.getMessage());
+            Report report = new Report();
+            report.setError(e.getMessage());
+            return report;
+        } finally {
+            if (locked) {
+                releaseLock(owner);
+            }
+            running.set(false);
+        }
+    }
+
+    private void releaseLock(String owner) {
+        try {
+            if (owner.equals(redisTemplate.opsForValue().get(LOCK_KEY))) {
+                redisTemplate.delete(LOCK_KEY);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not release audit partition lock: {}", e.getMessage());
+        }
+    }
+
+    private void logReport(Report report) {
+        if (report.isSkipped()) {
+            log.debug("Audit partition maintenance already running elsewhere, skipped");
+        } else if (!report.getCreated().isEmpty() || !report.getArchived().isEmpty() || !report.getFailed().isEmpty()) {
+            log.info("Audit partitions: created {}, archived {} ({} rows), failed {} in {} ms",
+                    report.getCreated(), report.getArchived(), report.getArchivedRows(), report.getFailed(),
+                    report.getDurationMs());
+        }
+    }
+
+    private record Partition(String name, YearMonth month, boolean attached) {
+    }
+
+    @lombok.Data
+    public static class Report {
+        private boolean skipped;
+        private List<String> created = new ArrayList<>();
+        private List<String> archived = new ArrayList<>();
+        private long archivedRows;
+        private List<String> failed = new ArrayList<>();
+        private String error;
+        private long durationMs;
+
+        static Report skipped() {
+            Report report = new Report();
+            report.setSkipped(true);
+            return report;
+        }
+    }
+}
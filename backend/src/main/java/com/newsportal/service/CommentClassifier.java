@@ -0,0 +1,15 @@
+package com.newsportal.service;
+
+import java.util.List;
+
+/**
+ * Scores comment text for automatic moderation. Implementations are called with micro-batches
+ * from a single worker thread and may batch their own work, e.g. one request to a remote model.
+ */
+public interface CommentClassifier {
+
+    /**
+     * Probability that each comment is spam or abuse, from 0 to 1, in the order given
+     */
+    double[] score(List<String> contents);
+}
@@ -0,0 +1,207 @@
+package com.newsportal.service;
+
+import com.newsportal.repository.CommentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Automatic moderation of new comments.
+ * <p>
+ * Comments are created hidden and queued once their transaction commits. A worker takes them
+ * in micro-batches, waiting up to {@code linger-ms} to fill one, scores each batch with the
+ * {@link CommentClassifier} and applies the verdicts in a single transaction: low scores are
+ * published, high scores rejected, and the uncertain rest held for a moderator. Comments that
+ * miss the in-memory queue (a full queue, a restart, a failed batch) are swept up again from
+ * the database.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CommentModerationService {
+
+    private final CommentRepository commentRepository;
+    private final CommentService commentService;
+    private final CommentClassifier classifier;
+
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private BlockingQueue<Long> queue;
+    private Thread worker;
+
+    @Value("${app.moderation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.moderation.batch-size:64}")
+    private int batchSize;
+
+    @Value("${app.moderation.linger-ms:200}")
+    private long lingerMs;
+
+    @Value("${app.moderation.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.moderation.approve-below:0.3}")
+    private double approveBelow;
+
+    @Value("${app.moderation.reject-above:0.95}")
+    private double rejectAbove;
+
+    @Value("${app.moderation.recovery-delay:1m}")
+    private Duration recoveryDelay;
+
+    @Value("${app.moderation.recovery-horizon:7d}")
+    private Duration recoveryHorizon;
+
+    public enum Verdict {
+        APPROVE,
+        HOLD,
+        REJECT
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        worker = new Thread(this::work, "comment-moderation");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Queue a new comment once the transaction that created it has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubmitted(CommentSubmitted event) {
+        if (enabled) {
+            offer(event.getCommentId());
+        }
+    }
+
+    /**
+     * Queue again comments that are still unscored well after they were created
+     */
+    @Scheduled(fixedDelayString = "${app.moderation.recovery-interval-ms:60000}", initialDelay = 30000)
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = commentRepository.findUnscoredIds(now.minus(recoveryHorizon), now.minus(recoveryDelay),
+                PageRequest.of(0, queueCapacity / 2));
+        int offered = 0;
+        for (Long id : ids) {
+            if (offer(id)) {
+                offered++;
+            }
+        }
+        if (offered > 0) {
+            log.info("Queued {} unscored comments for moderation again", offered);
+        }
+    }
+
+    private Verdict verdict(double score) {
+        if (score < approveBelow) {
+            return Verdict.APPROVE;
+        }
+        return score >= rejectAbove ? Verdict.REJECT : Verdict.HOLD;
+    }
+
+    private boolean offer(Long commentId) {
+        if (!queued.add(commentId)) {
+            return false;
+        }
+        if (!queue.offer(commentId)) {
+            queued.remove(commentId);
+            log.debug("Moderation queue full, comment {} left for the recovery sweep", commentId);
+            return false;
+        }
+        return true;
+    }
+
+    private void work() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    Long next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                moderate(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Moderation of {} comments failed, leaving them for the recovery sweep: {}",
+                        batch.size(), e.getMessage());
+            } finally {
+                batch.forEach(queued::remove);
+                batch.clear();
+            }
+        }
+    }
+
+    private void moderate(List<Long> batch) {
+        List<CommentRepository.ModerationCandidate> candidates = commentRepository.findModerationCandidates(batch);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        double[] scores = classifier.score(candidates.stream()
+                .map(CommentRepository.ModerationCandidate::getContent)
+                .toList());
+
+        List<Decision> decisions = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            decisions.add(new Decision(candidates.get(i).getId(), scores[i], verdict(scores[i])));
+        }
+        commentService.applyModeration(decisions);
+
+        log.debug("Moderated {} comments in {} ms", decisions.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Published by {@link CommentService} for every comment that needs scoring
+     */
+    @lombok.Value
+    public static class CommentSubmitted {
+        Long commentId;
+    }
+
+    @lombok.Value
+    public static class Decision {
+        Long commentId;
+        double score;
+        Verdict verdict;
+    }
+}
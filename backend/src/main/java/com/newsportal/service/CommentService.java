@@ -1,5 +1,8 @@
 package com.newsportal.service;
 
+import com.newsportal.dto.ArticleEvent;
+import com.newsportal.dto.BulkModerationResponse;
+import com.newsportal.dto.CommentPageResponse;
 import com.newsportal.dto.CommentRequest;
 import com.newsportal.dto.CommentResponse;
 import com.newsportal.model.Comment;
@@ -8,34 +11,104 @@ import com.newsportal.model.User;
 import com.newsportal.repository.CommentRepository;
 import com.newsportal.repository.NewsRepository;
 import com.newsportal.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CommentService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    static final int REPLY_PREVIEW_SIZE = 3;
+
     private final CommentRepository commentRepository;
     private final NewsRepository newsRepository;
     private final UserRepository userRepository;
     private final AuditLogService auditLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CommentThreadCache commentThreadCache;
+    private final PlatformTransactionManager transactionManager;
 
-    @Transactional(readOnly = true)
-    public List<CommentResponse> getCommentsByNewsId(Long newsId) {
-        List<Comment> topLevelComments = commentRepository
-                .findByNewsIdAndParentIsNullOrderByCreatedAtDesc(newsId);
+    private TransactionTemplate readOnly;
 
-        return topLevelComments.stream()
-                .filter(Comment::getApproved)
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    @Value("${app.comments.auto-hide-threshold:5}")
+    private int autoHideThreshold;
+
+    @Value("${app.moderation.enabled:true}")
+    private boolean moderationEnabled;
+
+    @PostConstruct
+    public void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    /**
+     * One page of an article's approved top-level comments, newest first, each with its reply
+     * count and first few replies. Pages are keyed on (createdAt, id) rather than offsets, so
+     * new comments never shift later pages.
+     * <p>
+     * Not transactional itself: cache hits, and readers waiting on another request's load,
+     * never hold a database connection. Only the load runs in a read-only transaction.
+     */
+    public CommentPageResponse getCommentsByNewsId(Long newsId, String cursor, int limit) {
+        if (commentThreadCache.covers(cursor, limit)) {
+            return commentThreadCache.get(newsId, () -> readOnly.execute(
+                    status -> loadCommentPage(newsId, null, commentThreadCache.getPageSize())));
+        }
+        Cursor before = Cursor.decode(cursor);
+        return readOnly.execute(status -> loadCommentPage(newsId, before, pageSize(limit)));
+    }
+
+    /**
+     * One page of the approved replies to a comment, oldest first
+     */
+    @Transactional(readOnly = true)
+    public CommentPageResponse getReplies(Long newsId, Long commentId, String cursor, int limit) {
+        Comment parent = commentRepository.findById(commentId)
+                .filter(comment -> comment.getNews().getId().equals(newsId) && comment.getApproved())
+                .orElseThrow(() -> new RuntimeException("Comment not found with id: " + commentId));
+
+        int size = pageSize(limit);
+        Pageable pageable = PageRequest.of(0, size + 1);
+        Cursor after = Cursor.decode(cursor);
+
+        List<CommentRepository.CommentView> replies = after == null
+                ? commentRepository.findReplyPage(parent.getId(), pageable)
+                : commentRepository.findReplyPageAfter(parent.getId(), after.getCreatedAt(), after.getId(), pageable);
+        String nextCursor = nextCursor(replies, size);
+        replies = replies.subList(0, Math.min(size, replies.size()));
+
+        return CommentPageResponse.builder()
+                .comments(link(replies, List.of()))
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Transactional
@@ -52,7 +125,8 @@ public class CommentService {
                 .user(user)
                 .content(request.getContent())
                 .moderated(false)
-                .approved(true) // Auto-approve for now, can be changed for moderation
+                // Hidden until automatic moderation has scored it
+                .approved(!moderationEnabled)
                 .reportedCount(0)
                 .build();
 
@@ -67,7 +141,45 @@ public class CommentService {
         auditLogService.logAction("Comment", comment.getId(), "CREATE", user,
                 "Comment created on news: " + newsId);
 
-        return convertToResponse(comment);
+        CommentResponse response = convertToResponse(comment);
+        if (comment.getApproved()) {
+            publishAdded(response);
+        } else {
+            eventPublisher.publishEvent(new CommentModerationService.CommentSubmitted(comment.getId()));
+        }
+        return response;
+    }
+
+    /**
+     * Apply a batch of automatic moderation verdicts. Comments a moderator decided on in the
+     * meantime are left alone, and approval never shows a comment that reports have hidden.
+     */
+    @Transactional
+    public void applyModeration(List<CommentModerationService.Decision> decisions) {
+        Map<Long, CommentModerationService.Decision> byId = decisions.stream()
+                .collect(Collectors.toMap(CommentModerationService.Decision::getCommentId, decision -> decision));
+
+        for (Comment comment : commentRepository.findAllWithUserByIdIn(byId.keySet())) {
+            if (comment.getModerated() || comment.getModerationScore() != null) {
+                continue;
+            }
+            CommentModerationService.Decision decision = byId.get(comment.getId());
+            comment.setModerationScore(decision.getScore());
+
+            switch (decision.getVerdict()) {
+                case APPROVE -> {
+                    // Still unmoderated, so enough reports can hide it again
+                    if (comment.getReportedCount() == null || comment.getReportedCount() < autoHideThreshold) {
+                        comment.setApproved(true);
+                        publishAdded(convertToResponseWithoutReplies(comment));
+                    }
+                }
+                case REJECT -> comment.reject();
+                case HOLD -> {
+                    // Stays hidden in the moderation queue
+                }
+            }
+        }
     }
 
     @Transactional
@@ -88,6 +200,10 @@ public class CommentService {
         commentRepository.delete(comment);
 
         auditLogService.logAction("Comment", id, "DELETE", user, "Comment deleted");
+
+        if (comment.getApproved()) {
+            publishRemoved(comment);
+        }
     }
 
     @Transactional
@@ -99,12 +215,16 @@ public class CommentService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        boolean wasVisible = comment.getApproved();
         comment.approve();
         comment = commentRepository.save(comment);
 
         auditLogService.logAction("Comment", id, "APPROVE", user, "Comment approved");
 
-        return convertToResponse(comment);
+        if (!wasVisible) {
+            publishAdded(convertToResponse(comment));
+        }
+        return convertToModerationResponse(comment);
     }
 
     @Transactional
@@ -116,27 +236,212 @@ public class CommentService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        boolean wasVisible = comment.getApproved();
         comment.reject();
         comment = commentRepository.save(comment);
 
         auditLogService.logAction("Comment", id, "REJECT", user, "Comment rejected");
 
-        return convertToResponse(comment);
+        if (wasVisible) {
+            publishRemoved(comment);
+        }
+        return convertToModerationResponse(comment);
     }
 
+    /**
+     * Approve many comments with one UPDATE and one batched audit insert. Readers of each
+     * affected article get a single reload signal rather than an event per comment.
+     */
+    @Transactional
+    public BulkModerationResponse approveComments(List<Long> ids) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        List<CommentRepository.ModerationChange> changes = commentRepository.approveAll(distinct);
+        return bulkModerated(distinct, changes, user, "APPROVE", "Comment approved in bulk");
+    }
+
+    /**
+     * Reject many comments the way {@link #approveComments} approves them
+     */
+    @Transactional
+    public BulkModerationResponse rejectComments(List<Long> ids) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        List<CommentRepository.ModerationChange> changes = commentRepository.rejectAll(distinct);
+        return bulkModerated(distinct, changes, user, "REJECT", "Comment rejected in bulk");
+    }
+
+    /**
+     * Count a report once per user with an atomic increment in the database; comments that
+     * reach the auto-hide threshold before moderation are hidden until a moderator reviews them
+     */
     @Transactional
     public void reportComment(Long id) {
-        Comment comment = commentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Comment not found with id: " + id));
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
 
-        comment.report();
-        commentRepository.save(comment);
+        Optional<Boolean> hidden = commentRepository.addReport(id, user.getId(), autoHideThreshold);
+        if (hidden.isEmpty()) {
+            // Nothing counted: a repeat report by this user, or no such comment
+            if (!commentRepository.existsById(id)) {
+                throw new RuntimeException("Comment not found with id: " + id);
+            }
+            return;
+        }
+        if (hidden.get()) {
+            commentRepository.findById(id).ifPresent(this::publishRemoved);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Page<CommentResponse> getReportedComments(Pageable pageable) {
+        return commentRepository.findReportedComments(autoHideThreshold, pageable)
+                .map(this::convertToModerationResponse);
     }
 
     @Transactional(readOnly = true)
     public Page<CommentResponse> getUnmoderatedComments(Pageable pageable) {
         return commentRepository.findUnmoderatedComments(pageable)
-                .map(this::convertToResponse);
+                .map(this::convertToModerationResponse);
+    }
+
+    /**
+     * Readers are told after commit, so they never see a comment that was rolled back
+     */
+    private void publishAdded(CommentResponse comment) {
+        eventPublisher.publishEvent(ArticleEvent.builder()
+                .newsId(comment.getNewsId())
+                .type(ArticleEvent.Type.COMMENT_ADDED)
+                .comment(comment)
+                .build());
+    }
+
+    private BulkModerationResponse bulkModerated(Set<Long> ids, List<CommentRepository.ModerationChange> changes,
+                                                 User user, String action, String metadata) {
+        Map<Long, String> audit = new LinkedHashMap<>();
+        Set<Long> affectedNews = new HashSet<>();
+        boolean approving = action.equals("APPROVE");
+        for (CommentRepository.ModerationChange change : changes) {
+            audit.put(change.getId(), metadata);
+            if (change.getWasApproved() != approving) {
+                affectedNews.add(change.getNewsId());
+            }
+        }
+        auditLogService.logActions("Comment", action, user, audit);
+
+        for (Long newsId : affectedNews) {
+            eventPublisher.publishEvent(ArticleEvent.builder()
+                    .newsId(newsId)
+                    .type(ArticleEvent.Type.COMMENTS_CHANGED)
+                    .build());
+        }
+
+        return BulkModerationResponse.builder()
+                .requested(ids.size())
+                .updatedIds(new ArrayList<>(audit.keySet()))
+                .build();
+    }
+
+    private void publishRemoved(Comment comment) {
+        eventPublisher.publishEvent(ArticleEvent.builder()
+                .newsId(comment.getNews().getId())
+                .type(ArticleEvent.Type.COMMENT_REMOVED)
+                .commentId(comment.getId())
+                .parentId(comment.getParent() != null ? comment.getParent().getId() : null)
+                .build());
+    }
+
+    /**
+     * Attach previewed replies to their comments and fill in reply counts for all of them
+     */
+    private List<CommentResponse> link(List<CommentRepository.CommentView> comments,
+                                       List<CommentRepository.CommentView> replies) {
+        Map<Long, CommentResponse> byId = new HashMap<>((comments.size() + replies.size()) * 2);
+        List<CommentResponse> result = new ArrayList<>(comments.size());
+        for (CommentRepository.CommentView row : comments) {
+            CommentResponse comment = convertToResponse(row);
+            byId.put(row.getId(), comment);
+            result.add(comment);
+        }
+        for (CommentRepository.CommentView row : replies) {
+            CommentResponse reply = convertToResponse(row);
+            byId.put(row.getId(), reply);
+            CommentResponse parent = byId.get(row.getParentId());
+            if (parent != null) {
+                parent.getReplies().add(reply);
+            }
+        }
+
+        if (!byId.isEmpty()) {
+            for (CommentRepository.ReplyCount count : commentRepository.countApprovedReplies(byId.keySet())) {
+                CommentResponse comment = byId.get(count.getParentId());
+                comment.setReplyCount(count.getReplies());
+
+                List<CommentResponse> preview = comment.getReplies();
+                if (!preview.isEmpty() && count.getReplies() > preview.size()) {
+                    CommentResponse last = preview.get(preview.size() - 1);
+                    comment.setRepliesCursor(new Cursor(last.getCreatedAt(), last.getId()).encode());
+                }
+            }
+        }
+        return result;
+    }
+
+    private CommentPageResponse loadCommentPage(Long newsId, Cursor after, int size) {
+        Pageable pageable = PageRequest.of(0, size + 1);
+        List<CommentRepository.CommentView> roots = after == null
+                ? commentRepository.findRootPage(newsId, pageable)
+                : commentRepository.findRootPageBefore(newsId, after.getCreatedAt(), after.getId(), pageable);
+        String nextCursor = nextCursor(roots, size);
+        roots = roots.subList(0, Math.min(size, roots.size()));
+
+        List<CommentRepository.CommentView> replies = roots.isEmpty()
+                ? List.of()
+                : commentRepository.findReplyPreviews(ids(roots), REPLY_PREVIEW_SIZE);
+
+        return CommentPageResponse.builder()
+                .comments(link(roots, replies))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static String nextCursor(List<CommentRepository.CommentView> rows, int size) {
+        if (rows.size() <= size) {
+            return null;
+        }
+        CommentRepository.CommentView last = rows.get(size - 1);
+        return new Cursor(last.getCreatedAt(), last.getId()).encode();
+    }
+
+    private static List<Long> ids(List<CommentRepository.CommentView> rows) {
+        return rows.stream().map(CommentRepository.CommentView::getId).collect(Collectors.toList());
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private CommentResponse convertToResponse(CommentRepository.CommentView comment) {
+        return CommentResponse.builder()
+                .id(comment.getId())
+                .newsId(comment.getNewsId())
+                .username(comment.getUsername())
+                .content(comment.getContent())
+                .parentId(comment.getParentId())
+                .moderated(comment.getModerated())
+                .approved(comment.getApproved())
+                .reportedCount(comment.getReportedCount())
+                .replyCount(0L)
+                .createdAt(comment.getCreatedAt())
+                .updatedAt(comment.getUpdatedAt())
+                .build();
     }
 
     private CommentResponse convertToResponse(Comment comment) {
@@ -160,6 +465,16 @@ public class CommentService {
                 .build();
     }
 
+    /**
+     * The public view plus the classifier score, for moderators only; readers, the live event
+     * stream and the cached threads never see the score
+     */
+    private CommentResponse convertToModerationResponse(Comment comment) {
+        CommentResponse response = convertToResponse(comment);
+        response.setModerationScore(comment.getModerationScore());
+        return response;
+    }
+
     private CommentResponse convertToResponseWithoutReplies(Comment comment) {
         return CommentResponse.builder()
                 .id(comment.getId())
@@ -174,4 +489,32 @@ public class CommentService {
                 .updatedAt(comment.getUpdatedAt())
                 .build();
     }
+
+    /**
+     * Opaque position in a comment listing: the creation time and id of the last comment seen
+     */
+    @lombok.Value
+    static class Cursor {
+        LocalDateTime createdAt;
+        Long id;
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = value.indexOf('|');
+                return new Cursor(LocalDateTime.parse(value.substring(0, separator)),
+                        Long.parseLong(value.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+    }
 }
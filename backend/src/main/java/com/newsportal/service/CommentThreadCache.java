@@ -0,0 +1,376 @@
+package com.newsportal.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newsportal.dto.ArticleEvent;
+import com.newsportal.dto.CommentPageResponse;
+import com.newsportal.dto.CommentResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The first page of each article's comment thread, the page every reader loads, cached on
+ * each node and in Redis.
+ * <p>
+ * The Redis copy is patched in place as comments appear and disappear, from the same events
+ * that are pushed to readers, and is only rebuilt from the database on a miss or when a change
+ * cannot be applied without it. A generation counter per article keeps a rebuild that raced
+ * with a change from storing the older thread. Node copies are dropped when an article's
+ * comments change on any node and expire after {@code local-ttl} in any case.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CommentThreadCache implements MessageListener {
+
+    private static final String KEY_PREFIX = "comments:thread:";
+    private static final String GENERATION_PREFIX = "comments:gen:";
+
+    // KEYS: thread, generation; ARGV: generation TTL ms. Returns the cached thread, if any.
+    private static final RedisScript<String> BUMP = new DefaultRedisScript<>("""
+            redis.call('INCR', KEYS[2])
+            redis.call('PEXPIRE', KEYS[2], ARGV[1])
+            return redis.call('GET', KEYS[1])
+            """, String.class);
+
+    // KEYS: thread; ARGV: thread as read, patched thread or '' to drop it, TTL ms.
+    // A thread changed since it was read is dropped rather than overwritten.
+    private static final RedisScript<Long> REPLACE = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] and ARGV[2] ~= '' then
+                redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+                return 1
+            end
+            redis.call('DEL', KEYS[1])
+            return 0
+            """, Long.class);
+
+    // KEYS: thread, generation; ARGV: generation before loading ('' if none), thread, TTL ms
+    private static final RedisScript<Long> FILL = new DefaultRedisScript<>("""
+            if (redis.call('GET', KEYS[2]) or '') == ARGV[1] then
+                redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Map<Long, CompletableFuture<CommentPageResponse>> loading = new ConcurrentHashMap<>();
+    private Map<Long, Entry> local;
+
+    @Value("${app.comments.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.comments.cache.page-size:20}")
+    private int pageSize;
+
+    @Value("${app.comments.cache.ttl:1h}")
+    private Duration ttl;
+
+    @Value("${app.comments.cache.local-size:1000}")
+    private int localSize;
+
+    @Value("${app.comments.cache.local-ttl:10s}")
+    private Duration localTtl;
+
+    @PostConstruct
+    public void init() {
+        local = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > localSize;
+            }
+        });
+    }
+
+    /**
+     * Whether a listing request is for the cached page
+     */
+    public boolean covers(String cursor, int limit) {
+        return enabled && (cursor == null || cursor.isBlank()) && limit == pageSize;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * The article's first comment page, loading it at most once per node at a time on a miss
+     */
+    public CommentPageResponse get(Long newsId, Supplier<CommentPageResponse> loader) {
+        Entry entry = local.get(newsId);
+        if (entry != null && entry.page != null && entry.expiresAt > System.currentTimeMillis()) {
+            return entry.page;
+        }
+
+        CompletableFuture<CommentPageResponse> mine = new CompletableFuture<>();
+        CompletableFuture<CommentPageResponse> running = loading.putIfAbsent(newsId, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                return loader.get();
+            }
+        }
+
+        try {
+            long version = entry != null ? entry.version : 0;
+            CommentPageResponse page = load(newsId, loader);
+            // A change seen while loading leaves a newer version behind, and this page out
+            local.compute(newsId, (id, current) -> (current == null ? 0 : current.version) == version
+                    ? new Entry(page, System.currentTimeMillis() + localTtl.toMillis(), version)
+                    : current);
+            mine.complete(page);
+            return page;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(newsId, mine);
+        }
+    }
+
+    /**
+     * Patch the shared thread once the change has committed, before readers are told about it
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleEvent(ArticleEvent event) {
+        if (!enabled || event.getType() == ArticleEvent.Type.ARTICLE_UPDATED) {
+            return;
+        }
+        evictLocal(event.getNewsId());
+
+        String key = KEY_PREFIX + event.getNewsId();
+        try {
+            String cached = redisTemplate.execute(BUMP, List.of(key, GENERATION_PREFIX + event.getNewsId()),
+                    String.valueOf(ttl.toMillis() * 2));
+            if (cached == null) {
+                return;
+            }
+            String patched = patch(cached, event);
+            redisTemplate.execute(REPLACE, List.of(key), cached, patched != null ? patched : "",
+                    String.valueOf(ttl.toMillis()));
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for comment cache, thread of news {} left to expire: {}",
+                    event.getNewsId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Changes made on other nodes
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ArticleEvent event = objectMapper.readValue(message.getBody(), ArticleEvent.class);
+            if (event.getType() != ArticleEvent.Type.ARTICLE_UPDATED) {
+                evictLocal(event.getNewsId());
+            }
+        } catch (IOException e) {
+            log.debug("Ignoring malformed article event: {}", e.getMessage());
+        }
+    }
+
+    private CommentPageResponse load(Long newsId, Supplier<CommentPageResponse> loader) {
+        String key = KEY_PREFIX + newsId;
+        String generation;
+        try {
+            String cached = redisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                return objectMapper.readValue(cached, CommentPageResponse.class);
+            }
+            generation = redisTemplate.opsForValue().get(GENERATION_PREFIX + newsId);
+        } catch (DataAccessException | IOException e) {
+            log.warn("Comment cache unavailable for news {}, loading from the database: {}", newsId, e.getMessage());
+            return loader.get();
+        }
+
+        CommentPageResponse page = loader.get();
+        try {
+            redisTemplate.execute(FILL, List.of(key, GENERATION_PREFIX + newsId),
+                    generation != null ? generation : "", objectMapper.writeValueAsString(page),
+                    String.valueOf(ttl.toMillis()));
+        } catch (DataAccessException | IOException e) {
+            log.warn("Could not cache comments of news {}: {}", newsId, e.getMessage());
+        }
+        return page;
+    }
+
+    private void evictLocal(Long newsId) {
+        local.compute(newsId, (id, current) -> new Entry(null, 0, current == null ? 1 : current.version + 1));
+    }
+
+    /**
+     * The thread with the change applied, or null when it cannot be patched without the database
+     */
+    private String patch(String cached, ArticleEvent event) {
+        try {
+            CommentPageResponse page = objectMapper.readValue(cached, CommentPageResponse.class);
+            boolean applied = switch (event.getType()) {
+                case COMMENT_ADDED -> added(page, objectMapper.convertValue(event.getComment(), CommentResponse.class));
+                case COMMENT_REMOVED -> removed(page, event.getCommentId(), event.getParentId());
+                default -> false;
+            };
+            return applied ? objectMapper.writeValueAsString(page) : null;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Could not patch cached comments of news {}: {}", event.getNewsId(), e.getMessage());
+            return null;
+        }
+    }
+
+    boolean added(CommentPageResponse page, CommentResponse comment) {
+        if (!comment.getReplies().isEmpty()) {
+            return false; // Shown again with replies, whose count and previews need the database
+        }
+        comment.setReplyCount(0L);
+        comment.setRepliesCursor(null);
+
+        if (comment.getParentId() == null) {
+            List<CommentResponse> roots = page.getComments();
+            if (roots.stream().anyMatch(root -> root.getId().equals(comment.getId()))) {
+                return true;
+            }
+            // Newest first
+            int position = 0;
+            while (position < roots.size() && after(roots.get(position), comment)) {
+                position++;
+            }
+            if (position == roots.size() && page.getNextCursor() != null) {
+                return true; // Belongs on a later page
+            }
+            roots.add(position, comment);
+            if (roots.size() > pageSize) {
+                roots.remove(roots.size() - 1);
+                page.setNextCursor(cursor(roots.get(roots.size() - 1)));
+            }
+            return true;
+        }
+
+        CommentResponse root = rootOf(page, comment.getParentId());
+        CommentResponse parent = find(page, comment.getParentId());
+        if (parent == null) {
+            return true;
+        }
+        parent.setReplyCount(count(parent) + 1);
+        if (parent == root && root.getReplies().stream().noneMatch(reply -> reply.getId().equals(comment.getId()))) {
+            // Oldest first, only the first few
+            List<CommentResponse> previews = root.getReplies();
+            int position = 0;
+            while (position < previews.size() && after(comment, previews.get(position))) {
+                position++;
+            }
+            if (position < CommentService.REPLY_PREVIEW_SIZE) {
+                previews.add(position, comment);
+                if (previews.size() > CommentService.REPLY_PREVIEW_SIZE) {
+                    previews.remove(previews.size() - 1);
+                }
+            }
+            updateRepliesCursor(root);
+        }
+        return true;
+    }
+
+    boolean removed(CommentPageResponse page, Long commentId, Long parentId) {
+        List<CommentResponse> roots = page.getComments();
+        if (roots.removeIf(root -> root.getId().equals(commentId))) {
+            // The first comment of the next page would have to move up
+            return page.getNextCursor() == null;
+        }
+        if (parentId == null) {
+            return true;
+        }
+
+        CommentResponse root = rootOf(page, parentId);
+        CommentResponse parent = find(page, parentId);
+        if (parent == null) {
+            return true;
+        }
+        parent.setReplyCount(Math.max(0, count(parent) - 1));
+        if (parent == root) {
+            root.getReplies().removeIf(reply -> reply.getId().equals(commentId));
+            if (root.getReplies().size() < Math.min(count(root), CommentService.REPLY_PREVIEW_SIZE)) {
+                return false;
+            }
+            updateRepliesCursor(root);
+        }
+        return true;
+    }
+
+    private static CommentResponse rootOf(CommentPageResponse page, Long id) {
+        return page.getComments().stream().filter(root -> root.getId().equals(id)).findFirst().orElse(null);
+    }
+
+    private static CommentResponse find(CommentPageResponse page, Long id) {
+        for (CommentResponse root : page.getComments()) {
+            if (root.getId().equals(id)) {
+                return root;
+            }
+            for (CommentResponse reply : root.getReplies()) {
+                if (reply.getId().equals(id)) {
+                    return reply;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void updateRepliesCursor(CommentResponse root) {
+        List<CommentResponse> previews = root.getReplies();
+        root.setRepliesCursor(!previews.isEmpty() && count(root) > previews.size()
+                ? cursor(previews.get(previews.size() - 1))
+                : null);
+    }
+
+    private static long count(CommentResponse comment) {
+        return comment.getReplyCount() != null ? comment.getReplyCount() : 0;
+    }
+
+    /**
+     * Whether a comes after b in (createdAt, id) order
+     */
+    private static boolean after(CommentResponse a, CommentResponse b) {
+        int byTime = a.getCreatedAt().compareTo(b.getCreatedAt());
+        return byTime != 0 ? byTime > 0 : a.getId() > b.getId();
+    }
+
+    private static String cursor(CommentResponse comment) {
+        return new CommentService.Cursor(comment.getCreatedAt(), comment.getId()).encode();
+    }
+
+    /**
+     * A node's copy of a thread; a null page marks one dropped at the given version
+     */
+    @lombok.Value
+    private static class Entry {
+        CommentPageResponse page;
+        long expiresAt;
+        long version;
+    }
+}
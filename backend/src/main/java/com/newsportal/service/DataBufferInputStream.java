@@ -0,0 +1,87 @@
+package com.newsportal.service;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Blocking InputStream over a reactive response body.
+ * <p>
+ * Network buffers are requested a few at a time and released as soon as they have been read,
+ * so a large body never has to be aggregated in memory. Closing the stream early cancels the
+ * response and releases buffers that were already prefetched.
+ */
+public class DataBufferInputStream extends InputStream {
+
+    private final Stream<DataBuffer> stream;
+    private final Iterator<DataBuffer> buffers;
+
+    private DataBuffer current;
+    private boolean closed;
+
+    public DataBufferInputStream(Flux<DataBuffer> body, int prefetch) {
+        this.stream = body.doOnDiscard(DataBuffer.class, DataBufferUtils::release).toStream(prefetch);
+        this.buffers = stream.iterator();
+    }
+
+    @Override
+    public int read() throws IOException {
+        DataBuffer buffer = nextReadable();
+        return buffer == null ? -1 : buffer.read() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] data, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        DataBuffer buffer = nextReadable();
+        if (buffer == null) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.readableByteCount());
+        buffer.read(data, offset, count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.readableByteCount();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        releaseCurrent();
+        stream.close();
+    }
+
+    private DataBuffer nextReadable() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (current == null || current.readableByteCount() == 0) {
+            releaseCurrent();
+            if (!buffers.hasNext()) {
+                return null;
+            }
+            current = buffers.next();
+        }
+        return current;
+    }
+
+    private void releaseCurrent() {
+        if (current != null) {
+            DataBufferUtils.release(current);
+            current = null;
+        }
+    }
+}
@@ -1,15 +1,25 @@
 package com.newsportal.service;
 
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newsportal.jobs.JobTracker;
+import com.newsportal.model.Job;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,6 +35,7 @@ public class ImageGenerationService {
     private final ObjectMapper objectMapper;
     private final StorageService storageService;
     private final AuditLogService auditLogService;
+    private final JobTracker jobTracker;
 
     @Value("${app.ai.image.provider:openai}")
     private String provider;
@@ -36,6 +47,8 @@ public class ImageGenerationService {
     private String stabilityApiKey;
 
     private static final String DALLE_API_URL = "https://api.openai.com/v1/images/generations";
+    private static final String STABILITY_IMAGE_TYPE = "image/png";
+    private static final int RESPONSE_PREFETCH = 4;
     private static final String STABILITY_API_URL = "https://api.stability.ai/v1/generation/stable-diffusion-xl-1024-v1-0/text-to-image";
 
     /**
@@ -45,16 +58,32 @@ public class ImageGenerationService {
         log.info("Generating image for news ID: {} with prompt: {}", newsId, prompt);
 
         try {
-            String imageUrl = callImageGenerationAPI(prompt);
-
-            // Download and store the image
-            String storedUrl = storageService.downloadAndStoreImage(imageUrl, newsId);
+            StorageService.StoredObject stored;
+            String sourceUrl;
+
+            if ("stability".equalsIgnoreCase(provider)) {
+                // The image is decoded from the response straight into the upload, so the two overlap
+                stored = jobTracker.time(Job.JobStage.IMAGE_GENERATION, () -> callStabilityAI(prompt));
+                sourceUrl = stored.getUrl();
+            } else if ("openai".equalsIgnoreCase(provider)) {
+                sourceUrl = jobTracker.time(Job.JobStage.IMAGE_GENERATION, () -> callDALLE(prompt));
+
+                // Download and store the image
+                stored = jobTracker.time(Job.JobStage.STORAGE_UPLOAD,
+                        () -> storageService.storeImage(sourceUrl, newsId));
+            } else {
+                throw new IllegalStateException("Unsupported image generation provider: " + provider);
+            }
 
             // Log to audit
-            auditLogService.logImageGeneration(newsId, prompt, imageUrl);
+            auditLogService.logImageGeneration(newsId, prompt, sourceUrl);
 
             ImageGenerationResult result = new ImageGenerationResult();
-            result.setImageUrl(storedUrl);
+            result.setImageUrl(stored.getUrl());
+            result.setS3Key(stored.getKey());
+            result.setMimeType(stored.getContentType());
+            result.setFileSize(stored.getSize());
+            result.setContentHash(stored.getContentHash());
             result.setPrompt(prompt);
             result.setProvider(provider);
 
@@ -65,19 +94,6 @@ public class ImageGenerationService {
         }
     }
 
-    /**
-     * Call the configured image generation provider
-     */
-    private String callImageGenerationAPI(String prompt) {
-        if ("openai".equalsIgnoreCase(provider)) {
-            return callDALLE(prompt);
-        } else if ("stability".equalsIgnoreCase(provider)) {
-            return callStabilityAI(prompt);
-        } else {
-            throw new IllegalStateException("Unsupported image generation provider: " + provider);
-        }
-    }
-
     /**
      * Call DALL-E API
      */
@@ -112,9 +128,11 @@ public class ImageGenerationService {
     }
 
     /**
-     * Call Stability AI API
+     * Call Stability AI API and store the returned image.
+     * The response is parsed as a token stream and the base64 artifact is decoded directly into
+     * the upload, so the image is never held on the heap as a string or byte array.
      */
-    private String callStabilityAI(String prompt) {
+    private StorageService.StoredObject callStabilityAI(String prompt) {
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("text_prompts", new Object[] {
                 Map.of("text", prompt, "weight", 1)
@@ -133,18 +151,16 @@ public class ImageGenerationService {
                 .build();
 
         try {
-            String response = webClient.post()
+            Flux<DataBuffer> response = webClient.post()
                     .bodyValue(requestBody)
                     .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            JsonNode jsonResponse = objectMapper.readTree(response);
-            String base64Image = jsonResponse.get("artifacts").get(0).get("base64").asText();
+                    .bodyToFlux(DataBuffer.class);
 
-            // For Stability AI, we need to handle base64 differently
-            // This is a simplified version - you'd need to decode and upload
-            return "data:image/png;base64," + base64Image;
+            return storageService.storeContent(STABILITY_IMAGE_TYPE, out -> {
+                try (InputStream in = new DataBufferInputStream(response, RESPONSE_PREFETCH)) {
+                    writeFirstArtifact(in, out);
+                }
+            });
         } catch (Exception e) {
             log.error("Stability AI API call failed: {}", e.getMessage(), e);
             throw new RuntimeException("Stability AI API call failed", e);
@@ -152,17 +168,39 @@ public class ImageGenerationService {
     }
 
     /**
-     * Generate social media card/placa for a news article
+     * Decode the base64 image of the first entry of {@code artifacts} into the output stream
      */
-    public String generateSocialCard(String newsId, String title, String excerpt, String imageUrl) {
-        log.info("Generating social card for news ID: {}", newsId);
-
-        // This would typically use a headless browser (Puppeteer) or image manipulation
-        // library
-        // For now, we'll return a placeholder implementation
-        // TODO: Implement actual social card generation
-
-        return imageUrl; // Temporary: return the main image
+    private void writeFirstArtifact(InputStream in, OutputStream out) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected Stability AI response");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!"artifacts".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    break;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String artifactField = parser.getCurrentName();
+                    JsonToken artifactValue = parser.nextToken();
+                    if ("base64".equals(artifactField) && artifactValue == JsonToken.VALUE_STRING) {
+                        // Decodes from the parser's input buffer as the string is read
+                        parser.readBinaryValue(Base64Variants.MIME_NO_LINEFEEDS, out);
+                        return;
+                    }
+                    parser.skipChildren();
+                }
+                break;
+            }
+        }
+        throw new IOException("No image in Stability AI response");
     }
 
     /**
@@ -171,6 +209,10 @@ public class ImageGenerationService {
     @lombok.Data
     public static class ImageGenerationResult {
         private String imageUrl;
+        private String s3Key;
+        private String mimeType;
+        private Long fileSize;
+        private String contentHash;
         private String prompt;
         private String provider;
     }
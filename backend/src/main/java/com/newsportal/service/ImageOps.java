@@ -0,0 +1,97 @@
+package com.newsportal.service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Java2D scaling and ImageIO encoding shared by renditions and social cards
+ */
+public final class ImageOps {
+
+    private ImageOps() {
+    }
+
+    /**
+     * Scale down to the given size, halving first so large reductions stay sharp
+     */
+    public static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+
+        while (currentWidth / 2 >= width && currentHeight / 2 >= height) {
+            currentWidth /= 2;
+            currentHeight /= 2;
+            current = draw(current, currentWidth, currentHeight);
+        }
+        return draw(current, width, height);
+    }
+
+    /**
+     * Crop the centre of the image to the target aspect ratio and scale it to the given size
+     */
+    public static BufferedImage cover(BufferedImage source, int width, int height) {
+        double targetRatio = (double) width / height;
+        int cropWidth = source.getWidth();
+        int cropHeight = source.getHeight();
+
+        if ((double) cropWidth / cropHeight > targetRatio) {
+            cropWidth = (int) Math.round(cropHeight * targetRatio);
+        } else {
+            cropHeight = (int) Math.round(cropWidth / targetRatio);
+        }
+
+        int x = (source.getWidth() - cropWidth) / 2;
+        int y = (source.getHeight() - cropHeight) / 2;
+        return resize(source.getSubimage(x, y, cropWidth, cropHeight), width, height);
+    }
+
+    /**
+     * Encode with the ImageIO writer of the given MIME type at the given quality (0-1)
+     */
+    public static byte[] encode(BufferedImage image, String mimeType, float quality) {
+        ImageWriter writer = ImageIO.getImageWritersByMIMEType(mimeType).next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(image.getWidth() * image.getHeight() / 4);
+
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode " + mimeType + " image", e);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,161 @@
+package com.newsportal.service;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Low-quality placeholders shown while an image loads: a BlurHash (a few dozen characters that
+ * clients decode into a blurred preview) and the dominant colour as a hex string.
+ * Both are computed from a tiny downscaled copy, so the cost does not depend on the image size.
+ */
+public final class ImagePlaceholder {
+
+    private static final int SAMPLE_SIZE = 32;
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private static final float[] SRGB_TO_LINEAR = new float[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            double v = i / 255.0;
+            SRGB_TO_LINEAR[i] = (float) (v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4));
+        }
+    }
+
+    private ImagePlaceholder() {
+    }
+
+    public static Result compute(BufferedImage source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int sampleWidth = width >= height ? SAMPLE_SIZE : Math.max(1, Math.round((float) SAMPLE_SIZE * width / height));
+        int sampleHeight = height > width ? SAMPLE_SIZE : Math.max(1, Math.round((float) SAMPLE_SIZE * height / width));
+        BufferedImage sample = ImageOps.resize(source, sampleWidth, sampleHeight);
+
+        int[] pixels = sample.getRGB(0, 0, sampleWidth, sampleHeight, null, 0, sampleWidth);
+        int xComponents = width >= height ? 4 : 3;
+        int yComponents = width >= height ? 3 : 4;
+
+        return new Result(blurHash(pixels, sampleWidth, sampleHeight, xComponents, yComponents), dominantColor(pixels));
+    }
+
+    /**
+     * BlurHash of packed RGB pixels (https://github.com/woltapp/blurhash)
+     */
+    static String blurHash(int[] pixels, int width, int height, int xComponents, int yComponents) {
+        float[] linear = new float[pixels.length * 3];
+        for (int i = 0; i < pixels.length; i++) {
+            linear[i * 3] = SRGB_TO_LINEAR[(pixels[i] >> 16) & 0xFF];
+            linear[i * 3 + 1] = SRGB_TO_LINEAR[(pixels[i] >> 8) & 0xFF];
+            linear[i * 3 + 2] = SRGB_TO_LINEAR[pixels[i] & 0xFF];
+        }
+
+        double[][] factors = new double[xComponents * yComponents][3];
+        for (int j = 0; j < yComponents; j++) {
+            for (int i = 0; i < xComponents; i++) {
+                double normalisation = i == 0 && j == 0 ? 1 : 2;
+                double r = 0;
+                double g = 0;
+                double b = 0;
+                for (int y = 0; y < height; y++) {
+                    double basisY = Math.cos(Math.PI * j * y / height);
+                    for (int x = 0; x < width; x++) {
+                        double basis = Math.cos(Math.PI * i * x / width) * basisY;
+                        int p = (y * width + x) * 3;
+                        r += basis * linear[p];
+                        g += basis * linear[p + 1];
+                        b += basis * linear[p + 2];
+                    }
+                }
+                double scale = normalisation / (width * height);
+                factors[j * xComponents + i] = new double[]{r * scale, g * scale, b * scale};
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        encode83(hash, (xComponents - 1) + (yComponents - 1) * 9, 1);
+
+        double maximumValue = 1;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (double component : factors[k]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(component));
+                }
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166.0;
+            encode83(hash, quantisedMaximum, 1);
+        } else {
+            encode83(hash, 0, 1);
+        }
+
+        double[] dc = factors[0];
+        encode83(hash, (linearToSrgb(dc[0]) << 16) + (linearToSrgb(dc[1]) << 8) + linearToSrgb(dc[2]), 4);
+
+        for (int k = 1; k < factors.length; k++) {
+            double[] ac = factors[k];
+            int value = quantiseAc(ac[0], maximumValue) * 19 * 19
+                    + quantiseAc(ac[1], maximumValue) * 19
+                    + quantiseAc(ac[2], maximumValue);
+            encode83(hash, value, 2);
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Average of the most populated colour bucket, so a small bright subject on a large
+     * background yields the background colour rather than a muddy mix of both
+     */
+    static String dominantColor(int[] pixels) {
+        int[] counts = new int[4096];
+        long[][] sums = new long[4096][3];
+
+        for (int pixel : pixels) {
+            int r = (pixel >> 16) & 0xFF;
+            int g = (pixel >> 8) & 0xFF;
+            int b = pixel & 0xFF;
+            int bucket = (r >> 4) << 8 | (g >> 4) << 4 | b >> 4;
+            counts[bucket]++;
+            sums[bucket][0] += r;
+            sums[bucket][1] += g;
+            sums[bucket][2] += b;
+        }
+
+        int best = 0;
+        for (int bucket = 1; bucket < counts.length; bucket++) {
+            if (counts[bucket] > counts[best]) {
+                best = bucket;
+            }
+        }
+        int count = Math.max(1, counts[best]);
+        return String.format("#%02x%02x%02x", sums[best][0] / count, sums[best][1] / count, sums[best][2] / count);
+    }
+
+    private static int quantiseAc(double value, double maximumValue) {
+        double normalised = value / maximumValue;
+        double signed = Math.copySign(Math.pow(Math.abs(normalised), 0.5), normalised);
+        return (int) Math.max(0, Math.min(18, Math.floor(signed * 9 + 9.5)));
+    }
+
+    private static int linearToSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        if (v <= 0.0031308) {
+            return (int) (v * 12.92 * 255 + 0.5);
+        }
+        return (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void encode83(StringBuilder out, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (int) (value / Math.pow(83, length - i)) % 83;
+            out.append(BASE83.charAt(digit));
+        }
+    }
+
+    @lombok.Value
+    public static class Result {
+        String blurHash;
+        String dominantColor;
+    }
+}
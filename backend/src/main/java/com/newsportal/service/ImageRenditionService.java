@@ -0,0 +1,194 @@
+package com.newsportal.service;
+
+import com.newsportal.model.MediaAsset;
+import com.newsportal.repository.MediaAssetRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Produces responsive renditions of stored images: downscaled widths in JPEG and in any
+ * configured modern format (WebP, AVIF) an ImageIO writer on the classpath can encode, plus a
+ * cropped thumbnail. The JDK ships no such writer, so only JPEG is produced by default.
+ * <p>
+ * Renditions are resized and encoded in parallel on a bounded CPU pool and uploaded through
+ * the async S3 client, so pool threads never wait on the network. When the pool's queue is
+ * full the submitting job thread does the work itself, so image jobs slow down instead of
+ * piling up decoded images on the heap.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ImageRenditionService {
+
+    private static final String JPEG = "image/jpeg";
+
+    private final StorageService storageService;
+    private final MediaCache mediaCache;
+    private final MediaAssetRepository mediaAssetRepository;
+
+    @Value("${app.media.renditions.widths:320,640,1024,1600}")
+    private List<Integer> widths;
+
+    @Value("${app.media.renditions.formats:}")
+    private List<String> modernFormats;
+
+    @Value("${app.media.renditions.quality:0.82}")
+    private float quality;
+
+    @Value("${app.media.renditions.thumbnail-width:480}")
+    private int thumbnailWidth;
+
+    @Value("${app.media.renditions.thumbnail-height:270}")
+    private int thumbnailHeight;
+
+    @Value("${app.media.renditions.threads:0}")
+    private int threads;
+
+    @Value("${app.media.renditions.timeout:2m}")
+    private Duration timeout;
+
+    private ExecutorService pool;
+    private List<String> formats;
+
+    @PostConstruct
+    public void init() {
+        ImageIO.setUseCache(false);
+
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(size * 4),
+                runnable -> new Thread(runnable, "rendition-" + sequence.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        formats = new ArrayList<>();
+        formats.add(JPEG);
+        for (String format : modernFormats) {
+            if (format.isBlank()) {
+                continue;
+            }
+            if (ImageIO.getImageWritersByMIMEType(format.trim()).hasNext()) {
+                formats.add(format.trim());
+            } else {
+                log.warn("No ImageIO writer for {} on the classpath, skipping those renditions", format);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Create the renditions of a stored original, replacing those of a previous run,
+     * and fill in the original's dimensions and loading placeholder
+     */
+    public List<MediaAsset> createRenditions(MediaAsset original) {
+        if (original.getId() == null || original.getS3Key() == null) {
+            log.warn("Skipping renditions of media asset {} without a stored object", original.getId());
+            return List.of();
+        }
+
+        // Read through the disk cache: re-rendering after a template change reuses the downloaded original
+        BufferedImage source;
+        try (InputStream in = mediaCache.open(original.getS3Key())) {
+            source = ImageIO.read(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read image " + original.getS3Key(), e);
+        }
+        if (source == null) {
+            throw new RuntimeException("Unsupported image format: " + original.getS3Key());
+        }
+
+        // Cheap, so it goes first and is ready long before the renditions
+        CompletableFuture<ImagePlaceholder.Result> placeholder =
+                CompletableFuture.supplyAsync(() -> ImagePlaceholder.compute(source), pool);
+
+        List<CompletableFuture<MediaAsset>> tasks = new ArrayList<>();
+        for (String format : formats) {
+            for (Integer width : widths) {
+                if (width < source.getWidth()) {
+                    int height = Math.round((float) source.getHeight() * width / source.getWidth());
+                    tasks.add(submit(original, source, format, width, height, MediaAsset.MediaType.IMAGE));
+                }
+            }
+            tasks.add(submit(original, source, format, thumbnailWidth, thumbnailHeight, MediaAsset.MediaType.THUMBNAIL));
+        }
+
+        original.setWidth(source.getWidth());
+        original.setHeight(source.getHeight());
+        try {
+            ImagePlaceholder.Result result = placeholder.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            original.setBlurHash(result.getBlurHash());
+            original.setDominantColor(result.getDominantColor());
+        } catch (Exception e) {
+            log.warn("Could not compute placeholder of {}: {}", original.getS3Key(), e.getMessage());
+        }
+        mediaAssetRepository.save(original);
+
+        List<MediaAsset> renditions = new ArrayList<>();
+        for (CompletableFuture<MediaAsset> task : tasks) {
+            try {
+                MediaAsset rendition = task.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                rendition.setBlurHash(original.getBlurHash());
+                rendition.setDominantColor(original.getDominantColor());
+                renditions.add(rendition);
+            } catch (Exception e) {
+                log.error("Rendition of {} failed: {}", original.getS3Key(), e.getMessage(), e);
+            }
+        }
+
+        mediaAssetRepository.deleteAll(mediaAssetRepository.findByParentAssetId(original.getId()));
+        List<MediaAsset> saved = mediaAssetRepository.saveAll(renditions);
+
+        log.info("Created {} renditions of {} ({})", saved.size(), original.getS3Key(),
+                saved.stream().map(r -> r.getMimeType() + "@" + r.getWidth()).collect(Collectors.joining(", ")));
+        return saved;
+    }
+
+    private CompletableFuture<MediaAsset> submit(MediaAsset original, BufferedImage source, String format,
+                                                 int width, int height, MediaAsset.MediaType type) {
+        return CompletableFuture.supplyAsync(() -> type == MediaAsset.MediaType.THUMBNAIL
+                        ? ImageOps.cover(source, width, height)
+                        : ImageOps.resize(source, width, height), pool)
+                .thenCompose(image -> {
+                    byte[] data = ImageOps.encode(image, format, quality);
+
+                    // The pool thread moves on to the next rendition while the upload is in flight
+                    return storageService.storeContentAsync(data, format).thenApply(stored -> MediaAsset.builder()
+                            .parentAssetId(original.getId())
+                            .url(stored.getUrl())
+                            .s3Key(stored.getKey())
+                            .contentHash(stored.getContentHash())
+                            .type(type)
+                            .mimeType(format)
+                            .fileSize((long) data.length)
+                            .width(image.getWidth())
+                            .height(image.getHeight())
+                            .altText(original.getAltText())
+                            .aiGenerated(original.getAiGenerated())
+                            .displayOrder(width)
+                            .build());
+                });
+    }
+}
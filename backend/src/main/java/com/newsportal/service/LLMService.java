@@ -2,13 +2,19 @@ package com.newsportal.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.HashMap;
 import java.util.List;
@@ -39,6 +45,12 @@ public class LLMService {
     private static final String OPENAI_API_URL = "https://api.openai.com/v1/chat/completions";
     private static final String ANTHROPIC_API_URL = "https://api.anthropic.com/v1/messages";
 
+    private static final String OPENAI_STREAM_DONE = "[DONE]";
+    private static final String ANTHROPIC_TEXT_DELTA = "content_block_delta";
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE = new ParameterizedTypeReference<>() {
+    };
+
     /**
      * Rewrite news article using LLM
      */
@@ -61,6 +73,39 @@ public class LLMService {
         }
     }
 
+    /**
+     * Rewrite news article using the provider's token stream.
+     * Emits field deltas and completed fields as soon as they are parsed, followed by a
+     * single COMPLETE event carrying the full result.
+     */
+    public Flux<RewriteEvent> streamRewriteArticle(String sourceText, String sourceName, String sourceUrl) {
+        log.info("Streaming article rewrite from source: {}", sourceName);
+
+        String prompt = buildRewritePrompt(sourceText, sourceName, sourceUrl);
+
+        return Flux.defer(() -> {
+            StreamingRewriteParser parser = new StreamingRewriteParser();
+            StringBuilder response = new StringBuilder();
+
+            Flux<RewriteEvent> fields = streamLLM(prompt)
+                    .doOnNext(response::append)
+                    .concatMapIterable(parser::feed)
+                    .map(RewriteEvent::fromParser);
+
+            Mono<RewriteEvent> completion = Mono.fromCallable(() -> {
+                // The parser already isolated the object; fall back to the fence stripping otherwise
+                RewriteResult result = parseRewriteResponse(
+                        parser.isComplete() ? parser.getJson() : response.toString());
+
+                auditLogService.logLLMRewrite(sourceName, sourceUrl, prompt, response.toString());
+
+                return RewriteEvent.complete(result);
+            }).subscribeOn(Schedulers.boundedElastic());
+
+            return fields.concatWith(completion);
+        }).doOnError(e -> log.error("Error streaming article rewrite: {}", e.getMessage(), e));
+    }
+
     /**
      * Generate image prompt from article content
      */
@@ -128,6 +173,19 @@ public class LLMService {
         }
     }
 
+    /**
+     * Stream text deltas from the configured LLM provider
+     */
+    private Flux<String> streamLLM(String prompt) {
+        if ("openai".equalsIgnoreCase(provider)) {
+            return streamOpenAI(prompt);
+        } else if ("anthropic".equalsIgnoreCase(provider)) {
+            return streamAnthropic(prompt);
+        } else {
+            return Flux.error(new IllegalStateException("Unsupported LLM provider: " + provider));
+        }
+    }
+
     /**
      * Call OpenAI API
      */
@@ -192,6 +250,79 @@ public class LLMService {
         }
     }
 
+    /**
+     * Stream OpenAI chat completion deltas
+     */
+    private Flux<String> streamOpenAI(String prompt) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", "gpt-4-turbo-preview");
+        requestBody.put("messages", List.of(
+                Map.of("role", "user", "content", prompt)));
+        requestBody.put("temperature", 0.7);
+        requestBody.put("max_tokens", 2000);
+        requestBody.put("stream", true);
+
+        WebClient webClient = webClientBuilder
+                .baseUrl(OPENAI_API_URL)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + openaiApiKey)
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .defaultHeader(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .build();
+
+        return webClient.post()
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToFlux(SSE_TYPE)
+                .map(ServerSentEvent::data)
+                .takeWhile(data -> !OPENAI_STREAM_DONE.equals(data))
+                .handle((data, sink) -> {
+                    try {
+                        JsonNode delta = objectMapper.readTree(data).path("choices").path(0).path("delta");
+                        if (delta.hasNonNull("content")) {
+                            sink.next(delta.get("content").asText());
+                        }
+                    } catch (Exception e) {
+                        sink.error(new RuntimeException("Invalid OpenAI stream chunk", e));
+                    }
+                });
+    }
+
+    /**
+     * Stream Anthropic message text deltas
+     */
+    private Flux<String> streamAnthropic(String prompt) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", "claude-3-opus-20240229");
+        requestBody.put("messages", List.of(
+                Map.of("role", "user", "content", prompt)));
+        requestBody.put("max_tokens", 2000);
+        requestBody.put("stream", true);
+
+        WebClient webClient = webClientBuilder
+                .baseUrl(ANTHROPIC_API_URL)
+                .defaultHeader("x-api-key", anthropicApiKey)
+                .defaultHeader("anthropic-version", "2023-06-01")
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .defaultHeader(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .build();
+
+        return webClient.post()
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToFlux(SSE_TYPE)
+                .filter(event -> ANTHROPIC_TEXT_DELTA.equals(event.event()) && event.data() != null)
+                .handle((event, sink) -> {
+                    try {
+                        JsonNode delta = objectMapper.readTree(event.data()).path("delta");
+                        if (delta.hasNonNull("text")) {
+                            sink.next(delta.get("text").asText());
+                        }
+                    } catch (Exception e) {
+                        sink.error(new RuntimeException("Invalid Anthropic stream chunk", e));
+                    }
+                });
+    }
+
     /**
      * Parse the LLM response into structured data
      */
@@ -207,36 +338,41 @@ public class LLMService {
                 jsonStr = jsonStr.substring(0, jsonStr.indexOf("```"));
             }
 
-            JsonNode json = objectMapper.readTree(jsonStr.trim());
-
-            RewriteResult result = new RewriteResult();
-            result.setTitle(json.get("title").asText());
-            result.setExcerpt(json.get("excerpt").asText());
-            result.setBodyHtml(json.get("body_html").asText());
-
-            // Parse tags
-            JsonNode tagsNode = json.get("tags");
-            if (tagsNode != null && tagsNode.isArray()) {
-                result.setTags(objectMapper.convertValue(tagsNode, List.class));
-            }
-
-            // Parse warnings
-            JsonNode warningsNode = json.get("warnings");
-            if (warningsNode != null && warningsNode.isArray()) {
-                result.setWarnings(objectMapper.convertValue(warningsNode, List.class));
-            }
-
-            return result;
+            return toRewriteResult(objectMapper.readTree(jsonStr.trim()));
         } catch (Exception e) {
             log.error("Failed to parse LLM response: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to parse LLM response", e);
         }
     }
 
+    /**
+     * Map the rewrite JSON object into a result
+     */
+    private RewriteResult toRewriteResult(JsonNode json) {
+        RewriteResult result = new RewriteResult();
+        result.setTitle(json.get("title").asText());
+        result.setExcerpt(json.get("excerpt").asText());
+        result.setBodyHtml(json.get("body_html").asText());
+
+        // Parse tags
+        JsonNode tagsNode = json.get("tags");
+        if (tagsNode != null && tagsNode.isArray()) {
+            result.setTags(objectMapper.convertValue(tagsNode, List.class));
+        }
+
+        // Parse warnings
+        JsonNode warningsNode = json.get("warnings");
+        if (warningsNode != null && warningsNode.isArray()) {
+            result.setWarnings(objectMapper.convertValue(warningsNode, List.class));
+        }
+
+        return result;
+    }
+
     /**
      * Result of article rewriting
      */
-    @lombok.Data
+    @Data
     public static class RewriteResult {
         private String title;
         private String excerpt;
@@ -244,4 +380,36 @@ public class LLMService {
         private List<String> tags;
         private List<String> warnings;
     }
+
+    /**
+     * Incremental event of a streamed rewrite
+     */
+    @Data
+    public static class RewriteEvent {
+        private RewriteEventType type;
+        private String field;
+        private String text;
+        private RewriteResult result;
+
+        static RewriteEvent fromParser(StreamingRewriteParser.Event event) {
+            RewriteEvent rewriteEvent = new RewriteEvent();
+            rewriteEvent.setType(event.isCompleted() ? RewriteEventType.FIELD : RewriteEventType.DELTA);
+            rewriteEvent.setField(event.getField());
+            rewriteEvent.setText(event.getText());
+            return rewriteEvent;
+        }
+
+        static RewriteEvent complete(RewriteResult result) {
+            RewriteEvent rewriteEvent = new RewriteEvent();
+            rewriteEvent.setType(RewriteEventType.COMPLETE);
+            rewriteEvent.setResult(result);
+            return rewriteEvent;
+        }
+    }
+
+    public enum RewriteEventType {
+        DELTA,
+        FIELD,
+        COMPLETE
+    }
 }
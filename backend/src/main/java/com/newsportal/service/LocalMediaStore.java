@@ -0,0 +1,322 @@
+package com.newsportal.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Media kept in a directory on local disk and served by the application itself under
+ * {@code /media/**}, for single-node and edge deployments without S3.
+ * <p>
+ * Every write goes to a temporary file first and is renamed into place, so readers never see
+ * a partially written object. Disk operations are fast enough to run on the caller's thread;
+ * the async methods return already completed futures.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "local")
+public class LocalMediaStore implements MediaStore {
+
+    private static final String UPLOAD_DIR = ".uploads";
+
+    private final Path root;
+    private final Path uploadDir;
+    private final String publicBaseUrl;
+
+    public LocalMediaStore(@Value("${app.storage.local.root:./data/media}") String root,
+                           @Value("${app.storage.local.public-url:http://localhost:8080/media}") String publicBaseUrl) {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.uploadDir = this.root.resolve(UPLOAD_DIR);
+        this.publicBaseUrl = publicBaseUrl.endsWith("/")
+                ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1)
+                : publicBaseUrl;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(uploadDir);
+
+        // Uploads interrupted by a crash or restart are never completed
+        try (Stream<Path> leftovers = Files.list(uploadDir)) {
+            leftovers.forEach(this::deleteQuietly);
+        }
+        log.info("Storing media on local disk under {}", root);
+    }
+
+    @Override
+    public MediaUpload beginUpload(String contentType) {
+        try {
+            return new LocalUpload(newTempFile());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] data, String contentType) {
+        try {
+            Path temp = newTempFile();
+            Files.write(temp, data);
+            moveIntoPlace(temp, key);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store " + key, e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(String key, byte[] data, String contentType) {
+        return run(() -> put(key, data, contentType));
+    }
+
+    @Override
+    public CompletableFuture<Void> putFileAsync(String key, Path file, String contentType) {
+        return run(() -> copyIntoPlace(file, key));
+    }
+
+    @Override
+    public long size(String key) {
+        try {
+            return Files.size(resolve(key));
+        } catch (NoSuchFileException e) {
+            return -1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> sizeAsync(String key) {
+        try {
+            return CompletableFuture.completedFuture(size(key));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) {
+        try {
+            return Files.newInputStream(resolve(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + key, e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> downloadToFile(String key, Path target) {
+        try {
+            Files.copy(resolve(key), target, StandardCopyOption.REPLACE_EXISTING);
+            return CompletableFuture.completedFuture(Files.size(target));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        log.info("Deleting from local media store: {}", key);
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete " + key, e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key) {
+        return run(() -> delete(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> copyAsync(String sourceKey, String targetKey) {
+        return run(() -> copyIntoPlace(resolve(sourceKey), targetKey));
+    }
+
+    @Override
+    public List<String> deleteAll(List<String> keys) {
+        List<String> failed = new ArrayList<>();
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(resolve(key));
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Could not delete {}: {}", key, e.getMessage());
+                failed.add(key);
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public void list(String prefix, Consumer<List<ObjectSummary>> pages) {
+        // Walk the directory the prefix names and filter on the full key, as S3 would
+        int slash = prefix.lastIndexOf('/');
+        Path start = slash < 0 ? root : root.resolve(prefix.substring(0, slash));
+        if (!Files.isDirectory(start)) {
+            return;
+        }
+
+        List<ObjectSummary> page = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(start)) {
+            Iterator<Path> iterator = files.filter(Files::isRegularFile).iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                String key = root.relativize(file).toString().replace(File.separatorChar, '/');
+                if (!key.startsWith(prefix) || key.startsWith(UPLOAD_DIR)) {
+                    continue;
+                }
+
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                page.add(new ObjectSummary(key, attributes.size(), attributes.lastModifiedTime().toInstant()));
+                if (page.size() == MAX_BATCH_DELETE) {
+                    pages.accept(page);
+                    page = new ArrayList<>();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list " + prefix, e);
+        }
+        if (!page.isEmpty()) {
+            pages.accept(page);
+        }
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        return publicBaseUrl + "/" + key;
+    }
+
+    @Override
+    public Path localFile(String key) {
+        Path file = resolve(key);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Map a key to its file, rejecting keys that would escape the root or reach hidden files
+     */
+    private Path resolve(String key) {
+        Path file = root.resolve(key).normalize();
+        if (!file.startsWith(root) || file.equals(root)) {
+            throw new IllegalArgumentException("Invalid media key: " + key);
+        }
+        for (Path element : root.relativize(file)) {
+            if (element.toString().startsWith(".")) {
+                throw new IllegalArgumentException("Invalid media key: " + key);
+            }
+        }
+        return file;
+    }
+
+    private Path newTempFile() throws IOException {
+        return Files.createFile(uploadDir.resolve(UUID.randomUUID() + ".tmp"));
+    }
+
+    private void copyIntoPlace(Path source, String key) {
+        try {
+            Path temp = newTempFile();
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            moveIntoPlace(temp, key);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store " + key, e);
+        }
+    }
+
+    private void moveIntoPlace(Path temp, String key) throws IOException {
+        Path target = resolve(key);
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private CompletableFuture<Void> run(Runnable operation) {
+        try {
+            operation.run();
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes to a temporary file that is renamed to its key on completion
+     */
+    private class LocalUpload extends MediaUpload {
+
+        private final Path temp;
+        private final OutputStream out;
+        private boolean closed;
+
+        LocalUpload(Path temp) throws IOException {
+            this.temp = temp;
+            this.out = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024);
+        }
+
+        @Override
+        protected void append(byte[] data, int offset, int length) throws IOException {
+            if (closed) {
+                throw new IOException("Upload already closed: " + temp);
+            }
+            out.write(data, offset, length);
+        }
+
+        @Override
+        public void complete(String key) throws IOException {
+            if (closed) {
+                throw new IOException("Upload already closed: " + temp);
+            }
+            closed = true;
+            try {
+                out.close();
+                moveIntoPlace(temp, key);
+            } finally {
+                deleteQuietly(temp);
+            }
+        }
+
+        @Override
+        public void abort() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.debug("Could not close aborted upload {}: {}", temp, e.getMessage());
+            }
+            deleteQuietly(temp);
+        }
+    }
+}
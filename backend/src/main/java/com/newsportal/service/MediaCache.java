@@ -0,0 +1,486 @@
+package com.newsportal.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache of media objects on local disk, bounded by total size with LRU eviction.
+ * <p>
+ * Each cached object is a file named after the hash of its key. Entry metadata (last access,
+ * size, key hash) lives in a fixed array of slots in a memory-mapped index file, so recording a hit
+ * is a single store into the mapping and the cache survives restarts without rescanning S3.
+ * <p>
+ * Concurrent misses for the same key share one fill. Fills download into a temporary file and
+ * rename it into place, so readers never see a partial object. When the cache grows past its
+ * size limit the least recently used entries are deleted until it is back under the low
+ * watermark. With the local-disk media store objects are already on disk and are returned as is.
+ * <p>
+ * Readers get an open channel rather than a path: it is opened under the eviction lock, and an
+ * open file stays readable after eviction unlinks it. Evicted files are unlinked only after
+ * {@code unlink-delay}, so a path handed out with a file (to Tomcat's sendfile, which reopens it
+ * by name) stays valid for that long. Keys found missing in the store are remembered for
+ * {@code miss-ttl}, so requests for unknown keys do not each cost a store lookup.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MediaCache {
+
+    private static final String INDEX_FILE = "index";
+    private static final String FILL_DIR = ".fill";
+    private static final String ENTRY_SUFFIX = ".bin";
+    // Slot layout: [long last access millis, 0 = free][long size][16-byte key hash]
+    private static final int SLOT_SIZE = 32;
+    private static final int SIZE_OFFSET = 8;
+    private static final int HASH_OFFSET = 16;
+    private static final double LOW_WATERMARK = 0.9;
+    private static final int MAX_MISSES = 10000;
+    private static final int MAX_OPEN_ATTEMPTS = 3;
+
+    private final MediaStore mediaStore;
+
+    @Value("${app.media.cache.dir:./data/media-cache}")
+    private String directory;
+
+    @Value("${app.media.cache.max-size:2GB}")
+    private DataSize maxSize;
+
+    @Value("${app.media.cache.max-entries:65536}")
+    private int maxEntries;
+
+    @Value("${app.media.cache.fetch-timeout:60s}")
+    private Duration fetchTimeout;
+
+    @Value("${app.media.cache.miss-ttl:10s}")
+    private Duration missTtl;
+
+    @Value("${app.media.cache.unlink-delay:30s}")
+    private Duration unlinkDelay;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Path>> fills = new ConcurrentHashMap<>();
+    // Entry name -> time until which the key is known to be missing from the store
+    private final Map<String, Long> misses = new ConcurrentHashMap<>();
+    // Entry name -> eviction time of files waiting out the unlink delay
+    private final Map<String, Long> evicted = new ConcurrentHashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final AtomicLong totalSize = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    private Path root;
+    private Path fillDir;
+    private FileChannel indexChannel;
+    private MappedByteBuffer index;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Path.of(directory).toAbsolutePath().normalize();
+        fillDir = root.resolve(FILL_DIR);
+        Files.createDirectories(fillDir);
+
+        try (Stream<Path> leftovers = Files.list(fillDir)) {
+            leftovers.forEach(this::deleteQuietly);
+        }
+
+        indexChannel = FileChannel.open(root.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) maxEntries * SLOT_SIZE);
+
+        recover();
+        evictIfNeeded();
+        log.info("Media cache at {}: {} entries, {} bytes", root, entries.size(), totalSize.get());
+    }
+
+    /**
+     * Open an object for reading, downloading it on a miss; null if the object does not exist.
+     * The caller must close the returned file.
+     */
+    public CachedFile openFile(String key) throws IOException {
+        Path local = mediaStore.localFile(key);
+        if (local != null) {
+            return CachedFile.open(local, true);
+        }
+
+        String name = entryName(key);
+        for (int attempt = 0; attempt < MAX_OPEN_ATTEMPTS; attempt++) {
+            Path file = await(key, fetch(key));
+            if (file == null) {
+                return null;
+            }
+            synchronized (evictionLock) {
+                if (entries.containsKey(name)) {
+                    return CachedFile.open(file, false);
+                }
+            }
+            // Evicted between the fill and the open: fetch it again
+        }
+        throw new IOException("Media object " + key + " was evicted before it could be read");
+    }
+
+    /**
+     * Open a cached object for reading; the caller must close the stream
+     */
+    public InputStream open(String key) throws IOException {
+        CachedFile file = openFile(key);
+        if (file == null) {
+            throw new IOException("Media object not found: " + key);
+        }
+        return Channels.newInputStream(file.getChannel());
+    }
+
+    /**
+     * Local file holding the object once available; completes with null if it does not exist
+     */
+    public CompletableFuture<Path> fetch(String key) {
+        Path local = mediaStore.localFile(key);
+        if (local != null) {
+            return CompletableFuture.completedFuture(local);
+        }
+
+        String name = entryName(key);
+        Entry entry = entries.get(name);
+        if (entry != null) {
+            touch(entry);
+            return CompletableFuture.completedFuture(root.resolve(name));
+        }
+        Long missingUntil = misses.get(name);
+        if (missingUntil != null) {
+            if (missingUntil > System.currentTimeMillis()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            misses.remove(name, missingUntil);
+        }
+
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> running = fills.putIfAbsent(name, created);
+        if (running != null) {
+            return running;
+        }
+        // A fill that finished between the lookup above and the claim has already added the entry
+        entry = entries.get(name);
+        if (entry != null) {
+            fills.remove(name, created);
+            touch(entry);
+            created.complete(root.resolve(name));
+            return created;
+        }
+
+        fill(key, name).whenComplete((path, error) -> {
+            fills.remove(name);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(path);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Drop a cached object, e.g. after it was deleted from the store
+     */
+    public void evict(String key) {
+        String name = entryName(key);
+        misses.remove(name);
+        remove(entries.get(name));
+    }
+
+    @Scheduled(fixedDelayString = "${app.media.cache.flush-interval-ms:10000}")
+    public void flush() {
+        index.force();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        index.force();
+        indexChannel.close();
+    }
+
+    public long getTotalSize() {
+        return totalSize.get();
+    }
+
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    private CompletableFuture<Path> fill(String key, String name) {
+        Path temp = fillDir.resolve(UUID.randomUUID() + ENTRY_SUFFIX);
+
+        return mediaStore.sizeAsync(key).thenCompose(size -> {
+            if (size < 0) {
+                rememberMiss(name);
+                return CompletableFuture.completedFuture(null);
+            }
+            return mediaStore.downloadToFile(key, temp).thenApply(downloaded -> {
+                try {
+                    Path target = root.resolve(name);
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    add(name, downloaded);
+                    log.debug("Cached {} ({} bytes)", key, downloaded);
+                    return target;
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to cache " + key, e);
+                }
+            });
+        }).whenComplete((path, error) -> {
+            if (error != null) {
+                deleteQuietly(temp);
+            }
+        });
+    }
+
+    private void add(String name, long size) {
+        Entry entry;
+        synchronized (evictionLock) {
+            Entry replaced = entries.remove(name);
+            if (replaced != null) {
+                // Same key filled twice: the new file already took its place, only free the slot
+                index.putLong(replaced.slot * SLOT_SIZE, 0);
+                freeSlots.push(replaced.slot);
+                totalSize.addAndGet(-replaced.size);
+            }
+            misses.remove(name);
+
+            Integer slot = freeSlots.poll();
+            if (slot == null) {
+                // Index full: make room by dropping the least recently used entry
+                entries.values().stream().min(Comparator.comparingLong(this::lastAccess)).ifPresent(this::removeLocked);
+                slot = freeSlots.poll();
+            }
+
+            entry = new Entry(name, slot, size);
+            int position = slot * SLOT_SIZE;
+            index.putLong(position + SIZE_OFFSET, size);
+            index.put(position + HASH_OFFSET, HexFormat.of().parseHex(name));
+            // Access time last: a slot counts as used once it is non-zero
+            index.putLong(position, System.currentTimeMillis());
+
+            entries.put(name, entry);
+            totalSize.addAndGet(size);
+        }
+        evictIfNeeded();
+    }
+
+    private Path await(String key, CompletableFuture<Path> fetched) {
+        try {
+            return fetched.get(fetchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching " + key, e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch " + key + " into the media cache", e);
+        }
+    }
+
+    private void rememberMiss(String name) {
+        if (misses.size() >= MAX_MISSES) {
+            long now = System.currentTimeMillis();
+            misses.values().removeIf(until -> until <= now);
+            if (misses.size() >= MAX_MISSES) {
+                misses.clear();
+            }
+        }
+        misses.put(name, System.currentTimeMillis() + missTtl.toMillis());
+    }
+
+    private void touch(Entry entry) {
+        index.putLong(entry.slot * SLOT_SIZE, System.currentTimeMillis());
+    }
+
+    private long lastAccess(Entry entry) {
+        return index.getLong(entry.slot * SLOT_SIZE);
+    }
+
+    private void evictIfNeeded() {
+        long limit = maxSize.toBytes();
+        if (totalSize.get() <= limit) {
+            return;
+        }
+
+        synchronized (evictionLock) {
+            long target = (long) (limit * LOW_WATERMARK);
+            List<Entry> candidates = new ArrayList<>(entries.values());
+            candidates.sort(Comparator.comparingLong(this::lastAccess));
+
+            int evicted = 0;
+            for (Entry entry : candidates) {
+                if (totalSize.get() <= target) {
+                    break;
+                }
+                removeLocked(entry);
+                evicted++;
+            }
+            log.info("Evicted {} media cache entries, {} bytes remain", evicted, totalSize.get());
+        }
+    }
+
+    private void remove(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        synchronized (evictionLock) {
+            removeLocked(entry);
+        }
+    }
+
+    private void removeLocked(Entry entry) {
+        if (!entries.remove(entry.name, entry)) {
+            return;
+        }
+        index.putLong(entry.slot * SLOT_SIZE, 0);
+        freeSlots.push(entry.slot);
+        totalSize.addAndGet(-entry.size);
+        // Readers that already opened the file keep reading it after the unlink
+        evicted.put(entry.name, System.currentTimeMillis());
+    }
+
+    /**
+     * Unlink evicted files whose delay has passed, unless the key was cached again meanwhile
+     */
+    @Scheduled(fixedDelay = 10000)
+    public void unlinkEvicted() {
+        long cutoff = System.currentTimeMillis() - unlinkDelay.toMillis();
+        synchronized (evictionLock) {
+            evicted.entrySet().removeIf(pending -> {
+                if (pending.getValue() > cutoff) {
+                    return false;
+                }
+                if (!entries.containsKey(pending.getKey())) {
+                    deleteQuietly(root.resolve(pending.getKey()));
+                }
+                return true;
+            });
+        }
+    }
+
+    /**
+     * Rebuild the entry table from the index, dropping slots whose file is gone or has the wrong
+     * size and files no slot refers to
+     */
+    private void recover() throws IOException {
+        Set<String> indexed = new HashSet<>();
+        byte[] hash = new byte[16];
+
+        for (int slot = maxEntries - 1; slot >= 0; slot--) {
+            int position = slot * SLOT_SIZE;
+            if (index.getLong(position) == 0) {
+                freeSlots.push(slot);
+                continue;
+            }
+
+            index.get(position + HASH_OFFSET, hash);
+            String name = HexFormat.of().formatHex(hash);
+            long size = index.getLong(position + SIZE_OFFSET);
+            Path file = root.resolve(name);
+
+            if (!Files.isRegularFile(file) || Files.size(file) != size || !indexed.add(name)) {
+                index.putLong(position, 0);
+                freeSlots.push(slot);
+                continue;
+            }
+
+            entries.put(name, new Entry(name, slot, size));
+            totalSize.addAndGet(size);
+        }
+
+        try (Stream<Path> files = Files.list(root)) {
+            files.filter(file -> !indexed.contains(file.getFileName().toString()))
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().equals(INDEX_FILE))
+                    .forEach(this::deleteQuietly);
+        }
+    }
+
+    /**
+     * 128-bit hash of the key in hex, used as the cache file name
+     */
+    private String entryName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * An object opened for reading. {@code storeFile} is set when the file belongs to the media
+     * store rather than the cache; a cached file's path stays valid for {@code unlink-delay}.
+     */
+    @lombok.Getter
+    @RequiredArgsConstructor
+    public static class CachedFile implements Closeable {
+        private final Path path;
+        private final FileChannel channel;
+        private final long size;
+        private final long lastModified;
+        private final boolean storeFile;
+
+        static CachedFile open(Path path, boolean storeFile) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                return new CachedFile(path, channel, channel.size(), Files.getLastModifiedTime(path).toMillis(), storeFile);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final String name;
+        private final int slot;
+        private final long size;
+    }
+}
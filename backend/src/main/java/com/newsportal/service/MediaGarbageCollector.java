@@ -0,0 +1,369 @@
+package com.newsportal.service;
+
+import com.newsportal.model.MediaBlob;
+import com.newsportal.repository.MediaAssetRepository;
+import com.newsportal.repository.MediaBlobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Deletes stored objects that no media asset references any more.
+ * <p>
+ * Removing media assets queues their objects in the database: content-addressed blobs drop to
+ * {@code ref_count = 0} and legacy keys land in {@code media_delete_queue}. Those queues are
+ * drained often. A slower reconciliation lists the store and deletes whatever is older than the
+ * grace period and unknown to both {@code media_assets} and {@code media_blobs}, which catches
+ * objects orphaned before the queues existed and uploads that never made it into an asset.
+ * Deletes are sent in batches of up to 1000 keys and paced to {@code max-deletes-per-second}.
+ * <p>
+ * Blob rows are claimed and their objects deleted in one transaction per batch. An upload of the
+ * same content meanwhile blocks on the claimed row until the objects are gone, then finds neither
+ * row nor object and uploads again, instead of registering a key that is about to disappear.
+ * Reconciliation batches are checked against both tables again right before they are deleted.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MediaGarbageCollector {
+
+    private static final String LOCK_KEY = "media-gc:lock";
+    private static final int SAMPLE_SIZE = 100;
+
+    private final MediaStore mediaStore;
+    private final StorageService storageService;
+    private final MediaAssetRepository mediaAssetRepository;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    // Runs off the shared scheduler thread, which other periodic tasks depend on
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "media-gc");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private TransactionTemplate claimTransaction;
+
+    @Value("${app.media.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.media.gc.grace-period:24h}")
+    private Duration gracePeriod;
+
+    @Value("${app.media.gc.prefixes:news/,media/,staging/}")
+    private List<String> prefixes;
+
+    @Value("${app.media.gc.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.media.gc.max-deletes-per-second:500}")
+    private int maxDeletesPerSecond;
+
+    @Value("${app.media.gc.lock-ttl:1h}")
+    private Duration lockTtl;
+
+    @PostConstruct
+    public void init() {
+        claimTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.media.gc.queue-interval-ms:900000}", initialDelay = 60000)
+    public void scheduledDrain() {
+        if (enabled) {
+            executor.execute(() -> logReport(runExclusive(() -> drainQueues(false))));
+        }
+    }
+
+    @Scheduled(cron = "${app.media.gc.reconcile-cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        if (enabled) {
+            executor.execute(() -> logReport(runExclusive(() -> collect(false))));
+        }
+    }
+
+    /**
+     * Drain the delete queues and reconcile the store against the database. With dryRun
+     * nothing is deleted and the report lists what would be.
+     */
+    public Report run(boolean dryRun) {
+        Report report = runExclusive(() -> collect(dryRun));
+        logReport(report);
+        return report;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Report collect(boolean dryRun) {
+        Pass pass = new Pass(dryRun);
+        drainQueues(pass);
+        reconcile(pass);
+        return pass.finish();
+    }
+
+    private Report drainQueues(boolean dryRun) {
+        Pass pass = new Pass(dryRun);
+        drainQueues(pass);
+        return pass.finish();
+    }
+
+    /**
+     * Delete the objects of blobs and legacy keys queued by media asset removal
+     */
+    private void drainQueues(Pass pass) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(gracePeriod);
+
+        if (pass.dryRun) {
+            List<MediaBlob> blobs = mediaBlobRepository.findUnreferenced(cutoff);
+            pass.report.queuedObjects += blobs.size();
+            pass.delete(blobs.stream().map(MediaBlob::getS3Key).toList(),
+                    blobs.stream().mapToLong(blob -> blob.getFileSize() != null ? blob.getFileSize() : 0).sum());
+
+            List<String> queued = mediaAssetRepository.findQueuedDeletes();
+            pass.report.queuedObjects += queued.size();
+            pass.delete(unreferenced(queued), 0);
+            return;
+        }
+
+        boolean claimed;
+        do {
+            claimed = Boolean.TRUE.equals(claimTransaction.execute(status -> deleteClaimedBlobs(pass, cutoff)));
+        } while (claimed);
+
+        List<String> queued;
+        while (!(queued = mediaAssetRepository.claimQueuedDeletes(batchSize)).isEmpty()) {
+            pass.report.queuedObjects += queued.size();
+            pass.delete(unreferenced(queued), 0);
+        }
+    }
+
+    /**
+     * Claim one batch of unreferenced blobs and delete their objects; the claimed rows stay
+     * locked until the surrounding transaction commits. Returns false once nothing is left.
+     */
+    private boolean deleteClaimedBlobs(Pass pass, LocalDateTime cutoff) {
+        List<Object[]> blobs = mediaBlobRepository.claimUnreferenced(cutoff, batchSize);
+        if (blobs.isEmpty()) {
+            return false;
+        }
+        pass.report.queuedObjects += blobs.size();
+        pass.delete(blobs.stream().map(row -> (String) row[0]).toList(),
+                blobs.stream().mapToLong(row -> row[1] != null ? ((Number) row[1]).longValue() : 0).sum());
+        return true;
+    }
+
+    /**
+     * Delete listed objects past the grace period that neither table knows about
+     */
+    private void reconcile(Pass pass) {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+
+        for (String prefix : prefixes) {
+            mediaStore.list(prefix, page -> {
+                pass.report.scannedObjects += page.size();
+
+                List<MediaStore.ObjectSummary> candidates = page.stream()
+                        .filter(object -> object.getLastModified().isBefore(cutoff))
+                        .filter(object -> !pass.counted.contains(object.getKey()))
+                        .toList();
+                if (candidates.isEmpty()) {
+                    return;
+                }
+
+                List<String> keys = candidates.stream().map(MediaStore.ObjectSummary::getKey).toList();
+                Set<String> referenced = new HashSet<>(mediaAssetRepository.findKeysIn(keys));
+                referenced.addAll(mediaBlobRepository.findKeysIn(keys));
+
+                List<String> orphans = new ArrayList<>();
+                long bytes = 0;
+                for (MediaStore.ObjectSummary object : candidates) {
+                    if (!referenced.contains(object.getKey())) {
+                        orphans.add(object.getKey());
+                        bytes += object.getSize();
+                    }
+                }
+                if (!pass.dryRun && !orphans.isEmpty()) {
+                    // An upload may have registered one of them while the page was checked
+                    Set<String> registered = new HashSet<>(mediaBlobRepository.findKeysIn(orphans));
+                    registered.addAll(mediaAssetRepository.findKeysIn(orphans));
+                    if (!registered.isEmpty()) {
+                        orphans.removeAll(registered);
+                    }
+                }
+                pass.delete(orphans, bytes);
+            });
+        }
+    }
+
+    /**
+     * Queued legacy keys may still be shared by another media asset
+     */
+    private List<String> unreferenced(List<String> keys) {
+        if (keys.isEmpty()) {
+            return keys;
+        }
+        Set<String> referenced = mediaAssetRepository.findKeysIn(keys);
+        return keys.stream().filter(key -> !referenced.contains(key)).toList();
+    }
+
+    /**
+     * One collection at a time across the cluster; a node that cannot reach Redis still
+     * excludes concurrent runs of its own
+     */
+    private Report runExclusive(Supplier<Report> collection) {
+        if (!running.compareAndSet(false, true)) {
+            return Report.skipped();
+        }
+        String owner = UUID.randomUUID().toString();
+        boolean locked = false;
+        try {
+            try {
+                if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, owner, lockTtl))) {
+                    return Report.skipped();
+                }
+                locked = true;
+            } catch (RuntimeException e) {
+                log.warn("Redis unavailable for media GC lock, running without it: {}", e.getMessage());
+            }
+            return collection.get();
+        } finally {
+            if (locked) {
+                releaseLock(owner);
+            }
+            running.set(false);
+        }
+    }
+
+    private void releaseLock(String owner) {
+        try {
+            if (owner.equals(redisTemplate.opsForValue().get(LOCK_KEY))) {
+                redisTemplate.delete(LOCK_KEY);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not release media GC lock: {}", e.getMessage());
+        }
+    }
+
+    private void logReport(Report report) {
+        if (report.isSkipped()) {
+            log.info("Media GC already running elsewhere, skipped");
+        } else if (report.getOrphanedObjects() > 0 || report.getFailedDeletes() > 0) {
+            log.info("Media GC{}: {} scanned, {} queued, {} orphaned, {} deleted, {} failed, {} bytes in {} ms",
+                    report.isDryRun() ? " (dry run)" : "", report.getScannedObjects(), report.getQueuedObjects(),
+                    report.getOrphanedObjects(), report.getDeletedObjects(), report.getFailedDeletes(),
+                    report.getReclaimedBytes(), report.getDurationMs());
+        }
+    }
+
+    /**
+     * State of one collection: the report, delete pacing and, for dry runs, the keys already
+     * counted so the reconciliation does not count queued objects a second time
+     */
+    private class Pass {
+
+        private final boolean dryRun;
+        private final Report report = new Report();
+        private final Set<String> counted = new HashSet<>();
+        private final long startedAt = System.currentTimeMillis();
+        private long nextDeleteAt = System.nanoTime();
+
+        Pass(boolean dryRun) {
+            this.dryRun = dryRun;
+            report.setDryRun(dryRun);
+        }
+
+        void delete(List<String> keys, long bytes) {
+            report.orphanedObjects += keys.size();
+            report.reclaimedBytes += bytes;
+            for (int i = 0; i < keys.size() && report.sampleKeys.size() < SAMPLE_SIZE; i++) {
+                report.sampleKeys.add(keys.get(i));
+            }
+            if (dryRun) {
+                counted.addAll(keys);
+                return;
+            }
+
+            int limit = Math.min(batchSize, MediaStore.MAX_BATCH_DELETE);
+            for (int from = 0; from < keys.size(); from += limit) {
+                List<String> batch = keys.subList(from, Math.min(keys.size(), from + limit));
+                pace(batch.size());
+                try {
+                    List<String> failed = storageService.deleteAll(batch);
+                    report.deletedObjects += batch.size() - failed.size();
+                    report.failedDeletes += failed.size();
+                } catch (RuntimeException e) {
+                    // Claimed keys that fail here are picked up again by the next reconciliation
+                    log.warn("Batch delete of {} media objects failed: {}", batch.size(), e.getMessage());
+                    report.failedDeletes += batch.size();
+                }
+            }
+        }
+
+        Report finish() {
+            report.setDurationMs(System.currentTimeMillis() - startedAt);
+            return report;
+        }
+
+        private void pace(int deletes) {
+            long wait = nextDeleteAt - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Media GC interrupted", e);
+                }
+            }
+            nextDeleteAt = Math.max(nextDeleteAt, System.nanoTime())
+                    + TimeUnit.SECONDS.toNanos(deletes) / Math.max(1, maxDeletesPerSecond);
+        }
+    }
+
+    @lombok.Data
+    public static class Report {
+        private boolean dryRun;
+        private boolean skipped;
+        private long scannedObjects;
+        /** Objects queued by media asset removal */
+        private long queuedObjects;
+        /** Objects found unreferenced, deleted unless this is a dry run */
+        private long orphanedObjects;
+        private long deletedObjects;
+        private long failedDeletes;
+        /** Size of the orphaned objects where known */
+        private long reclaimedBytes;
+        private List<String> sampleKeys = new ArrayList<>();
+        private long durationMs;
+
+        static Report skipped() {
+            Report report = new Report();
+            report.setSkipped(true);
+            return report;
+        }
+    }
+}
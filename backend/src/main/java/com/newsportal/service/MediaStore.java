@@ -0,0 +1,78 @@
+package com.newsportal.service;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Object storage backend for media, selected with {@code app.storage.backend}.
+ * Keys are slash-separated paths such as {@code media/sha256/ab/<hash>.jpg}.
+ */
+public interface MediaStore {
+
+    int MAX_BATCH_DELETE = 1000;
+
+    /**
+     * Start a streaming upload; the key is chosen when it is completed
+     */
+    MediaUpload beginUpload(String contentType);
+
+    void put(String key, byte[] data, String contentType);
+
+    CompletableFuture<Void> putAsync(String key, byte[] data, String contentType);
+
+    CompletableFuture<Void> putFileAsync(String key, Path file, String contentType);
+
+    /**
+     * Size of an object in bytes, or -1 if it does not exist
+     */
+    long size(String key);
+
+    CompletableFuture<Long> sizeAsync(String key);
+
+    /**
+     * Open an object for reading; the caller must close the stream
+     */
+    InputStream open(String key);
+
+    /**
+     * Copy an object into a local file, returning its size
+     */
+    CompletableFuture<Long> downloadToFile(String key, Path target);
+
+    void delete(String key);
+
+    CompletableFuture<Void> deleteAsync(String key);
+
+    CompletableFuture<Void> copyAsync(String sourceKey, String targetKey);
+
+    /**
+     * Delete up to {@link #MAX_BATCH_DELETE} objects at once, returning the keys that could not be deleted
+     */
+    List<String> deleteAll(List<String> keys);
+
+    /**
+     * List the objects under a key prefix, one page at a time
+     */
+    void list(String prefix, Consumer<List<ObjectSummary>> pages);
+
+    /**
+     * URL clients use to fetch an object
+     */
+    String publicUrl(String key);
+
+    /**
+     * File holding the object when the backend keeps it on local disk, or null
+     */
+    Path localFile(String key);
+
+    @lombok.Value
+    class ObjectSummary {
+        String key;
+        long size;
+        Instant lastModified;
+    }
+}
@@ -0,0 +1,77 @@
+package com.newsportal.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Streaming upload into a {@link MediaStore}.
+ * <p>
+ * The SHA-256 and size of the content are computed while writing, so the final key can be
+ * derived from the content before {@link #complete(String)} stores it. Closing an upload that
+ * was not completed aborts it, which makes try-with-resources safe on error paths.
+ * <p>
+ * Not thread-safe: one instance per object.
+ */
+public abstract class MediaUpload extends OutputStream {
+
+    private final MessageDigest digest;
+    private long size;
+    private String contentHash;
+
+    protected MediaUpload() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        append(data, offset, length);
+        digest.update(data, offset, length);
+        size += length;
+    }
+
+    /**
+     * Store everything written under the given key
+     */
+    public abstract void complete(String key) throws IOException;
+
+    /**
+     * Abandon the upload and discard anything already stored
+     */
+    public abstract void abort();
+
+    /**
+     * Abort unless already completed
+     */
+    @Override
+    public void close() {
+        abort();
+    }
+
+    /**
+     * Hex SHA-256 of everything written; call once writing is finished
+     */
+    public String getContentHash() {
+        if (contentHash == null) {
+            contentHash = HexFormat.of().formatHex(digest.digest());
+        }
+        return contentHash;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    protected abstract void append(byte[] data, int offset, int length) throws IOException;
+}
@@ -0,0 +1,168 @@
+package com.newsportal.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Default classifier: multinomial Naive Bayes over the words of a bundled seed corpus, with a
+ * few rules for what a small corpus cannot learn (links, shouting, blocked terms). Runs in
+ * process, so moderation keeps working without network access.
+ * <p>
+ * The model is kept as one log-likelihood ratio per known word; scoring a comment is a sum
+ * over its distinct words, turned into a probability with the logistic function.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.moderation.classifier", havingValue = "naive-bayes", matchIfMissing = true)
+public class NaiveBayesCommentClassifier implements CommentClassifier {
+
+    private static final Pattern LINK = Pattern.compile("(?i)\\b(?:https?://|www\\.)\\S+");
+    private static final Pattern REPEATED_CHARACTER = Pattern.compile("(\\S)\\1{5,}");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    // Rule evidence, in log-odds
+    private static final double LINK_WEIGHT = 1.5;
+    private static final int MAX_LINKS_COUNTED = 3;
+    private static final double SHOUTING_WEIGHT = 1.0;
+    private static final double REPETITION_WEIGHT = 1.0;
+    private static final double BLOCKED_TERM_WEIGHT = 4.0;
+
+    private final Map<String, Double> wordWeights = new HashMap<>();
+    private final Set<String> blockedTerms = new HashSet<>();
+    private final double prior;
+
+    public NaiveBayesCommentClassifier(@Value("${app.moderation.training-data:classpath:moderation/training.tsv}") Resource trainingData,
+                                       @Value("${app.moderation.blocked-terms:}") List<String> blockedTerms) {
+        Map<String, Integer> spamCounts = new HashMap<>();
+        Map<String, Integer> hamCounts = new HashMap<>();
+        int spamDocs = 0;
+        int hamDocs = 0;
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(trainingData.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (line.startsWith("#") || tab < 0) {
+                    continue;
+                }
+                boolean spam = line.substring(0, tab).equals("spam");
+                Map<String, Integer> counts = spam ? spamCounts : hamCounts;
+                for (String word : words(line.substring(tab + 1))) {
+                    counts.merge(word, 1, Integer::sum);
+                }
+                if (spam) {
+                    spamDocs++;
+                } else {
+                    hamDocs++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read moderation training data", e);
+        }
+
+        // Laplace smoothing over the shared vocabulary
+        Set<String> vocabulary = new HashSet<>(spamCounts.keySet());
+        vocabulary.addAll(hamCounts.keySet());
+        double spamTotal = spamCounts.values().stream().mapToInt(Integer::intValue).sum() + vocabulary.size();
+        double hamTotal = hamCounts.values().stream().mapToInt(Integer::intValue).sum() + vocabulary.size();
+        for (String word : vocabulary) {
+            double spamLikelihood = (spamCounts.getOrDefault(word, 0) + 1) / spamTotal;
+            double hamLikelihood = (hamCounts.getOrDefault(word, 0) + 1) / hamTotal;
+            wordWeights.put(word, Math.log(spamLikelihood / hamLikelihood));
+        }
+        this.prior = Math.log((spamDocs + 1.0) / (hamDocs + 1.0));
+
+        for (String term : blockedTerms) {
+            if (!term.isBlank()) {
+                this.blockedTerms.add(normalise(term).trim());
+            }
+        }
+        log.info("Comment classifier trained on {} spam and {} ham examples, {} words",
+                spamDocs, hamDocs, vocabulary.size());
+    }
+
+    @Override
+    public double[] score(List<String> contents) {
+        double[] scores = new double[contents.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = score(contents.get(i));
+        }
+        return scores;
+    }
+
+    private double score(String content) {
+        double logOdds = prior;
+
+        Matcher links = LINK.matcher(content);
+        int linkCount = 0;
+        while (links.find() && linkCount < MAX_LINKS_COUNTED) {
+            linkCount++;
+        }
+        logOdds += linkCount * LINK_WEIGHT;
+
+        String text = LINK.matcher(content).replaceAll(" ");
+        long letters = text.codePoints().filter(Character::isLetter).count();
+        long upper = text.codePoints().filter(Character::isUpperCase).count();
+        if (letters >= 12 && upper > letters * 0.7) {
+            logOdds += SHOUTING_WEIGHT;
+        }
+        if (REPEATED_CHARACTER.matcher(text).find()) {
+            logOdds += REPETITION_WEIGHT;
+        }
+
+        Set<String> words = words(text);
+        for (String word : words) {
+            logOdds += wordWeights.getOrDefault(word, 0.0);
+        }
+        if (!blockedTerms.isEmpty()) {
+            String normalised = " " + String.join(" ", normalise(text).trim().split("\\s+")) + " ";
+            for (String term : blockedTerms) {
+                if (normalised.contains(" " + term + " ")) {
+                    logOdds += BLOCKED_TERM_WEIGHT;
+                }
+            }
+        }
+        return 1 / (1 + Math.exp(-logOdds));
+    }
+
+    /**
+     * Distinct words, so repeating one does not outweigh the rest of the comment
+     */
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        for (String word : normalise(text).split(" ")) {
+            if (word.length() > 1) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Lower case without accents, with anything but letters and digits turned into spaces
+     */
+    private static String normalise(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return NON_WORD.matcher(MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+}
@@ -1,32 +1,64 @@
 package com.newsportal.service;
 
+import com.newsportal.dto.ArticleEvent;
+import com.newsportal.dto.BulkModerationResponse;
 import com.newsportal.dto.MediaAssetResponse;
 import com.newsportal.dto.NewsRequest;
 import com.newsportal.dto.NewsResponse;
+import com.newsportal.model.MediaAsset;
 import com.newsportal.model.News;
 import com.newsportal.model.User;
 import com.newsportal.repository.CommentRepository;
+import com.newsportal.repository.MediaAssetRepository;
 import com.newsportal.repository.NewsRepository;
 import com.newsportal.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class NewsService {
 
+    private static final String JPEG = "image/jpeg";
+
     private final NewsRepository newsRepository;
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
     private final AuditLogService auditLogService;
+    private final LLMService llmService;
+    private final MediaAssetRepository mediaAssetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactional;
+
+    @PostConstruct
+    public void init() {
+        transactional = new TransactionTemplate(transactionManager);
+    }
 
     @Transactional(readOnly = true)
     public Page<NewsResponse> getAllPublishedNews(Pageable pageable) {
@@ -116,6 +148,11 @@ public class NewsService {
         auditLogService.logContentChange("News", news.getId(), "UPDATE", user,
                 originalContent, news.getBody(), null, null);
 
+        eventPublisher.publishEvent(ArticleEvent.builder()
+                .newsId(news.getId())
+                .type(ArticleEvent.Type.ARTICLE_UPDATED)
+                .build());
+
         return convertToResponse(news);
     }
 
@@ -167,6 +204,132 @@ public class NewsService {
         return convertToResponse(news);
     }
 
+    /**
+     * Publish many articles with one UPDATE and one batched audit insert
+     */
+    @Transactional
+    public BulkModerationResponse publishNews(List<Long> ids) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        return bulkModerated(distinct, newsRepository.publishAll(distinct), user, "PUBLISH", "News published: ");
+    }
+
+    /**
+     * Reject many articles with one UPDATE and one batched audit insert
+     */
+    @Transactional
+    public BulkModerationResponse rejectNews(List<Long> ids) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        return bulkModerated(distinct, newsRepository.rejectAll(distinct), user, "REJECT", "News rejected: ");
+    }
+
+    private BulkModerationResponse bulkModerated(Set<Long> ids, List<NewsRepository.StatusChange> changes,
+                                                 User user, String action, String metadataPrefix) {
+        Map<Long, String> audit = new LinkedHashMap<>();
+        for (NewsRepository.StatusChange change : changes) {
+            audit.put(change.getId(), metadataPrefix + change.getTitle());
+        }
+        auditLogService.logActions("News", action, user, audit);
+
+        return BulkModerationResponse.builder()
+                .requested(ids.size())
+                .updatedIds(new ArrayList<>(audit.keySet()))
+                .build();
+    }
+
+    /**
+     * Attach a generated image as the article's primary image
+     */
+    @Transactional
+    public MediaAsset attachGeneratedImage(Long id, ImageGenerationService.ImageGenerationResult result) {
+        News news = newsRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("News not found with id: " + id));
+
+        news.setPrimaryImageUrl(result.getImageUrl());
+        MediaAsset image = news.getPrimaryImage();
+        image.setS3Key(result.getS3Key());
+        image.setMimeType(result.getMimeType());
+        image.setFileSize(result.getFileSize());
+        image.setContentHash(result.getContentHash());
+        image.setGenerationPrompt(result.getPrompt());
+        image.setAiGenerated(true);
+        image.setAltText(news.getTitle());
+
+        newsRepository.saveAndFlush(news);
+        return image;
+    }
+
+    /**
+     * Replace the article's social cards with freshly rendered ones
+     */
+    @Transactional
+    public List<MediaAsset> replaceSocialCards(Long id, List<MediaAsset> cards) {
+        News news = newsRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("News not found with id: " + id));
+
+        news.getImages().stream()
+                .filter(image -> image.getType() == MediaAsset.MediaType.SOCIAL_CARD)
+                .collect(Collectors.toList())
+                .forEach(news::removeImage);
+        cards.forEach(news::addImage);
+
+        newsRepository.saveAndFlush(news);
+        return cards;
+    }
+
+    /**
+     * Rewrite an article with the LLM, streaming fields as they arrive.
+     * The rewrite is applied to the article once the stream completes.
+     */
+    public Flux<LLMService.RewriteEvent> streamRewrite(Long id) {
+        News news = newsRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("News not found with id: " + id));
+
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return llmService.streamRewriteArticle(news.getBody(), news.getAuthorSource(), news.getUrlSource())
+                .concatMap(event -> event.getType() != LLMService.RewriteEventType.COMPLETE
+                        ? Mono.just(event)
+                        : Mono.fromCallable(() -> {
+                            // A call from inside the bean bypasses the proxy, so open the transaction here
+                            transactional.executeWithoutResult(status -> applyRewrite(id, event.getResult(), user));
+                            return event;
+                        }).subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    /**
+     * Apply a completed rewrite and record it in the audit log, atomically
+     */
+    @Transactional
+    public void applyRewrite(Long id, LLMService.RewriteResult result, User user) {
+        News news = newsRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("News not found with id: " + id));
+
+        String originalContent = news.getBody();
+
+        news.setTitle(result.getTitle());
+        news.setExcerpt(result.getExcerpt());
+        news.setBody(result.getBodyHtml());
+
+        if (result.getTags() != null && !result.getTags().isEmpty()) {
+            news.setTagsFromList(result.getTags());
+        }
+
+        newsRepository.save(news);
+
+        auditLogService.logContentChange("News", id, "REWRITE", user,
+                originalContent, news.getBody(), null, null);
+    }
+
     @Transactional(readOnly = true)
     public Page<NewsResponse> getAutoGeneratedNews(Pageable pageable) {
         return newsRepository.findByAutoGeneratedTrueAndStatus(News.NewsStatus.DRAFT, pageable)
@@ -176,21 +339,17 @@ public class NewsService {
     private NewsResponse convertToResponse(News news) {
         Long commentCount = commentRepository.countByNewsIdAndApprovedTrue(news.getId());
 
+        List<Long> imageIds = news.getImages().stream()
+                .map(MediaAsset::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Map<Long, List<MediaAsset>> renditions = imageIds.isEmpty()
+                ? Map.of()
+                : mediaAssetRepository.findByParentAssetIdIn(imageIds).stream()
+                        .collect(Collectors.groupingBy(MediaAsset::getParentAssetId));
+
         List<MediaAssetResponse> images = news.getImages().stream()
-                .map(media -> MediaAssetResponse.builder()
-                        .id(media.getId())
-                        .url(media.getUrl())
-                        .type(media.getType())
-                        .fileSize(media.getFileSize())
-                        .mimeType(media.getMimeType())
-                        .width(media.getWidth())
-                        .height(media.getHeight())
-                        .altText(media.getAltText())
-                        .generationPrompt(media.getGenerationPrompt())
-                        .aiGenerated(media.getAiGenerated())
-                        .displayOrder(media.getDisplayOrder())
-                        .createdAt(media.getCreatedAt())
-                        .build())
+                .map(media -> convertToResponse(media, renditions.getOrDefault(media.getId(), List.of())))
                 .collect(Collectors.toList());
 
         return NewsResponse.builder()
@@ -213,4 +372,56 @@ public class NewsService {
                 .updatedAt(news.getUpdatedAt())
                 .build();
     }
+
+    private MediaAssetResponse convertToResponse(MediaAsset media, List<MediaAsset> renditions) {
+        Map<String, List<MediaAsset>> byType = renditions.stream()
+                .filter(r -> r.getType() == MediaAsset.MediaType.IMAGE)
+                .collect(Collectors.groupingBy(MediaAsset::getMimeType, TreeMap::new, Collectors.toList()));
+
+        List<MediaAsset> jpeg = new ArrayList<>(byType.getOrDefault(JPEG, List.of()));
+        if (media.getWidth() != null) {
+            jpeg.add(media);
+        }
+
+        List<MediaAssetResponse.Source> sources = byType.entrySet().stream()
+                .filter(entry -> !JPEG.equals(entry.getKey()))
+                .map(entry -> MediaAssetResponse.Source.builder()
+                        .type(entry.getKey())
+                        .srcset(srcset(entry.getValue()))
+                        .build())
+                .collect(Collectors.toList());
+
+        String thumbnailUrl = renditions.stream()
+                .filter(r -> r.getType() == MediaAsset.MediaType.THUMBNAIL && JPEG.equals(r.getMimeType()))
+                .map(MediaAsset::getUrl)
+                .findFirst()
+                .orElse(null);
+
+        return MediaAssetResponse.builder()
+                .id(media.getId())
+                .url(media.getUrl())
+                .type(media.getType())
+                .fileSize(media.getFileSize())
+                .mimeType(media.getMimeType())
+                .width(media.getWidth())
+                .height(media.getHeight())
+                .altText(media.getAltText())
+                .generationPrompt(media.getGenerationPrompt())
+                .aiGenerated(media.getAiGenerated())
+                .displayOrder(media.getDisplayOrder())
+                .createdAt(media.getCreatedAt())
+                .srcset(jpeg.size() > 1 ? srcset(jpeg) : null)
+                .thumbnailUrl(thumbnailUrl)
+                .blurHash(media.getBlurHash())
+                .dominantColor(media.getDominantColor())
+                .sources(sources)
+                .build();
+    }
+
+    private String srcset(List<MediaAsset> candidates) {
+        return candidates.stream()
+                .sorted(Comparator.comparing(MediaAsset::getWidth))
+                .map(candidate -> candidate.getUrl() + " " + candidate.getWidth() + "w")
+                .collect(Collectors.joining(", "));
+    }
 }
@@ -0,0 +1,24 @@
+package com.newsportal.service;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A write rejected by {@link WriteRateLimiter}; answered with 429 Too Many Requests.
+ * The limit is null for rejections that are not counted against a window, such as duplicates.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer limit;
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Integer limit, Duration retryAfter) {
+        super(message);
+        this.limit = limit;
+        this.retryAfter = retryAfter;
+    }
+}
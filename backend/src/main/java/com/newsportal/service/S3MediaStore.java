@@ -0,0 +1,258 @@
+package com.newsportal.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.FileTransformerConfiguration;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Media kept in an S3-compatible bucket
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "s3", matchIfMissing = true)
+public class S3MediaStore implements MediaStore {
+
+    private static final String STAGING_PREFIX = "staging/";
+
+    private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
+    private final UploadBufferPool uploadBufferPool;
+
+    @Value("${app.storage.s3.endpoint:}")
+    private String s3Endpoint;
+
+    @Value("${app.storage.s3.bucket:newsportal-media}")
+    private String bucket;
+
+    // Base URL browsers reach the bucket at, when it differs from the endpoint the backend uses
+    @Value("${app.storage.s3.public-url:}")
+    private String publicBaseUrl;
+
+    @Value("${app.storage.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${app.storage.s3.part-size:8MB}")
+    private DataSize downloadPartSize;
+
+    @Value("${app.storage.s3.download-concurrency:4}")
+    private int downloadConcurrency;
+
+    @Override
+    public MediaUpload beginUpload(String contentType) {
+        return new S3StreamingUpload(s3Client, uploadBufferPool, bucket, STAGING_PREFIX + UUID.randomUUID(), contentType);
+    }
+
+    @Override
+    public void put(String key, byte[] data, String contentType) {
+        log.info("Uploading to S3: {}", key);
+        s3Client.putObject(builder -> builder.bucket(bucket).key(key).contentType(contentType),
+                RequestBody.fromBytes(data));
+    }
+
+    /**
+     * Large objects are sent as parallel multipart uploads
+     */
+    @Override
+    public CompletableFuture<Void> putAsync(String key, byte[] data, String contentType) {
+        log.info("Uploading to S3 (async): {}", key);
+        return s3AsyncClient.putObject(builder -> builder.bucket(bucket).key(key).contentType(contentType),
+                        AsyncRequestBody.fromBytes(data))
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> putFileAsync(String key, Path file, String contentType) {
+        log.info("Uploading file to S3 (async): {}", key);
+        return s3AsyncClient.putObject(builder -> builder.bucket(bucket).key(key).contentType(contentType),
+                        AsyncRequestBody.fromFile(file))
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public long size(String key) {
+        try {
+            return s3Client.headObject(builder -> builder.bucket(bucket).key(key)).contentLength();
+        } catch (NoSuchKeyException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> sizeAsync(String key) {
+        return s3AsyncClient.headObject(builder -> builder.bucket(bucket).key(key))
+                .thenApply(head -> head.contentLength())
+                .exceptionallyCompose(e -> e.getCause() instanceof NoSuchKeyException
+                        ? CompletableFuture.completedFuture(-1L)
+                        : CompletableFuture.failedFuture(e));
+    }
+
+    @Override
+    public InputStream open(String key) {
+        return s3Client.getObject(builder -> builder.bucket(bucket).key(key));
+    }
+
+    /**
+     * Objects larger than one part are fetched as parallel ranged GETs written straight to their
+     * position in the file
+     */
+    @Override
+    public CompletableFuture<Long> downloadToFile(String key, Path target) {
+        long partSize = downloadPartSize.toBytes();
+
+        return s3AsyncClient.headObject(builder -> builder.bucket(bucket).key(key)).thenCompose(head -> {
+            long size = head.contentLength();
+            if (size <= partSize) {
+                return s3AsyncClient.getObject(builder -> builder.bucket(bucket).key(key),
+                                AsyncResponseTransformer.toFile(target, FileTransformerConfiguration.defaultCreateOrReplaceExisting()))
+                        .thenApply(response -> size);
+            }
+
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+
+            // A fixed number of lanes, each fetching every n-th range in turn
+            long parts = (size + partSize - 1) / partSize;
+            int lanes = (int) Math.min(downloadConcurrency, parts);
+            List<CompletableFuture<Void>> laneFutures = new ArrayList<>();
+            for (int lane = 0; lane < lanes; lane++) {
+                CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+                for (long part = lane; part < parts; part += lanes) {
+                    long start = part * partSize;
+                    long end = Math.min(size, start + partSize) - 1;
+                    chain = chain.thenCompose(ignored -> downloadRange(key, channel, start, end));
+                }
+                laneFutures.add(chain);
+            }
+
+            return CompletableFuture.allOf(laneFutures.toArray(CompletableFuture[]::new))
+                    .whenComplete((result, error) -> closeQuietly(channel))
+                    .thenApply(ignored -> size);
+        });
+    }
+
+    @Override
+    public void delete(String key) {
+        log.info("Deleting from S3: {}", key);
+        s3Client.deleteObject(builder -> builder.bucket(bucket).key(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(String key) {
+        log.info("Deleting from S3 (async): {}", key);
+        return s3AsyncClient.deleteObject(builder -> builder.bucket(bucket).key(key))
+                .thenApply(response -> null);
+    }
+
+    /**
+     * Server-side copy; large objects are copied in parallel parts
+     */
+    @Override
+    public CompletableFuture<Void> copyAsync(String sourceKey, String targetKey) {
+        return s3AsyncClient.copyObject(builder -> builder
+                        .sourceBucket(bucket).sourceKey(sourceKey)
+                        .destinationBucket(bucket).destinationKey(targetKey))
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public List<String> deleteAll(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        if (keys.size() > MAX_BATCH_DELETE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_DELETE + " keys per batch delete");
+        }
+
+        List<ObjectIdentifier> objects = keys.stream()
+                .map(key -> ObjectIdentifier.builder().key(key).build())
+                .toList();
+        DeleteObjectsResponse response = s3Client.deleteObjects(builder -> builder.bucket(bucket)
+                .delete(Delete.builder().objects(objects).quiet(true).build()));
+
+        response.errors().forEach(error ->
+                log.warn("Could not delete {} from S3: {} {}", error.key(), error.code(), error.message()));
+        return response.errors().stream().map(S3Error::key).toList();
+    }
+
+    @Override
+    public void list(String prefix, Consumer<List<ObjectSummary>> pages) {
+        s3Client.listObjectsV2Paginator(builder -> builder.bucket(bucket).prefix(prefix).maxKeys(MAX_BATCH_DELETE))
+                .forEach(page -> pages.accept(page.contents().stream()
+                        .map(object -> new ObjectSummary(object.key(), object.size(), object.lastModified()))
+                        .toList()));
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        if (publicBaseUrl != null && !publicBaseUrl.isEmpty()) {
+            return String.format("%s/%s", StringUtils.trimTrailingCharacter(publicBaseUrl, '/'), key);
+        } else if (s3Endpoint != null && !s3Endpoint.isEmpty()) {
+            return String.format("%s/%s/%s", s3Endpoint, bucket, key);
+        } else {
+            return String.format("https://%s.s3.%s.amazonaws.com/%s", bucket, region, key);
+        }
+    }
+
+    @Override
+    public Path localFile(String key) {
+        return null;
+    }
+
+    private CompletableFuture<Void> downloadRange(String key, FileChannel channel, long start, long end) {
+        return s3AsyncClient.getObject(builder -> builder.bucket(bucket).key(key).range("bytes=" + start + "-" + end),
+                        AsyncResponseTransformer.toBytes())
+                .thenAccept(bytes -> {
+                    ByteBuffer buffer = bytes.asByteBuffer();
+                    long position = start;
+                    try {
+                        while (buffer.hasRemaining()) {
+                            position += channel.write(buffer, position);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close download file: {}", e.getMessage());
+        }
+    }
+}
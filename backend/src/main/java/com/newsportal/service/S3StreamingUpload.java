@@ -0,0 +1,169 @@
+package com.newsportal.service;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Upload that sends what is written to it to S3 in fixed-size parts.
+ * <p>
+ * Bytes are collected in a single buffer from {@link UploadBufferPool}; each time it fills up
+ * it is sent as a multipart part of a staging object, blocking the writer until S3 accepted it.
+ * An object that fits in one part is sent as a plain PutObject straight to its final key on
+ * {@link #complete(String)}; a multipart object is completed under the staging key and then
+ * copied into place. If the upload is not completed, {@link #abort()} discards the parts
+ * already sent.
+ */
+@Slf4j
+public class S3StreamingUpload extends MediaUpload {
+
+    private final S3Client s3Client;
+    private final UploadBufferPool bufferPool;
+    private final String bucket;
+    private final String stagingKey;
+    private final String contentType;
+    private final List<CompletedPart> parts = new ArrayList<>();
+
+    private byte[] buffer;
+    private int position;
+    private String uploadId;
+    private boolean closed;
+
+    public S3StreamingUpload(S3Client s3Client, UploadBufferPool bufferPool, String bucket, String stagingKey,
+                             String contentType) {
+        this.s3Client = s3Client;
+        this.bufferPool = bufferPool;
+        this.bucket = bucket;
+        this.stagingKey = stagingKey;
+        this.contentType = contentType;
+    }
+
+    @Override
+    protected void append(byte[] data, int offset, int length) throws IOException {
+        while (length > 0) {
+            ensureBuffer();
+            if (position == buffer.length) {
+                flushPart();
+            }
+            int chunk = Math.min(length, buffer.length - position);
+            System.arraycopy(data, offset, buffer, position, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    @Override
+    public void complete(String key) throws IOException {
+        if (closed) {
+            throw new IOException("Upload already closed: " + stagingKey);
+        }
+        closed = true;
+
+        try {
+            if (uploadId == null) {
+                int length = position;
+                byte[] data = buffer != null ? buffer : new byte[0];
+                s3Client.putObject(builder -> builder.bucket(bucket).key(key).contentType(contentType),
+                        RequestBody.fromContentProvider(() -> new ByteArrayInputStream(data, 0, length), length, contentType));
+                return;
+            }
+
+            if (position > 0) {
+                flushPart();
+            }
+            s3Client.completeMultipartUpload(builder -> builder.bucket(bucket).key(stagingKey).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()));
+        } catch (RuntimeException e) {
+            abortQuietly();
+            throw new IOException("Failed to complete upload of " + key, e);
+        } finally {
+            releaseBuffer();
+        }
+
+        try {
+            s3Client.copyObject(builder -> builder
+                    .sourceBucket(bucket).sourceKey(stagingKey)
+                    .destinationBucket(bucket).destinationKey(key));
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to move " + stagingKey + " to " + key, e);
+        } finally {
+            deleteStagingQuietly();
+        }
+    }
+
+    @Override
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        abortQuietly();
+        releaseBuffer();
+    }
+
+    private void ensureBuffer() throws IOException {
+        if (closed) {
+            throw new IOException("Upload already closed: " + stagingKey);
+        }
+        if (buffer == null) {
+            buffer = bufferPool.acquire();
+        }
+    }
+
+    private void flushPart() throws IOException {
+        try {
+            if (uploadId == null) {
+                uploadId = s3Client.createMultipartUpload(builder -> builder.bucket(bucket).key(stagingKey)
+                                .contentType(contentType))
+                        .uploadId();
+            }
+
+            int partNumber = parts.size() + 1;
+            int length = position;
+            byte[] data = buffer;
+            String eTag = s3Client.uploadPart(builder -> builder.bucket(bucket).key(stagingKey).uploadId(uploadId)
+                            .partNumber(partNumber).contentLength((long) length),
+                    RequestBody.fromContentProvider(() -> new ByteArrayInputStream(data, 0, length), length, contentType))
+                    .eTag();
+
+            parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+            position = 0;
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to upload part of " + stagingKey, e);
+        }
+    }
+
+    private void abortQuietly() {
+        if (uploadId == null) {
+            return;
+        }
+        try {
+            s3Client.abortMultipartUpload(builder -> builder.bucket(bucket).key(stagingKey).uploadId(uploadId));
+        } catch (RuntimeException e) {
+            log.warn("Could not abort multipart upload of {}: {}", stagingKey, e.getMessage());
+        }
+    }
+
+    private void deleteStagingQuietly() {
+        try {
+            s3Client.deleteObject(builder -> builder.bucket(bucket).key(stagingKey));
+        } catch (RuntimeException e) {
+            log.warn("Could not delete staging object {}: {}", stagingKey, e.getMessage());
+        }
+    }
+
+    private void releaseBuffer() {
+        if (buffer != null) {
+            bufferPool.release(buffer);
+            buffer = null;
+        }
+    }
+}
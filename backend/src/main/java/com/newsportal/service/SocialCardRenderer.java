@@ -0,0 +1,253 @@
+package com.newsportal.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Headless Java2D compositor for social media cards.
+ * <p>
+ * A card is the hero image (cover-cropped) under a pre-rendered template holding the
+ * gradient, accent bar and brand label, with the title and excerpt drawn on top. Fonts,
+ * templates and wrapped glyph layouts are built once and cached, so re-rendering a card after
+ * an edit only re-lays out the text that changed and costs a handful of image blits.
+ * <p>
+ * Thread-safe: cached templates and glyph vectors are only read after creation.
+ */
+@Component
+public class SocialCardRenderer {
+
+    private static final int PADDING = 64;
+    private static final int TITLE_MAX_LINES = 3;
+    private static final int EXCERPT_MAX_LINES = 2;
+    private static final String ELLIPSIS = "…";
+    private static final Color BACKGROUND = new Color(0x0f172a);
+    private static final Color ACCENT = new Color(0x6366f1);
+    private static final Color TITLE_COLOR = Color.WHITE;
+    private static final Color EXCERPT_COLOR = new Color(0xcbd5e1);
+
+    // Matches the antialiasing and fractional metrics hints used when drawing
+    private static final FontRenderContext FRC = new FontRenderContext(null, true, true);
+
+    private final Font titleFont;
+    private final Font excerptFont;
+    private final Font brandFont;
+    private final String brand;
+    private final Map<CardFormat, BufferedImage> templates = new EnumMap<>(CardFormat.class);
+    private final Map<LayoutKey, List<GlyphVector>> layouts;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum CardFormat {
+        OPEN_GRAPH(1200, 630),
+        TWITTER(1200, 600);
+
+        private final int width;
+        private final int height;
+    }
+
+    public SocialCardRenderer(@Value("${app.social-card.font-family:SansSerif}") String fontFamily,
+                              @Value("${app.social-card.brand:NewsPortal}") String brand,
+                              @Value("${app.social-card.layout-cache-size:2048}") int layoutCacheSize) {
+        this.titleFont = new Font(fontFamily, Font.BOLD, 56);
+        this.excerptFont = new Font(fontFamily, Font.PLAIN, 28);
+        this.brandFont = new Font(fontFamily, Font.BOLD, 24);
+        this.brand = brand;
+        this.layouts = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LayoutKey, List<GlyphVector>> eldest) {
+                return size() > layoutCacheSize;
+            }
+        });
+
+        for (CardFormat format : CardFormat.values()) {
+            templates.put(format, createTemplate(format));
+        }
+    }
+
+    /**
+     * Compose a card. The hero must already be cover-cropped to the card size (see
+     * {@link #prepareHero}); pass null to render on the plain background.
+     */
+    public BufferedImage render(CardFormat format, BufferedImage hero, String title, String excerpt) {
+        int width = format.getWidth();
+        int height = format.getHeight();
+        int textWidth = width - 2 * PADDING;
+
+        BufferedImage card = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = card.createGraphics();
+        try {
+            if (hero != null) {
+                g.drawImage(hero, 0, 0, null);
+            } else {
+                g.setColor(BACKGROUND);
+                g.fillRect(0, 0, width, height);
+            }
+            g.drawImage(templates.get(format), 0, 0, null);
+
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+
+            List<GlyphVector> excerptLines = excerpt == null || excerpt.isBlank()
+                    ? List.of()
+                    : layout(excerptFont, excerpt, textWidth, EXCERPT_MAX_LINES);
+            List<GlyphVector> titleLines = layout(titleFont, title == null ? "" : title, textWidth, TITLE_MAX_LINES);
+
+            int excerptLineHeight = lineHeight(excerptFont);
+            int titleLineHeight = lineHeight(titleFont);
+
+            // Text blocks are stacked upwards from just above the brand row
+            int bottom = height - PADDING - lineHeight(brandFont) - 24;
+
+            int excerptTop = bottom - (excerptLines.size() - 1) * excerptLineHeight;
+            g.setColor(EXCERPT_COLOR);
+            drawLines(g, excerptLines, excerptTop, excerptLineHeight);
+
+            int titleBottom = excerptLines.isEmpty() ? bottom : excerptTop - excerptLineHeight - 16;
+            g.setColor(TITLE_COLOR);
+            drawLines(g, titleLines, titleBottom - (titleLines.size() - 1) * titleLineHeight, titleLineHeight);
+        } finally {
+            g.dispose();
+        }
+        return card;
+    }
+
+    /**
+     * Cover-crop a decoded hero image to the card size; reuse the result for every re-render
+     */
+    public BufferedImage prepareHero(BufferedImage source, CardFormat format) {
+        return ImageOps.cover(source, format.getWidth(), format.getHeight());
+    }
+
+    private void drawLines(Graphics2D g, List<GlyphVector> lines, int firstBaseline, int lineHeight) {
+        int baseline = firstBaseline;
+        for (GlyphVector line : lines) {
+            g.drawGlyphVector(line, PADDING, baseline);
+            baseline += lineHeight;
+        }
+    }
+
+    private int lineHeight(Font font) {
+        return (int) Math.ceil(font.getSize2D() * 1.2f);
+    }
+
+    /**
+     * Word-wrap text into at most maxLines glyph vectors, ellipsizing the last line
+     */
+    private List<GlyphVector> layout(Font font, String text, int maxWidth, int maxLines) {
+        LayoutKey key = new LayoutKey(font, text, maxWidth, maxLines);
+        List<GlyphVector> cached = layouts.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        String[] words = text.trim().split("\\s+");
+        boolean truncated = false;
+
+        for (int i = 0; i < words.length; i++) {
+            String candidate = line.length() == 0 ? words[i] : line + " " + words[i];
+            if (line.length() == 0 || advance(font, candidate) <= maxWidth) {
+                line.setLength(0);
+                line.append(candidate);
+                continue;
+            }
+
+            lines.add(line.toString());
+            line.setLength(0);
+            line.append(words[i]);
+            if (lines.size() == maxLines) {
+                truncated = true;
+                break;
+            }
+        }
+        if (!truncated && line.length() > 0) {
+            lines.add(line.toString());
+        }
+
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        if (truncated || advance(font, lines.get(lines.size() - 1)) > maxWidth) {
+            lines.set(lines.size() - 1, ellipsize(font, lines.get(lines.size() - 1), maxWidth));
+        }
+
+        List<GlyphVector> glyphs = new ArrayList<>(lines.size());
+        for (String l : lines) {
+            glyphs.add(font.createGlyphVector(FRC, l));
+        }
+        List<GlyphVector> result = Collections.unmodifiableList(glyphs);
+        layouts.put(key, result);
+        return result;
+    }
+
+    private String ellipsize(Font font, String line, int maxWidth) {
+        String text = line;
+        while (!text.isEmpty() && advance(font, text + ELLIPSIS) > maxWidth) {
+            int space = text.lastIndexOf(' ');
+            text = space > 0 ? text.substring(0, space) : text.substring(0, text.length() - 1);
+        }
+        return text + ELLIPSIS;
+    }
+
+    private double advance(Font font, String text) {
+        return font.getStringBounds(text, FRC).getWidth();
+    }
+
+    private BufferedImage createTemplate(CardFormat format) {
+        int width = format.getWidth();
+        int height = format.getHeight();
+
+        BufferedImage template = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = template.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+
+            // Darken the lower part so text stays readable on any hero image
+            g.setComposite(AlphaComposite.SrcOver);
+            g.setPaint(new GradientPaint(0, height * 0.25f, new Color(15, 23, 42, 0),
+                    0, height, new Color(15, 23, 42, 235)));
+            g.fillRect(0, 0, width, height);
+
+            g.setColor(ACCENT);
+            g.fillRect(0, height - 8, width, 8);
+
+            g.setFont(brandFont);
+            g.setColor(ACCENT);
+            g.fillRoundRect(PADDING, height - PADDING - lineHeight(brandFont) + 4, 8, lineHeight(brandFont) - 8, 4, 4);
+            g.setColor(Color.WHITE);
+            g.drawString(brand, PADDING + 20, height - PADDING);
+        } finally {
+            g.dispose();
+        }
+        return template;
+    }
+
+    @lombok.Value
+    private static class LayoutKey {
+        Font font;
+        String text;
+        int maxWidth;
+        int maxLines;
+    }
+}
@@ -0,0 +1,164 @@
+package com.newsportal.service;
+
+import com.newsportal.model.MediaAsset;
+import com.newsportal.model.News;
+import com.newsportal.repository.MediaAssetRepository;
+import com.newsportal.repository.NewsRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Renders and stores the social media cards of an article.
+ * The cropped hero image is cached per source and format, so regenerating cards after an
+ * edit skips decoding and scaling and only re-renders text and re-encodes.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SocialCardService {
+
+    private static final String JPEG = "image/jpeg";
+    private static final int SOCIAL_CARD_ORDER = 1000;
+    private static final Duration HERO_DOWNLOAD_TIMEOUT = Duration.ofSeconds(30);
+
+    private final SocialCardRenderer renderer;
+    private final StorageService storageService;
+    private final MediaCache mediaCache;
+    private final NewsService newsService;
+    private final NewsRepository newsRepository;
+    private final MediaAssetRepository mediaAssetRepository;
+    private final WebClient.Builder webClientBuilder;
+
+    @Value("${app.social-card.quality:0.85}")
+    private float quality;
+
+    @Value("${app.social-card.hero-cache-size:8}")
+    private int heroCacheSize;
+
+    private Map<String, BufferedImage> heroCache;
+
+    @PostConstruct
+    public void init() {
+        heroCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+                return size() > heroCacheSize;
+            }
+        });
+    }
+
+    /**
+     * Render every card format for the article and replace its previous cards
+     */
+    public List<MediaAsset> generateCards(Long newsId) {
+        News news = newsRepository.findById(newsId)
+                .orElseThrow(() -> new RuntimeException("News not found with id: " + newsId));
+
+        String heroSource = findHeroSource(newsId);
+        BufferedImage decoded = null;
+        List<CompletableFuture<MediaAsset>> uploads = new ArrayList<>();
+
+        for (SocialCardRenderer.CardFormat format : SocialCardRenderer.CardFormat.values()) {
+            BufferedImage hero = null;
+            if (heroSource != null) {
+                String cacheKey = heroSource + "#" + format;
+                hero = heroCache.get(cacheKey);
+                if (hero == null) {
+                    if (decoded == null) {
+                        decoded = decodeHero(heroSource);
+                    }
+                    if (decoded != null) {
+                        hero = renderer.prepareHero(decoded, format);
+                        heroCache.put(cacheKey, hero);
+                    }
+                }
+            }
+
+            BufferedImage card = renderer.render(format, hero, news.getTitle(), news.getExcerpt());
+            byte[] data = ImageOps.encode(card, JPEG, quality);
+
+            // Render the next format while this one uploads
+            uploads.add(storageService.storeContentAsync(data, JPEG).thenApply(stored -> MediaAsset.builder()
+                    .url(stored.getUrl())
+                    .s3Key(stored.getKey())
+                    .contentHash(stored.getContentHash())
+                    .type(MediaAsset.MediaType.SOCIAL_CARD)
+                    .mimeType(JPEG)
+                    .fileSize((long) data.length)
+                    .width(format.getWidth())
+                    .height(format.getHeight())
+                    .altText(news.getTitle())
+                    .displayOrder(SOCIAL_CARD_ORDER + format.ordinal())
+                    .build()));
+        }
+
+        List<MediaAsset> cards = uploads.stream().map(CompletableFuture::join).toList();
+        return newsService.replaceSocialCards(newsId, cards);
+    }
+
+    /**
+     * Smallest stored JPEG at least as wide as the cards, falling back to the original image
+     */
+    private String findHeroSource(Long newsId) {
+        MediaAsset primary = mediaAssetRepository.findByNewsIdAndType(newsId, MediaAsset.MediaType.IMAGE).stream()
+                .min(Comparator.comparing(MediaAsset::getDisplayOrder).thenComparing(MediaAsset::getId))
+                .orElse(null);
+        if (primary == null) {
+            return null;
+        }
+
+        int cardWidth = SocialCardRenderer.CardFormat.OPEN_GRAPH.getWidth();
+        return mediaAssetRepository.findByParentAssetId(primary.getId()).stream()
+                .filter(r -> r.getType() == MediaAsset.MediaType.IMAGE && JPEG.equals(r.getMimeType()))
+                .filter(r -> r.getWidth() != null && r.getWidth() >= cardWidth)
+                .min(Comparator.comparing(MediaAsset::getWidth))
+                .map(r -> "s3:" + r.getS3Key())
+                .orElse(primary.getS3Key() != null ? "s3:" + primary.getS3Key() : primary.getUrl());
+    }
+
+    private BufferedImage decodeHero(String source) {
+        try (InputStream in = source.startsWith("s3:")
+                ? mediaCache.open(source.substring(3))
+                : download(source)) {
+            BufferedImage image = ImageIO.read(in);
+            if (image == null) {
+                log.warn("Unsupported hero image format, rendering card without it: {}", source);
+            }
+            return image;
+        } catch (Exception e) {
+            log.warn("Could not load hero image {}, rendering card without it: {}", source, e.getMessage());
+            return null;
+        }
+    }
+
+    private InputStream download(String url) throws IOException {
+        DataBuffer body = DataBufferUtils.join(webClientBuilder.build().get()
+                        .uri(url)
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class))
+                .block(HERO_DOWNLOAD_TIMEOUT);
+        if (body == null) {
+            throw new IOException("Empty response");
+        }
+        return body.asInputStream(true);
+    }
+}
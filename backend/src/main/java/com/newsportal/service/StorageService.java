@@ -1,103 +1,112 @@
 package com.newsportal.service;
 
+import com.newsportal.repository.MediaBlobRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import reactor.core.publisher.Flux;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.net.URI;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
-import java.util.UUID;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Service for handling file storage (S3-compatible)
+ * Service for handling media storage. Objects are kept in the configured {@link MediaStore}
+ * (S3-compatible bucket or local disk) under keys derived from their SHA-256.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class StorageService {
 
-    private final WebClient.Builder webClientBuilder;
-
-    @Value("${app.storage.s3.endpoint:}")
-    private String s3Endpoint;
-
-    @Value("${app.storage.s3.bucket:newsportal-media}")
-    private String bucket;
-
-    @Value("${app.storage.s3.access-key:}")
-    private String accessKey;
+    private static final String DATA_URL_PREFIX = "data:";
+    private static final String DEFAULT_IMAGE_TYPE = "image/jpeg";
+    private static final int DOWNLOAD_PREFETCH = 4;
+    private static final String CONTENT_PREFIX = "media/sha256/";
 
-    @Value("${app.storage.s3.secret-key:}")
-    private String secretKey;
-
-    @Value("${app.storage.s3.region:us-east-1}")
-    private String region;
-
-    private S3Client s3Client;
+    private final WebClient.Builder webClientBuilder;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final MediaStore mediaStore;
+    private final MediaCache mediaCache;
+
+    // Blob index lookups and registrations of async stores; kept off the store's I/O threads
+    private final AtomicInteger registrationThreads = new AtomicInteger();
+    private final ExecutorService registrationExecutor = Executors.newFixedThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "media-register-" + registrationThreads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        registrationExecutor.shutdown();
+    }
 
     /**
-     * Initialize S3 client lazily
+     * Download image from URL and store it
      */
-    private S3Client getS3Client() {
-        if (s3Client == null) {
-            var credentialsProvider = StaticCredentialsProvider.create(
-                    AwsBasicCredentials.create(accessKey, secretKey));
-
-            var builder = S3Client.builder()
-                    .credentialsProvider(credentialsProvider)
-                    .region(Region.of(region));
-
-            if (s3Endpoint != null && !s3Endpoint.isEmpty()) {
-                builder.endpointOverride(URI.create(s3Endpoint));
-            }
-
-            s3Client = builder.build();
-        }
-        return s3Client;
+    public String downloadAndStoreImage(String imageUrl, String newsId) {
+        return storeImage(imageUrl, newsId).getUrl();
     }
 
     /**
-     * Download image from URL and store in S3
+     * Download image from URL and store it, returning where and what was stored.
+     * The response body is streamed into the media store as it arrives, so memory use
+     * per image does not grow with the image size.
+     * Images are stored by content hash, so an image that is already stored is not uploaded again.
      */
-    public String downloadAndStoreImage(String imageUrl, String newsId) {
-        log.info("Downloading and storing image from: {}", imageUrl);
+    public StoredObject storeImage(String imageUrl, String newsId) {
+        log.info("Downloading and storing image for news ID {} from: {}", newsId, imageUrl);
 
         try {
-            byte[] imageData;
-
             // Handle base64 data URLs (from some AI services)
             if (imageUrl.startsWith("data:image")) {
-                String base64Data = imageUrl.substring(imageUrl.indexOf(",") + 1);
-                imageData = Base64.getDecoder().decode(base64Data);
-            } else {
-                // Download from URL
-                WebClient webClient = webClientBuilder.build();
-                imageData = webClient.get()
-                        .uri(imageUrl)
-                        .retrieve()
-                        .bodyToMono(byte[].class)
-                        .block();
+                int comma = imageUrl.indexOf(",");
+                String contentType = imageUrl.substring(DATA_URL_PREFIX.length(), imageUrl.indexOf(";"));
+                InputStream decoded = Base64.getDecoder().wrap(new ByteArrayInputStream(
+                        imageUrl.substring(comma + 1).getBytes(StandardCharsets.US_ASCII)));
+
+                return storeContent(contentType, out -> decoded.transferTo(out));
             }
 
-            if (imageData == null || imageData.length == 0) {
+            // Download from URL, pulling a few network buffers at a time
+            ResponseEntity<Flux<DataBuffer>> response = webClientBuilder.build().get()
+                    .uri(imageUrl)
+                    .retrieve()
+                    .toEntityFlux(DataBuffer.class)
+                    .block();
+
+            if (response == null || response.getBody() == null) {
                 throw new RuntimeException("Failed to download image");
             }
 
-            // Generate unique filename
-            String filename = String.format("news/%s/%s.jpg", newsId, UUID.randomUUID());
+            var mediaType = response.getHeaders().getContentType();
+            String contentType = mediaType != null && "image".equals(mediaType.getType())
+                    ? mediaType.getType() + "/" + mediaType.getSubtype()
+                    : DEFAULT_IMAGE_TYPE;
 
-            // Upload to S3
-            return uploadToS3(imageData, filename, "image/jpeg");
+            return storeContent(contentType, out -> {
+                for (DataBuffer chunk : response.getBody().toIterable(DOWNLOAD_PREFETCH)) {
+                    try (InputStream in = chunk.asInputStream(true)) {
+                        in.transferTo(out);
+                    }
+                }
+            });
 
         } catch (Exception e) {
             log.error("Error downloading and storing image: {}", e.getMessage(), e);
@@ -106,73 +115,262 @@ public class StorageService {
     }
 
     /**
-     * Upload file to S3
+     * Upload whatever the writer produces under the given key without holding it in memory
      */
-    public String uploadToS3(byte[] data, String key, String contentType) {
-        log.info("Uploading to S3: {}", key);
+    public StoredObject streamUpload(String key, String contentType, StreamWriter writer) {
+        log.info("Streaming upload: {}", key);
 
-        try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucket)
-                    .key(key)
-                    .contentType(contentType)
-                    .build();
-
-            getS3Client().putObject(putObjectRequest, RequestBody.fromBytes(data));
-
-            // Return public URL
-            if (s3Endpoint != null && !s3Endpoint.isEmpty()) {
-                return String.format("%s/%s/%s", s3Endpoint, bucket, key);
-            } else {
-                return String.format("https://%s.s3.%s.amazonaws.com/%s", bucket, region, key);
+        try (MediaUpload upload = mediaStore.beginUpload(contentType)) {
+            writer.write(upload);
+            if (upload.getSize() == 0) {
+                throw new RuntimeException("Nothing to upload for " + key);
+            }
+            upload.complete(key);
+            return new StoredObject(key, publicUrl(key), contentType, upload.getSize(), upload.getContentHash());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to upload " + key, e);
+        }
+    }
+
+    /**
+     * Store whatever the writer produces under a key derived from its SHA-256.
+     * Content that is already stored is not uploaded again.
+     */
+    public StoredObject storeContent(String contentType, StreamWriter writer) {
+        try (MediaUpload upload = mediaStore.beginUpload(contentType)) {
+            writer.write(upload);
+            if (upload.getSize() == 0) {
+                throw new RuntimeException("Nothing to upload");
             }
 
+            String hash = upload.getContentHash();
+            String existing = findStoredKey(hash, contentType);
+            if (existing != null) {
+                log.info("Content {} already stored at {}, skipping upload", hash, existing);
+                return new StoredObject(existing, publicUrl(existing), contentType, upload.getSize(), hash);
+            }
+
+            String key = contentKey(hash, contentType);
+            log.info("Storing content: {}", key);
+            upload.complete(key);
+
+            mediaBlobRepository.register(hash, key, contentType, upload.getSize());
+            return new StoredObject(key, publicUrl(key), contentType, upload.getSize(), hash);
         } catch (Exception e) {
-            log.error("Error uploading to S3: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to upload to S3", e);
+            throw new RuntimeException("Failed to store content", e);
         }
     }
 
     /**
-     * Upload file from InputStream
+     * Store bytes under a key derived from their SHA-256, skipping the upload if already stored
      */
-    public String uploadToS3(InputStream inputStream, String key, String contentType, long contentLength) {
-        log.info("Uploading stream to S3: {}", key);
+    public StoredObject storeContent(byte[] data, String contentType) {
+        String hash = sha256(data);
+        String existing = findStoredKey(hash, contentType);
+        if (existing != null) {
+            log.debug("Content {} already stored at {}, skipping upload", hash, existing);
+            return new StoredObject(existing, publicUrl(existing), contentType, data.length, hash);
+        }
+
+        String key = contentKey(hash, contentType);
+        String url = upload(data, key, contentType);
+        mediaBlobRepository.register(hash, key, contentType, data.length);
+        return new StoredObject(key, url, contentType, data.length, hash);
+    }
+
+    /**
+     * Content-addressed {@link #storeContent(byte[], String)} without blocking on the store
+     */
+    public CompletableFuture<StoredObject> storeContentAsync(byte[] data, String contentType) {
+        String hash = sha256(data);
+        String key = contentKey(hash, contentType);
+        StoredObject stored = new StoredObject(key, publicUrl(key), contentType, data.length, hash);
+
+        // Callers may chain this from a store callback, so even the first lookup is handed off
+        return CompletableFuture.supplyAsync(() -> mediaBlobRepository.touch(hash), registrationExecutor)
+                .thenCompose(blob -> {
+                    if (blob.isPresent()) {
+                        String existing = blob.get();
+                        return CompletableFuture.completedFuture(
+                                new StoredObject(existing, publicUrl(existing), contentType, data.length, hash));
+                    }
+                    return mediaStore.sizeAsync(key)
+                            .thenCompose(size -> size >= 0
+                                    ? CompletableFuture.<Void>completedFuture(null)
+                                    : uploadAsync(data, key, contentType).thenApply(url -> null))
+                            .thenApplyAsync(ignored -> {
+                                mediaBlobRepository.register(hash, key, contentType, data.length);
+                                return stored;
+                            }, registrationExecutor);
+                });
+    }
+
+    /**
+     * Whether an object exists in the media store
+     */
+    public boolean objectExists(String key) {
+        return mediaStore.size(key) >= 0;
+    }
 
+    /**
+     * Open an object for reading; the caller must close the stream
+     */
+    public InputStream openObject(String key) {
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucket)
-                    .key(key)
-                    .contentType(contentType)
-                    .contentLength(contentLength)
-                    .build();
-
-            getS3Client().putObject(putObjectRequest, RequestBody.fromInputStream(inputStream, contentLength));
-
-            // Return public URL
-            if (s3Endpoint != null && !s3Endpoint.isEmpty()) {
-                return String.format("%s/%s/%s", s3Endpoint, bucket, key);
-            } else {
-                return String.format("https://%s.s3.%s.amazonaws.com/%s", bucket, region, key);
-            }
+            return mediaStore.open(key);
+        } catch (Exception e) {
+            log.error("Error reading {}: {}", key, e.getMessage(), e);
+            throw new RuntimeException("Failed to read " + key, e);
+        }
+    }
 
+    /**
+     * Upload bytes under the given key
+     */
+    public String upload(byte[] data, String key, String contentType) {
+        try {
+            mediaStore.put(key, data, contentType);
+            return publicUrl(key);
         } catch (Exception e) {
-            log.error("Error uploading stream to S3: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to upload to S3", e);
+            log.error("Error uploading {}: {}", key, e.getMessage(), e);
+            throw new RuntimeException("Failed to upload " + key, e);
         }
     }
 
     /**
-     * Delete file from S3
+     * Upload a stream under the given key
      */
-    public void deleteFromS3(String key) {
-        log.info("Deleting from S3: {}", key);
+    public String upload(InputStream inputStream, String key, String contentType) {
+        return streamUpload(key, contentType, inputStream::transferTo).getUrl();
+    }
 
+    /**
+     * Delete an object
+     */
+    public void delete(String key) {
         try {
-            getS3Client().deleteObject(builder -> builder.bucket(bucket).key(key));
+            mediaStore.delete(key);
+            mediaCache.evict(key);
         } catch (Exception e) {
-            log.error("Error deleting from S3: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to delete from S3", e);
+            log.error("Error deleting {}: {}", key, e.getMessage(), e);
+            throw new RuntimeException("Failed to delete " + key, e);
         }
     }
+
+    /**
+     * Delete up to {@link MediaStore#MAX_BATCH_DELETE} objects in one request,
+     * returning the keys that could not be deleted
+     */
+    public List<String> deleteAll(List<String> keys) {
+        List<String> failed = mediaStore.deleteAll(keys);
+        keys.forEach(mediaCache::evict);
+        return failed;
+    }
+
+    /**
+     * Upload bytes without blocking; on S3 large objects are sent as parallel multipart uploads
+     */
+    public CompletableFuture<String> uploadAsync(byte[] data, String key, String contentType) {
+        return mediaStore.putAsync(key, data, contentType).thenApply(ignored -> publicUrl(key));
+    }
+
+    /**
+     * Upload a file without blocking; on S3 large files are sent as parallel multipart uploads
+     */
+    public CompletableFuture<String> uploadFileAsync(Path file, String key, String contentType) {
+        return mediaStore.putFileAsync(key, file, contentType).thenApply(ignored -> publicUrl(key));
+    }
+
+    /**
+     * Copy an object into a local file without blocking, returning its size
+     */
+    public CompletableFuture<Long> downloadToFileAsync(String key, Path target) {
+        return mediaStore.downloadToFile(key, target);
+    }
+
+    /**
+     * Delete an object without blocking
+     */
+    public CompletableFuture<Void> deleteAsync(String key) {
+        return mediaStore.deleteAsync(key).thenRun(() -> mediaCache.evict(key));
+    }
+
+    /**
+     * Copy an object to another key without blocking
+     */
+    public CompletableFuture<Void> copyAsync(String sourceKey, String targetKey) {
+        return mediaStore.copyAsync(sourceKey, targetKey);
+    }
+
+    /**
+     * URL clients use to fetch an object
+     */
+    public String publicUrl(String key) {
+        return mediaStore.publicUrl(key);
+    }
+
+    /**
+     * Key of known content: the blob index first, then the store itself for objects stored
+     * before the index existed or whose registration was lost
+     */
+    private String findStoredKey(String hash, String contentType) {
+        var blob = mediaBlobRepository.touch(hash);
+        if (blob.isPresent()) {
+            return blob.get();
+        }
+
+        String key = contentKey(hash, contentType);
+        long size = mediaStore.size(key);
+        if (size < 0) {
+            return null;
+        }
+        mediaBlobRepository.register(hash, key, contentType, size);
+        return key;
+    }
+
+    private String contentKey(String hash, String contentType) {
+        return String.format("%s%s/%s.%s", CONTENT_PREFIX, hash.substring(0, 2), hash, extension(contentType));
+    }
+
+    private String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * File extension used for objects of the given content type
+     */
+    public static String extension(String contentType) {
+        return switch (contentType) {
+            case "image/png" -> "png";
+            case "image/webp" -> "webp";
+            case "image/gif" -> "gif";
+            case "image/avif" -> "avif";
+            default -> "jpg";
+        };
+    }
+
+    /**
+     * Object stored in the media store
+     */
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class StoredObject {
+        private String key;
+        private String url;
+        private String contentType;
+        private long size;
+        private String contentHash;
+    }
+
+    /**
+     * Writes an object's content to the upload stream
+     */
+    @FunctionalInterface
+    public interface StreamWriter {
+        void write(OutputStream out) throws Exception;
+    }
 }
@@ -0,0 +1,218 @@
+package com.newsportal.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Incremental parser for the JSON object returned by the rewrite prompt.
+ * <p>
+ * Text fragments are fed as they arrive from the LLM token stream. Anything before the
+ * first '{' (prose, markdown code fences) and after the matching '}' is ignored, so the
+ * parser tolerates the same fenced responses {@link LLMService} already handles.
+ * Top-level string fields are decoded on the fly and reported both as partial deltas
+ * and once their closing quote has been seen.
+ * <p>
+ * Not thread-safe: one instance per stream.
+ */
+public class StreamingRewriteParser {
+
+    private static final Set<String> STREAMED_FIELDS = Set.of("title", "excerpt", "body_html");
+
+    private final StringBuilder json = new StringBuilder();
+    private final StringBuilder key = new StringBuilder();
+    private final StringBuilder value = new StringBuilder();
+
+    private int depth;
+    private boolean inString;
+    private boolean escape;
+    private int unicodeDigits = -1;
+    private int unicodeValue;
+    private boolean readingKey;
+    private boolean expectingValue;
+    private boolean capturing;
+    private boolean complete;
+    private int deltaStart;
+
+    /**
+     * Feed the next fragment of the response and return the events it produced
+     */
+    public List<Event> feed(String chunk) {
+        List<Event> events = new ArrayList<>();
+        if (chunk == null || complete) {
+            return events;
+        }
+
+        for (int i = 0; i < chunk.length() && !complete; i++) {
+            char c = chunk.charAt(i);
+
+            if (depth == 0) {
+                // Skip leading prose and code fences until the object starts
+                if (c == '{') {
+                    depth = 1;
+                    json.append(c);
+                    readingKey = false;
+                    expectingValue = false;
+                }
+                continue;
+            }
+
+            json.append(c);
+
+            if (inString) {
+                consumeStringChar(c, events);
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> startString();
+                case ':' -> {
+                    if (depth == 1) {
+                        expectingValue = true;
+                    }
+                }
+                case ',' -> {
+                    if (depth == 1) {
+                        expectingValue = false;
+                        key.setLength(0);
+                    }
+                }
+                case '{', '[' -> depth++;
+                case '}', ']' -> {
+                    depth--;
+                    if (depth == 0) {
+                        complete = true;
+                    }
+                }
+                default -> {
+                    // numbers, literals and whitespace carry no state
+                }
+            }
+        }
+
+        if (capturing && value.length() > deltaStart) {
+            events.add(Event.delta(key.toString(), value.substring(deltaStart)));
+            deltaStart = value.length();
+        }
+
+        return events;
+    }
+
+    /**
+     * Whether the top-level object has been closed
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Raw JSON text of the top-level object seen so far
+     */
+    public String getJson() {
+        return json.toString();
+    }
+
+    private void startString() {
+        inString = true;
+        escape = false;
+        if (depth != 1) {
+            return;
+        }
+        if (expectingValue) {
+            capturing = STREAMED_FIELDS.contains(key.toString());
+            value.setLength(0);
+            deltaStart = 0;
+        } else {
+            readingKey = true;
+            key.setLength(0);
+        }
+    }
+
+    private void consumeStringChar(char c, List<Event> events) {
+        if (unicodeDigits >= 0) {
+            unicodeValue = (unicodeValue << 4) + Character.digit(c, 16);
+            if (++unicodeDigits == 4) {
+                append((char) unicodeValue);
+                unicodeDigits = -1;
+            }
+            return;
+        }
+
+        if (escape) {
+            escape = false;
+            switch (c) {
+                case 'n' -> append('\n');
+                case 't' -> append('\t');
+                case 'r' -> append('\r');
+                case 'b' -> append('\b');
+                case 'f' -> append('\f');
+                case 'u' -> {
+                    unicodeDigits = 0;
+                    unicodeValue = 0;
+                }
+                default -> append(c);
+            }
+            return;
+        }
+
+        if (c == '\\') {
+            escape = true;
+        } else if (c == '"') {
+            endString(events);
+        } else {
+            append(c);
+        }
+    }
+
+    private void endString(List<Event> events) {
+        inString = false;
+        if (depth != 1) {
+            return;
+        }
+        if (readingKey) {
+            readingKey = false;
+        } else if (capturing) {
+            if (value.length() > deltaStart) {
+                events.add(Event.delta(key.toString(), value.substring(deltaStart)));
+            }
+            events.add(Event.field(key.toString(), value.toString()));
+            capturing = false;
+            expectingValue = false;
+        } else {
+            expectingValue = false;
+        }
+    }
+
+    private void append(char c) {
+        if (depth != 1) {
+            return;
+        }
+        if (readingKey) {
+            key.append(c);
+        } else if (capturing) {
+            value.append(c);
+        }
+    }
+
+    /**
+     * Field-level event surfaced by the parser
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Event {
+        private boolean completed;
+        private String field;
+        private String text;
+
+        static Event delta(String field, String text) {
+            return new Event(false, field, text);
+        }
+
+        static Event field(String field, String text) {
+            return new Event(true, field, text);
+        }
+    }
+}
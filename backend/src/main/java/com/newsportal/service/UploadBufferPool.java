@@ -0,0 +1,61 @@
+package com.newsportal.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed set of part buffers shared by all streaming uploads.
+ * Buffers are allocated on first use and recycled; once all are taken, uploads wait for one
+ * to be returned, so upload heap stays at {@code max-buffers * part-size} however many image
+ * jobs run in parallel.
+ */
+@Component
+@Slf4j
+public class UploadBufferPool {
+
+    private final int partSize;
+    private final Duration acquireTimeout;
+    private final Semaphore available;
+    private final ConcurrentLinkedQueue<byte[]> free = new ConcurrentLinkedQueue<>();
+
+    public UploadBufferPool(@Value("${app.storage.upload.part-size:5MB}") DataSize partSize,
+                            @Value("${app.storage.upload.max-buffers:8}") int maxBuffers,
+                            @Value("${app.storage.upload.acquire-timeout:2m}") Duration acquireTimeout) {
+        this.partSize = (int) partSize.toBytes();
+        this.acquireTimeout = acquireTimeout;
+        this.available = new Semaphore(maxBuffers, true);
+    }
+
+    /**
+     * Take a part buffer, waiting while all buffers are in use
+     */
+    public byte[] acquire() {
+        try {
+            if (!available.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Timed out waiting for an upload buffer");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for an upload buffer", e);
+        }
+
+        byte[] buffer = free.poll();
+        return buffer != null ? buffer : new byte[partSize];
+    }
+
+    public void release(byte[] buffer) {
+        free.offer(buffer);
+        available.release();
+    }
+
+    public int getPartSize() {
+        return partSize;
+    }
+}
@@ -0,0 +1,259 @@
+package com.newsportal.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sliding-window limits on comment and report writes, per user and per client IP.
+ * <p>
+ * Windows are kept in Redis sorted sets and checked for both keys in one script, so every node
+ * shares the same counts. Each node also remembers keys Redis has rejected until their window
+ * frees up and keeps its own windows, which let it turn away a spam burst without a round trip
+ * and keep limiting, per node, while Redis is unavailable.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class WriteRateLimiter {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    // KEYS: window keys; ARGV: window ms, one limit per key, then a unique member.
+    // Returns {allowed, remaining, retry ms, bit mask of the full windows}.
+    // The cast only narrows List.class to its parameterised type; Redis returns a list of Longs
+    @SuppressWarnings("unchecked")
+    private static final RedisScript<List<Object>> SLIDING_WINDOW = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local window = tonumber(ARGV[1])
+            local remaining = -1
+            local retry = 0
+            local full = 0
+            for i, key in ipairs(KEYS) do
+                local limit = tonumber(ARGV[i + 1])
+                redis.call('ZREMRANGEBYSCORE', key, 0, now - window)
+                local count = redis.call('ZCARD', key)
+                if count >= limit then
+                    local oldest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+                    retry = math.max(retry, tonumber(oldest[2]) + window - now)
+                    full = full + 2 ^ (i - 1)
+                elseif remaining < 0 or limit - count - 1 < remaining then
+                    remaining = limit - count - 1
+                end
+            end
+            if full > 0 then
+                return {0, 0, retry, full}
+            end
+            for i, key in ipairs(KEYS) do
+                redis.call('ZADD', key, now, ARGV[#ARGV])
+                redis.call('PEXPIRE', key, window)
+            end
+            return {1, remaining, 0, 0}
+            """, (Class<List<Object>>) (Class<?>) List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Map<String, Long> blockedUntil = new ConcurrentHashMap<>();
+    private final Map<String, ArrayDeque<Long>> localWindows = new ConcurrentHashMap<>();
+    private final Map<String, Long> localFingerprints = new ConcurrentHashMap<>();
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.comment.window:1m}")
+    private Duration commentWindow;
+
+    @Value("${app.rate-limit.comment.per-user:5}")
+    private int commentsPerUser;
+
+    @Value("${app.rate-limit.comment.per-ip:20}")
+    private int commentsPerIp;
+
+    @Value("${app.rate-limit.comment.duplicate-window:10m}")
+    private Duration duplicateWindow;
+
+    @Value("${app.rate-limit.report.window:1h}")
+    private Duration reportWindow;
+
+    @Value("${app.rate-limit.report.per-user:30}")
+    private int reportsPerUser;
+
+    @Value("${app.rate-limit.report.per-ip:100}")
+    private int reportsPerIp;
+
+    public enum Action {
+        COMMENT,
+        REPORT
+    }
+
+    /**
+     * Count a write against the user's and the IP's window, or throw if either is full
+     */
+    public void acquire(Action action, String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        Duration window = action == Action.COMMENT ? commentWindow : reportWindow;
+        int userLimit = action == Action.COMMENT ? commentsPerUser : reportsPerUser;
+        int ipLimit = action == Action.COMMENT ? commentsPerIp : reportsPerIp;
+
+        String prefix = KEY_PREFIX + action.name().toLowerCase(Locale.ROOT) + ":";
+        String userKey = prefix + "user:" + username;
+        String ipKey = prefix + "ip:" + clientIp;
+        long now = System.currentTimeMillis();
+
+        // Keys already known to be over their limit are rejected without asking Redis
+        long blocked = Math.max(blockedUntil.getOrDefault(userKey, 0L), blockedUntil.getOrDefault(ipKey, 0L));
+        if (blocked > now) {
+            throw exceeded(action, Math.min(userLimit, ipLimit), blocked - now);
+        }
+        long localRetry = Math.max(localRetry(userKey, userLimit, window, now), localRetry(ipKey, ipLimit, window, now));
+        if (localRetry > 0) {
+            throw exceeded(action, Math.min(userLimit, ipLimit), localRetry);
+        }
+
+        List<Object> result;
+        try {
+            result = redisTemplate.execute(SLIDING_WINDOW, List.of(userKey, ipKey),
+                    String.valueOf(window.toMillis()), String.valueOf(userLimit), String.valueOf(ipLimit),
+                    UUID.randomUUID().toString());
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for rate limiting, limiting per node: {}", e.getMessage());
+            result = null;
+        }
+
+        if (result != null && ((Number) result.get(0)).longValue() == 0) {
+            long retryMs = ((Number) result.get(2)).longValue();
+            long full = ((Number) result.get(3)).longValue();
+            // Only full windows are remembered; the other key may still have room
+            if ((full & 1) != 0) {
+                blockedUntil.merge(userKey, now + retryMs, Math::max);
+            }
+            if ((full & 2) != 0) {
+                blockedUntil.merge(ipKey, now + retryMs, Math::max);
+            }
+            throw exceeded(action, (full & 1) != 0 ? userLimit : ipLimit, retryMs);
+        }
+        record(userKey, now);
+        record(ipKey, now);
+    }
+
+    /**
+     * Reject text the same user already posted within the duplicate window, on any article.
+     * Returns the claimed fingerprint, which the caller hands to {@link #releaseDuplicate} if
+     * the comment is not created after all.
+     */
+    public String checkDuplicate(String username, String content) {
+        if (!enabled) {
+            return null;
+        }
+        String key = KEY_PREFIX + "dup:" + username + ":" + fingerprint(content);
+        boolean first;
+        try {
+            first = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, "1", duplicateWindow));
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for duplicate check, checking per node: {}", e.getMessage());
+            long now = System.currentTimeMillis();
+            long expiry = now + duplicateWindow.toMillis();
+            first = localFingerprints.merge(key, expiry, (old, fresh) -> old > now ? old : fresh) == expiry;
+        }
+        if (!first) {
+            throw new RateLimitExceededException("Duplicate comment, please wait before posting it again",
+                    null, duplicateWindow);
+        }
+        return key;
+    }
+
+    /**
+     * Forget a fingerprint claimed by {@link #checkDuplicate} for a comment that was not created
+     */
+    public void releaseDuplicate(String key) {
+        if (key == null) {
+            return;
+        }
+        localFingerprints.remove(key);
+        try {
+            redisTemplate.delete(key);
+        } catch (DataAccessException e) {
+            log.warn("Could not release duplicate fingerprint: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        long now = System.currentTimeMillis();
+        blockedUntil.values().removeIf(until -> until <= now);
+        localFingerprints.values().removeIf(expiry -> expiry <= now);
+        long horizon = now - Math.max(commentWindow.toMillis(), reportWindow.toMillis());
+        localWindows.entrySet().removeIf(entry -> {
+            synchronized (entry.getValue()) {
+                Long last = entry.getValue().peekLast();
+                return last == null || last < horizon;
+            }
+        });
+    }
+
+    /**
+     * Same text regardless of case, accents on compatibility forms, punctuation and spacing
+     */
+    static String fingerprint(String content) {
+        String normalised = Normalizer.normalize(content, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalised.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Milliseconds until this node's own window for the key has room, or 0 if it has now
+     */
+    private long localRetry(String key, int limit, Duration window, long now) {
+        ArrayDeque<Long> times = localWindows.get(key);
+        if (times == null) {
+            return 0;
+        }
+        synchronized (times) {
+            while (!times.isEmpty() && times.peekFirst() <= now - window.toMillis()) {
+                times.pollFirst();
+            }
+            return times.size() >= limit ? times.peekFirst() + window.toMillis() - now : 0;
+        }
+    }
+
+    private void record(String key, long now) {
+        ArrayDeque<Long> times = localWindows.computeIfAbsent(key, k -> new ArrayDeque<>());
+        synchronized (times) {
+            times.addLast(now);
+        }
+    }
+
+    private static RateLimitExceededException exceeded(Action action, int limit, long retryMs) {
+        return new RateLimitExceededException("Too many " + action.name().toLowerCase(Locale.ROOT) + "s, slow down",
+                limit, Duration.ofMillis(Math.max(1000, retryMs)));
+    }
+}
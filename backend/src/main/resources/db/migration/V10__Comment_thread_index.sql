@@ -0,0 +1,4 @@
+-- V10__Comment_thread_index.sql
+
+-- Whole comment threads are read per article in creation order
+CREATE INDEX idx_comments_news_created ON comments(news_id, created_at);
@@ -0,0 +1,10 @@
+-- V11__Comment_keyset_indexes.sql
+
+-- Keyset pages of approved top-level comments (newest first) and of replies (oldest first)
+CREATE INDEX idx_comments_roots_page ON comments(news_id, created_at DESC, id DESC)
+    WHERE parent_id IS NULL AND approved = TRUE;
+CREATE INDEX idx_comments_replies_page ON comments(parent_id, created_at, id)
+    WHERE approved = TRUE;
+
+-- Whole threads are no longer loaded, and the pages above are served by these partial indexes
+DROP INDEX IF EXISTS idx_comments_news_created;
@@ -0,0 +1,13 @@
+-- V12__Comment_reports.sql
+
+-- One row per user and reported comment, so repeated reports by the same account count once
+CREATE TABLE comment_reports (
+    comment_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (comment_id, user_id),
+    FOREIGN KEY (comment_id) REFERENCES comments(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_comment_reports_user_id ON comment_reports(user_id);
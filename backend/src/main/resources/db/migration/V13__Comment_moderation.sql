@@ -0,0 +1,14 @@
+-- V13__Comment_moderation.sql
+
+-- Spam/abuse probability from the automatic moderation stage; NULL until classified
+ALTER TABLE comments ADD COLUMN moderation_score DOUBLE PRECISION;
+
+-- The moderation queue: hidden comments no moderator has decided on, most reported first
+CREATE INDEX idx_comments_moderation_queue ON comments(reported_count DESC, created_at)
+    WHERE moderated = FALSE AND approved = FALSE;
+-- Superseded by the partial index above
+DROP INDEX IF EXISTS idx_comments_moderated;
+
+-- Comments the classifier has not seen, swept up again after restarts
+CREATE INDEX idx_comments_unscored ON comments(created_at)
+    WHERE moderation_score IS NULL AND moderated = FALSE AND approved = FALSE;
@@ -0,0 +1,65 @@
+-- V14__Partition_audit_logs.sql
+-- Range-partition audit_logs by month of created_at. Queries bounded in time only scan the
+-- months they cover, and old months can be archived and dropped one table at a time by
+-- AuditPartitionManager instead of being deleted row by row.
+
+ALTER TABLE audit_logs RENAME TO audit_logs_legacy;
+ALTER TABLE audit_logs_legacy RENAME CONSTRAINT audit_logs_pkey TO audit_logs_legacy_pkey;
+
+-- The partition key has to be part of the primary key; ids still come from the same sequence
+CREATE TABLE audit_logs (
+    id BIGINT NOT NULL DEFAULT nextval('audit_logs_id_seq'),
+    entity_type VARCHAR(100) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    action VARCHAR(50) NOT NULL,
+    user_id BIGINT,
+    metadata TEXT,
+    original_content TEXT,
+    rewritten_content TEXT,
+    llm_prompt TEXT,
+    llm_model VARCHAR(100),
+    llm_response_metadata TEXT,
+    ip_address VARCHAR(50),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE SET NULL
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE audit_logs_id_seq OWNED BY audit_logs.id;
+
+-- One partition per month from the oldest existing row to two months ahead; the partition
+-- manager keeps creating months ahead from then on
+DO $$
+DECLARE
+    from_month DATE;
+    last_month DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(created_at), CURRENT_TIMESTAMP))::DATE,
+           date_trunc('month', GREATEST(COALESCE(MAX(created_at), CURRENT_TIMESTAMP),
+                                        CURRENT_TIMESTAMP + INTERVAL '2 months'))::DATE
+    INTO from_month, last_month
+    FROM audit_logs_legacy;
+
+    WHILE from_month <= last_month LOOP
+        EXECUTE format('CREATE TABLE audit_logs_%s PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+                       to_char(from_month, 'YYYYMM'), from_month, (from_month + INTERVAL '1 month')::DATE);
+        from_month := (from_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+-- Catches rows outside every month (clock skew, a manager that has not run); the partition
+-- manager moves them into their month when it creates it
+CREATE TABLE audit_logs_default PARTITION OF audit_logs DEFAULT;
+
+INSERT INTO audit_logs (id, entity_type, entity_id, action, user_id, metadata, original_content,
+                        rewritten_content, llm_prompt, llm_model, llm_response_metadata, ip_address, created_at)
+SELECT id, entity_type, entity_id, action, user_id, metadata, original_content,
+       rewritten_content, llm_prompt, llm_model, llm_response_metadata, ip_address, created_at
+FROM audit_logs_legacy;
+
+DROP TABLE audit_logs_legacy;
+
+-- Created on the parent, so every partition, present and future, gets its own copy
+CREATE INDEX idx_audit_logs_entity ON audit_logs(entity_type, entity_id);
+CREATE INDEX idx_audit_logs_user_id ON audit_logs(user_id);
+CREATE INDEX idx_audit_logs_created_at ON audit_logs(created_at);
@@ -0,0 +1,47 @@
+-- V3__Job_tracking.sql
+
+-- Jobs table: one row per published pipeline job
+CREATE TABLE jobs (
+    id VARCHAR(64) PRIMARY KEY,
+    news_id BIGINT,
+    type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    queued_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    FOREIGN KEY (news_id) REFERENCES news(id) ON DELETE SET NULL
+);
+
+-- Job state transitions
+CREATE TABLE job_transitions (
+    id BIGSERIAL PRIMARY KEY,
+    job_id VARCHAR(64) NOT NULL,
+    from_status VARCHAR(20),
+    to_status VARCHAR(20) NOT NULL,
+    attempt INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (job_id) REFERENCES jobs(id) ON DELETE CASCADE
+);
+
+-- Per-stage durations (queue wait, LLM, image generation, storage upload, ...)
+CREATE TABLE job_stage_timings (
+    id BIGSERIAL PRIMARY KEY,
+    job_id VARCHAR(64) NOT NULL,
+    stage VARCHAR(50) NOT NULL,
+    attempt INTEGER NOT NULL DEFAULT 0,
+    duration_ms BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (job_id) REFERENCES jobs(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_jobs_news_id ON jobs(news_id);
+CREATE INDEX idx_jobs_status ON jobs(status);
+CREATE INDEX idx_jobs_queued_at ON jobs(queued_at);
+
+CREATE INDEX idx_job_transitions_job_id ON job_transitions(job_id);
+
+CREATE INDEX idx_job_stage_timings_job_id ON job_stage_timings(job_id);
+CREATE INDEX idx_job_stage_timings_stage_created_at ON job_stage_timings(stage, created_at);
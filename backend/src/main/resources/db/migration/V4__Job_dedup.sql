@@ -0,0 +1,12 @@
+-- V4__Job_dedup.sql
+
+-- Fallback idempotency store for job consumption (primary store is Redis)
+CREATE TABLE job_dedup (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    owner VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_job_dedup_expires_at ON job_dedup(expires_at);
@@ -0,0 +1,7 @@
+-- V5__Job_priority.sql
+
+-- Priority lane and idempotency key of each job, so pending jobs can be bumped
+ALTER TABLE jobs ADD COLUMN priority VARCHAR(20) NOT NULL DEFAULT 'NORMAL';
+ALTER TABLE jobs ADD COLUMN idempotency_key VARCHAR(255);
+
+CREATE INDEX idx_jobs_news_id_status ON jobs(news_id, status);
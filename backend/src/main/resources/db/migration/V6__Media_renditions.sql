@@ -0,0 +1,6 @@
+-- V6__Media_renditions.sql
+
+-- Renditions (resized copies, other formats, thumbnails) of a stored image
+ALTER TABLE media_assets ADD COLUMN parent_asset_id BIGINT REFERENCES media_assets(id) ON DELETE CASCADE;
+
+CREATE INDEX idx_media_assets_parent_asset_id ON media_assets(parent_asset_id);
@@ -0,0 +1,36 @@
+-- V7__Media_blobs.sql
+
+-- Content-addressed media objects, shared by every media asset with the same bytes
+CREATE TABLE media_blobs (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    s3_key VARCHAR(500) NOT NULL,
+    mime_type VARCHAR(100),
+    file_size BIGINT,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER TABLE media_assets ADD COLUMN content_hash VARCHAR(64);
+
+CREATE INDEX idx_media_assets_content_hash ON media_assets(content_hash);
+CREATE INDEX idx_media_blobs_unreferenced ON media_blobs(updated_at) WHERE ref_count = 0;
+
+-- Reference counts follow media_assets rows, including rows removed by ON DELETE CASCADE
+CREATE FUNCTION media_blob_refcount() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.content_hash IS NOT NULL THEN
+        UPDATE media_blobs SET ref_count = ref_count - 1, updated_at = CURRENT_TIMESTAMP
+        WHERE content_hash = OLD.content_hash;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.content_hash IS NOT NULL THEN
+        UPDATE media_blobs SET ref_count = ref_count + 1, updated_at = CURRENT_TIMESTAMP
+        WHERE content_hash = NEW.content_hash;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER media_assets_blob_refcount
+    AFTER INSERT OR DELETE OR UPDATE OF content_hash ON media_assets
+    FOR EACH ROW EXECUTE FUNCTION media_blob_refcount();
@@ -0,0 +1,5 @@
+-- V8__Media_placeholders.sql
+
+-- Placeholders shown while an image loads
+ALTER TABLE media_assets ADD COLUMN blur_hash VARCHAR(64);
+ALTER TABLE media_assets ADD COLUMN dominant_color VARCHAR(7);
@@ -0,0 +1,23 @@
+-- V9__Media_delete_queue.sql
+
+-- Objects of removed media assets that media_blobs does not track (legacy news/ keys),
+-- drained by the media garbage collector
+CREATE TABLE media_delete_queue (
+    s3_key VARCHAR(500) PRIMARY KEY,
+    queued_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_media_assets_s3_key ON media_assets(s3_key);
+
+CREATE FUNCTION media_asset_queue_delete() RETURNS trigger AS $$
+BEGIN
+    IF OLD.content_hash IS NULL AND OLD.s3_key IS NOT NULL THEN
+        INSERT INTO media_delete_queue (s3_key) VALUES (OLD.s3_key) ON CONFLICT DO NOTHING;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER media_assets_queue_delete
+    AFTER DELETE ON media_assets
+    FOR EACH ROW EXECUTE FUNCTION media_asset_queue_delete();
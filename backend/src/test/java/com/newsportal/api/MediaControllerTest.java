@@ -0,0 +1,64 @@
+package com.newsportal.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MediaControllerTest {
+
+    private static final long[] WHOLE_FILE = new long[0];
+
+    @Test
+    void parsesSingleRanges() {
+        assertArrayEquals(new long[]{0, 99}, MediaController.parseRange("bytes=0-99", 1000));
+        assertArrayEquals(new long[]{500, 999}, MediaController.parseRange("bytes=500-", 1000));
+        assertArrayEquals(new long[]{900, 999}, MediaController.parseRange("bytes=-100", 1000));
+        assertArrayEquals(new long[]{10, 10}, MediaController.parseRange("bytes= 10 - 10 ", 1000));
+    }
+
+    @Test
+    void clampsRangesToTheFile() {
+        assertArrayEquals(new long[]{900, 999}, MediaController.parseRange("bytes=900-5000", 1000));
+        assertArrayEquals(new long[]{0, 999}, MediaController.parseRange("bytes=-5000", 1000));
+        assertArrayEquals(new long[]{999, 999}, MediaController.parseRange("bytes=999-", 1000));
+    }
+
+    @Test
+    void unsatisfiableRangesAreNull() {
+        assertNull(MediaController.parseRange("bytes=1000-", 1000));
+        assertNull(MediaController.parseRange("bytes=1000-2000", 1000));
+        assertNull(MediaController.parseRange("bytes=-0", 1000));
+        assertNull(MediaController.parseRange("bytes=-10", 0));
+    }
+
+    @Test
+    void unsupportedOrMalformedRangesServeTheWholeFile() {
+        assertArrayEquals(WHOLE_FILE, MediaController.parseRange("bytes=0-10,20-30", 1000));
+        assertArrayEquals(WHOLE_FILE, MediaController.parseRange("items=0-10", 1000));
+        assertArrayEquals(WHOLE_FILE, MediaController.parseRange("bytes=10", 1000));
+        assertArrayEquals(WHOLE_FILE, MediaController.parseRange("bytes=20-10", 1000));
+        assertArrayEquals(WHOLE_FILE, MediaController.parseRange("bytes=a-b", 1000));
+    }
+
+    @Test
+    void etagOfContentKeyIsItsHash() {
+        String hash = "3f".repeat(32);
+        assertEquals("\"" + hash + "\"", MediaController.etag("media/sha256/3f/" + hash + ".jpg", 1234));
+        assertEquals("\"" + hash + "\"", MediaController.etag("media/sha256/3f/" + hash + ".webp", 99));
+    }
+
+    @Test
+    void etagOfOtherKeysIsStableAndDistinct() {
+        String etag = MediaController.etag("news/42/hero.jpg", 1000);
+
+        assertEquals(34, etag.length());
+        assertEquals(etag, MediaController.etag("news/42/hero.jpg", 1000));
+        assertNotEquals(etag, MediaController.etag("news/42/hero.jpg", 1001));
+        assertNotEquals(etag, MediaController.etag("news/43/hero.jpg", 1000));
+        // Not a content key: the hash segment is too short
+        assertNotEquals("\"abc\"", MediaController.etag("media/sha256/ab/abc.jpg", 10));
+    }
+}
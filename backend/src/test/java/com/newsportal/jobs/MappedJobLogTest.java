@@ -0,0 +1,145 @@
+package com.newsportal.jobs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MappedJobLogTest {
+
+    // Two 20-byte records (28 bytes with header) fit, plus the end-of-segment marker
+    private static final int SEGMENT_SIZE = 64;
+    private static final int RECORD_SIZE = 28;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void emptyLogHasNothingToRead() throws IOException {
+        try (MappedJobLog log = new MappedJobLog(directory, SEGMENT_SIZE)) {
+            assertEquals(0, log.getWriteOffset());
+            assertNull(log.read(0));
+        }
+    }
+
+    @Test
+    void recoversRecordsAndOffsetsAfterReopen() throws IOException {
+        try (MappedJobLog log = new MappedJobLog(directory, SEGMENT_SIZE)) {
+            assertEquals(0, log.append(payload(1)));
+            assertEquals(RECORD_SIZE, log.append(payload(2)));
+            log.commit(RECORD_SIZE);
+        }
+
+        try (MappedJobLog log = new MappedJobLog(directory, SEGMENT_SIZE)) {
+            assertEquals(2 * RECORD_SIZE, log.getWriteOffset());
+            assertEquals(RECORD_SIZE, log.getCommittedOffset());
+            assertEquals(List.of(text(1), text(2)), readAll(log, 0));
+            assertEquals(SEGMENT_SIZE, log.append(payload(3)));
+        }
+    }
+
+    @Test
+    void rollsOverToNextSegmentAndReadsAcrossIt() throws IOException {
+        try (MappedJobLog log = new MappedJobLog(directory, SEGMENT_SIZE)) {
+            log.append(payload(1));
+            log.append(payload(2));
+            assertEquals(SEGMENT_SIZE, log.append(payload(3)));
+            assertEquals(SEGMENT_SIZE + RECORD_SIZE, log.getWriteOffset());
+
+            MappedJobLog.Record second = log.read(RECORD_SIZE);
+            assertEquals(2 * RECORD_SIZE, second.getNextOffset());
+            // The gap before the end-of-segment marker is skipped
+            assertEquals(SEGMENT_SIZE, log.read(second.getNextOffset()).getOffset());
+            assertEquals(List.of(text(1), text(2), text(3)), readAll(log, 0));
+        }
+
+        try (MappedJobLog log = new MappedJobLog(directory, SEGMENT_SIZE)) {
+            assertEquals(SEGMENT_SIZE + RECORD_SIZE, log.getWriteOffset());
+            assertEquals(List.of(text(1), text(2), text(3)), readAll(log, 0));
+        }
+    }
+
+    @Test
+    void commitDropsConsumedSegmentsAndReadsSkipToOldestKept() throws IOException {
+        try (MappedJobLog log = new MappedJobLog(directory, SEGMENT_SIZE)) {
+            for (int i = 1; i <= 5; i++) {
+                log.append(payload(i));
+            }
+            assertEquals(3, segmentFiles());
+
+            log.commit(SEGMENT_SIZE + RECORD_SIZE);
+            assertEquals(2, segmentFiles());
+            assertEquals(List.of(text(3), text(4), text(5)), readAll(log, 0));
+
+            // The active segment is never dropped, even once fully consumed
+            log.commit(log.getWriteOffset());
+            assertEquals(1, segmentFiles());
+        }
+
+        try (MappedJobLog log = new MappedJobLog(directory, SEGMENT_SIZE)) {
+            assertEquals(2 * SEGMENT_SIZE + RECORD_SIZE, log.getWriteOffset());
+            assertEquals(List.of(), readAll(log, log.getCommittedOffset()));
+        }
+    }
+
+    @Test
+    void discardsRecordTornByCrash() throws IOException {
+        try (MappedJobLog log = new MappedJobLog(directory, SEGMENT_SIZE)) {
+            log.append(payload(1));
+            log.append(payload(2));
+        }
+
+        // Corrupt the payload of the second record, as if the process died mid-write
+        try (FileChannel channel = FileChannel.open(segment(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'x'}), RECORD_SIZE + 8);
+        }
+
+        try (MappedJobLog log = new MappedJobLog(directory, SEGMENT_SIZE)) {
+            assertEquals(RECORD_SIZE, log.getWriteOffset());
+            assertEquals(List.of(text(1)), readAll(log, 0));
+            assertEquals(RECORD_SIZE, log.append(payload(3)));
+            assertEquals(List.of(text(1), text(3)), readAll(log, 0));
+        }
+    }
+
+    private static List<String> readAll(MappedJobLog log, long from) {
+        List<String> texts = new ArrayList<>();
+        MappedJobLog.Record record;
+        long offset = from;
+        while ((record = log.read(offset)) != null) {
+            texts.add(new String(record.getPayload(), StandardCharsets.UTF_8));
+            offset = record.getNextOffset();
+        }
+        return texts;
+    }
+
+    private static String text(int n) {
+        return String.format("record-%013d", n);
+    }
+
+    private static byte[] payload(int n) {
+        return text(n).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Path segment(long base) {
+        return directory.resolve(String.format("%020d.log", base));
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".log")).count();
+        }
+    }
+}
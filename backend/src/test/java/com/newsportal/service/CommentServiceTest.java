@@ -0,0 +1,106 @@
+package com.newsportal.service;
+
+import com.newsportal.dto.ArticleEvent;
+import com.newsportal.dto.CommentResponse;
+import com.newsportal.model.Comment;
+import com.newsportal.model.News;
+import com.newsportal.model.User;
+import com.newsportal.repository.CommentRepository;
+import com.newsportal.repository.NewsRepository;
+import com.newsportal.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommentServiceTest {
+
+    private CommentRepository commentRepository;
+    private UserRepository userRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private CommentService commentService;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(CommentRepository.class);
+        userRepository = mock(UserRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        commentService = new CommentService(commentRepository, mock(NewsRepository.class), userRepository,
+                mock(AuditLogService.class), eventPublisher, mock(CommentThreadCache.class),
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(commentService, "autoHideThreshold", 5);
+        ReflectionTestUtils.setField(commentService, "moderationEnabled", true);
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("moderator", null));
+        when(userRepository.findByUsername("moderator"))
+                .thenReturn(Optional.of(User.builder().id(1L).username("moderator").build()));
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void approvedCommentIsPublishedWithoutItsScore() {
+        Comment held = heldComment(0.6);
+        when(commentRepository.findById(10L)).thenReturn(Optional.of(held));
+
+        CommentResponse response = commentService.approveComment(10L);
+
+        assertEquals(0.6, response.getModerationScore());
+        CommentResponse published = publishedComment();
+        assertEquals(10L, published.getId());
+        assertTrue(published.getApproved());
+        assertNull(published.getModerationScore());
+    }
+
+    @Test
+    void automaticallyApprovedCommentIsPublishedWithoutItsScore() {
+        Comment held = heldComment(null);
+        when(commentRepository.findAllWithUserByIdIn(any())).thenReturn(List.of(held));
+
+        commentService.applyModeration(List.of(new CommentModerationService.Decision(
+                10L, 0.1, CommentModerationService.Verdict.APPROVE)));
+
+        assertEquals(0.1, held.getModerationScore());
+        assertNull(publishedComment().getModerationScore());
+    }
+
+    private CommentResponse publishedComment() {
+        ArgumentCaptor<ArticleEvent> event = ArgumentCaptor.forClass(ArticleEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ArticleEvent.Type.COMMENT_ADDED, event.getValue().getType());
+        return event.getValue().getComment();
+    }
+
+    private static Comment heldComment(Double score) {
+        return Comment.builder()
+                .id(10L)
+                .news(News.builder().id(7L).build())
+                .user(User.builder().id(2L).username("reader").build())
+                .content("A held comment")
+                .approved(false)
+                .moderationScore(score)
+                .createdAt(LocalDateTime.of(2024, 5, 1, 12, 0))
+                .build();
+    }
+}
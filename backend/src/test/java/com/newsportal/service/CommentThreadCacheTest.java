@@ -0,0 +1,323 @@
+package com.newsportal.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newsportal.dto.ArticleEvent;
+import com.newsportal.dto.CommentPageResponse;
+import com.newsportal.dto.CommentResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommentThreadCacheTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private StringRedisTemplate redisTemplate;
+    private ObjectMapper objectMapper;
+    private CommentThreadCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        cache = new CommentThreadCache(redisTemplate, objectMapper);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "pageSize", 3);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(cache, "localSize", 10);
+        ReflectionTestUtils.setField(cache, "localTtl", Duration.ofSeconds(10));
+        cache.init();
+    }
+
+    @Test
+    void rootIsInsertedNewestFirst() {
+        CommentPageResponse page = page(null, root(3, 30), root(1, 10));
+
+        assertTrue(cache.added(page, root(2, 20)));
+        assertTrue(cache.added(page, root(4, 40)));
+
+        assertEquals(List.of(4L, 3L, 2L), ids(page.getComments()));
+        assertEquals(0L, page.getComments().get(0).getReplyCount());
+    }
+
+    @Test
+    void rootsCreatedAtTheSameTimeAreOrderedById() {
+        CommentPageResponse page = page(null, root(5, 30), root(3, 30));
+
+        assertTrue(cache.added(page, root(4, 30)));
+
+        assertEquals(List.of(5L, 4L, 3L), ids(page.getComments()));
+    }
+
+    @Test
+    void overflowingRootMovesToTheNextPage() {
+        CommentPageResponse page = page(null, root(3, 30), root(2, 20), root(1, 10));
+
+        assertTrue(cache.added(page, root(4, 40)));
+
+        assertEquals(List.of(4L, 3L, 2L), ids(page.getComments()));
+        assertEquals(cursor(root(2, 20)), page.getNextCursor());
+
+        assertTrue(cache.added(page, root(5, 25)));
+
+        assertEquals(List.of(4L, 3L, 5L), ids(page.getComments()));
+        assertEquals(cursor(root(5, 25)), page.getNextCursor());
+    }
+
+    @Test
+    void olderRootIsAppendedOnlyOnTheLastPage() {
+        CommentPageResponse last = page(null, root(3, 30), root(2, 20));
+        assertTrue(cache.added(last, root(1, 10)));
+        assertEquals(List.of(3L, 2L, 1L), ids(last.getComments()));
+        assertNull(last.getNextCursor());
+
+        String next = cursor(root(2, 20));
+        CommentPageResponse full = page(next, root(3, 30), root(2, 20));
+        assertTrue(cache.added(full, root(1, 10)));
+        assertEquals(List.of(3L, 2L), ids(full.getComments()));
+        assertEquals(next, full.getNextCursor());
+    }
+
+    @Test
+    void repeatedRootIsIgnored() {
+        CommentPageResponse page = page(null, root(2, 20), root(1, 10));
+
+        assertTrue(cache.added(page, root(2, 20)));
+
+        assertEquals(List.of(2L, 1L), ids(page.getComments()));
+    }
+
+    @Test
+    void commentShownAgainWithRepliesNeedsTheDatabase() {
+        CommentResponse restored = root(2, 20);
+        restored.getReplies().add(reply(5, 2, 50));
+
+        assertFalse(cache.added(page(null, root(1, 10)), restored));
+    }
+
+    @Test
+    void replyPreviewsKeepTheOldestThree() {
+        CommentResponse root = root(1, 10);
+        CommentPageResponse page = page(null, root);
+
+        assertTrue(cache.added(page, reply(11, 1, 11)));
+        assertTrue(cache.added(page, reply(13, 1, 13)));
+        assertEquals(List.of(11L, 13L), ids(root.getReplies()));
+        assertEquals(2L, root.getReplyCount());
+        assertNull(root.getRepliesCursor());
+
+        assertTrue(cache.added(page, reply(12, 1, 12)));
+        assertEquals(List.of(11L, 12L, 13L), ids(root.getReplies()));
+        assertEquals(3L, root.getReplyCount());
+        assertNull(root.getRepliesCursor());
+
+        // A fourth reply is counted, and the rest are fetched after the last preview
+        assertTrue(cache.added(page, reply(14, 1, 14)));
+        assertEquals(List.of(11L, 12L, 13L), ids(root.getReplies()));
+        assertEquals(4L, root.getReplyCount());
+        assertEquals(cursor(reply(13, 1, 13)), root.getRepliesCursor());
+    }
+
+    @Test
+    void earlierReplyPushesTheLastPreviewOut() {
+        CommentResponse root = root(1, 10);
+        root.setReplyCount(4L);
+        root.getReplies().addAll(List.of(reply(12, 1, 12), reply(13, 1, 13), reply(14, 1, 14)));
+        root.setRepliesCursor(cursor(reply(14, 1, 14)));
+        CommentPageResponse page = page(null, root);
+
+        assertTrue(cache.added(page, reply(11, 1, 11)));
+
+        assertEquals(List.of(11L, 12L, 13L), ids(root.getReplies()));
+        assertEquals(5L, root.getReplyCount());
+        assertEquals(cursor(reply(13, 1, 13)), root.getRepliesCursor());
+    }
+
+    @Test
+    void replyToAReplyOnlyCountsOnItsParent() {
+        CommentResponse nested = reply(11, 1, 11);
+        nested.setReplyCount(1L);
+        CommentResponse root = root(1, 10);
+        root.setReplyCount(1L);
+        root.getReplies().add(nested);
+        CommentPageResponse page = page(null, root);
+
+        assertTrue(cache.added(page, reply(20, 11, 20)));
+
+        assertEquals(2L, nested.getReplyCount());
+        assertEquals(1L, root.getReplyCount());
+        assertEquals(List.of(11L), ids(root.getReplies()));
+        assertNull(root.getRepliesCursor());
+    }
+
+    @Test
+    void replyToACommentOffThePageChangesNothing() {
+        CommentPageResponse page = page(null, root(1, 10));
+
+        assertTrue(cache.added(page, reply(20, 99, 20)));
+
+        assertEquals(List.of(1L), ids(page.getComments()));
+        assertEquals(0L, page.getComments().get(0).getReplyCount());
+    }
+
+    @Test
+    void removedRootNeedsTheNextPageUnlessThisIsTheLast() {
+        CommentPageResponse last = page(null, root(2, 20), root(1, 10));
+        assertTrue(cache.removed(last, 2L, null));
+        assertEquals(List.of(1L), ids(last.getComments()));
+
+        CommentPageResponse full = page(cursor(root(1, 10)), root(2, 20), root(1, 10));
+        assertFalse(cache.removed(full, 2L, null));
+    }
+
+    @Test
+    void removedRootOffThePageChangesNothing() {
+        CommentPageResponse page = page(cursor(root(2, 20)), root(3, 30), root(2, 20));
+
+        assertTrue(cache.removed(page, 1L, null));
+
+        assertEquals(List.of(3L, 2L), ids(page.getComments()));
+    }
+
+    @Test
+    void removedPreviewWithMoreRepliesNeedsTheDatabase() {
+        CommentResponse root = root(1, 10);
+        root.setReplyCount(4L);
+        root.getReplies().addAll(List.of(reply(11, 1, 11), reply(12, 1, 12), reply(13, 1, 13)));
+        root.setRepliesCursor(cursor(reply(13, 1, 13)));
+
+        assertFalse(cache.removed(page(null, root), 12L, 1L));
+    }
+
+    @Test
+    void removedPreviewWithoutMoreRepliesIsPatched() {
+        CommentResponse root = root(1, 10);
+        root.setReplyCount(3L);
+        root.getReplies().addAll(List.of(reply(11, 1, 11), reply(12, 1, 12), reply(13, 1, 13)));
+
+        assertTrue(cache.removed(page(null, root), 12L, 1L));
+
+        assertEquals(List.of(11L, 13L), ids(root.getReplies()));
+        assertEquals(2L, root.getReplyCount());
+        assertNull(root.getRepliesCursor());
+    }
+
+    @Test
+    void removedReplyPastThePreviewsOnlyCounts() {
+        CommentResponse root = root(1, 10);
+        root.setReplyCount(5L);
+        root.getReplies().addAll(List.of(reply(11, 1, 11), reply(12, 1, 12), reply(13, 1, 13)));
+        root.setRepliesCursor(cursor(reply(13, 1, 13)));
+
+        assertTrue(cache.removed(page(null, root), 15L, 1L));
+
+        assertEquals(List.of(11L, 12L, 13L), ids(root.getReplies()));
+        assertEquals(4L, root.getReplyCount());
+        assertEquals(cursor(reply(13, 1, 13)), root.getRepliesCursor());
+
+        // The last reply beyond the previews: nothing left to fetch
+        assertTrue(cache.removed(page(null, root), 14L, 1L));
+        assertEquals(3L, root.getReplyCount());
+        assertNull(root.getRepliesCursor());
+    }
+
+    @Test
+    void replyCountNeverGoesNegative() {
+        CommentResponse nested = reply(11, 1, 11);
+        CommentResponse root = root(1, 10);
+        root.setReplyCount(1L);
+        root.getReplies().add(nested);
+
+        assertTrue(cache.removed(page(null, root), 20L, 11L));
+
+        assertEquals(0L, nested.getReplyCount());
+        assertEquals(1L, root.getReplyCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void addedCommentIsPatchedIntoTheSharedThread() throws Exception {
+        String cached = objectMapper.writeValueAsString(page(null, root(2, 20), root(1, 10)));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString())).thenReturn(cached);
+
+        cache.onArticleEvent(ArticleEvent.builder()
+                .newsId(7L)
+                .type(ArticleEvent.Type.COMMENT_ADDED)
+                .comment(root(3, 30))
+                .build());
+
+        ArgumentCaptor<String> patched = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("comments:thread:7")), eq(cached),
+                patched.capture(), eq("3600000"));
+        CommentPageResponse page = objectMapper.readValue(patched.getValue(), CommentPageResponse.class);
+        assertEquals(List.of(3L, 2L, 1L), ids(page.getComments()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void threadThatCannotBePatchedIsDropped() throws Exception {
+        String cached = objectMapper.writeValueAsString(page(cursor(root(1, 10)), root(2, 20), root(1, 10)));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString())).thenReturn(cached);
+
+        cache.onArticleEvent(ArticleEvent.builder()
+                .newsId(7L)
+                .type(ArticleEvent.Type.COMMENT_REMOVED)
+                .commentId(2L)
+                .build());
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("comments:thread:7")), eq(cached),
+                eq(""), eq("3600000"));
+    }
+
+    private static CommentPageResponse page(String nextCursor, CommentResponse... roots) {
+        return CommentPageResponse.builder()
+                .comments(new ArrayList<>(Arrays.asList(roots)))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static CommentResponse root(long id, int minute) {
+        return reply(id, null, minute);
+    }
+
+    private static CommentResponse reply(long id, Integer parentId, int minute) {
+        return CommentResponse.builder()
+                .id(id)
+                .newsId(7L)
+                .username("user" + id)
+                .content("Comment " + id)
+                .parentId(parentId != null ? parentId.longValue() : null)
+                .replyCount(0L)
+                .createdAt(T0.plusMinutes(minute))
+                .build();
+    }
+
+    private static String cursor(CommentResponse comment) {
+        return new CommentService.Cursor(comment.getCreatedAt(), comment.getId()).encode();
+    }
+
+    private static List<Long> ids(List<CommentResponse> comments) {
+        return comments.stream().map(CommentResponse::getId).toList();
+    }
+}
@@ -0,0 +1,88 @@
+package com.newsportal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImagePlaceholderTest {
+
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    @Test
+    void solidLandscapeImageEncodesItsColour() {
+        ImagePlaceholder.Result result = ImagePlaceholder.compute(solid(400, 300, new Color(0xFF, 0, 0)));
+        String hash = result.getBlurHash();
+
+        // 4x3 components: size flag, max AC, 4-char DC and 11 two-char ACs
+        assertEquals(28, hash.length());
+        assertEquals(3 + 2 * 9, decode83(hash.substring(0, 1)));
+        assertEquals(0xFF0000, decode83(hash.substring(2, 6)));
+        assertEquals(hash, ImagePlaceholder.compute(solid(800, 600, new Color(0xFF, 0, 0))).getBlurHash());
+        assertEquals("#ff0000", result.getDominantColor());
+    }
+
+    @Test
+    void portraitImageUsesMoreVerticalComponents() {
+        String hash = ImagePlaceholder.compute(solid(300, 400, Color.WHITE)).getBlurHash();
+
+        assertEquals(2 + 3 * 9, decode83(hash.substring(0, 1)));
+        assertEquals(0xFFFFFF, decode83(hash.substring(2, 6)));
+    }
+
+    @Test
+    void gradientProducesAcComponents() {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 64; x++) {
+            for (int y = 0; y < 64; y++) {
+                image.setRGB(x, y, (x * 4) << 16 | (y * 4));
+            }
+        }
+        String hash = ImagePlaceholder.compute(image).getBlurHash();
+
+        assertEquals(28, hash.length());
+        String flat = ImagePlaceholder.compute(solid(64, 64, new Color(0x80, 0, 0x80))).getBlurHash();
+        assertTrue(decode83(hash.substring(1, 2)) > decode83(flat.substring(1, 2)));
+        assertTrue(hash.chars().allMatch(c -> BASE83.indexOf(c) >= 0));
+    }
+
+    @Test
+    void dominantColorIgnoresSmallSubject() {
+        BufferedImage image = solid(100, 100, new Color(0x20, 0x40, 0xC0));
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.YELLOW);
+        graphics.fillRect(40, 40, 20, 20);
+        graphics.dispose();
+
+        int[] pixels = image.getRGB(0, 0, 100, 100, null, 0, 100);
+        assertEquals("#2040c0", ImagePlaceholder.dominantColor(pixels));
+    }
+
+    @Test
+    void tinyImagesStillHash() {
+        assertEquals(28, ImagePlaceholder.compute(solid(1, 1, Color.BLACK)).getBlurHash().length());
+        assertEquals(28, ImagePlaceholder.compute(solid(1, 500, Color.BLACK)).getBlurHash().length());
+    }
+
+    private static BufferedImage solid(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+
+    private static int decode83(String digits) {
+        int value = 0;
+        for (char c : digits.toCharArray()) {
+            value = value * 83 + BASE83.indexOf(c);
+        }
+        return value;
+    }
+}
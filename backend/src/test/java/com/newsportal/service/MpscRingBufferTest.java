@@ -0,0 +1,130 @@
+package com.newsportal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(1024, new MpscRingBuffer<>(1000).capacity());
+        assertEquals(1024, new MpscRingBuffer<>(1024).capacity());
+        assertEquals(2048, new MpscRingBuffer<>(1025).capacity());
+        assertEquals(4, new MpscRingBuffer<>(1).capacity());
+    }
+
+    @Test
+    void drainsInOfferOrder() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertEquals(5, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, buffer.drain(drained::add, 3));
+        assertEquals(2, buffer.drain(drained::add, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4), drained);
+        assertEquals(0, buffer.size());
+        assertEquals(0, buffer.drain(drained::add, 10));
+    }
+
+    @Test
+    void rejectsOfferWhenFullAndAcceptsAfterDrain() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        buffer.drain(drained::add, 1);
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(5));
+
+        buffer.drain(drained::add, 10);
+        assertEquals(List.of(0, 1, 2, 3, 4), drained);
+    }
+
+    @Test
+    void wrapsAroundManyTimes() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(buffer.offer(i));
+            if (i % 3 == 2) {
+                buffer.drain(drained::add, 10);
+            }
+        }
+        buffer.drain(drained::add, 10);
+        assertEquals(1000, drained.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, drained.get(i));
+        }
+    }
+
+    @Test
+    void concurrentProducersLoseAndDuplicateNothing() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(256);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                running.add(pool.submit(() -> {
+                    start.await();
+                    for (long i = 0; i < perProducer; i++) {
+                        long[] element = {producer, i};
+                        while (!buffer.offer(element)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            // Each producer's elements must arrive exactly once and in its own order
+            long[] next = new long[producers];
+            long[] received = {0};
+            start.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (received[0] < (long) producers * perProducer) {
+                int drained = buffer.drain(element -> {
+                    assertEquals(next[(int) element[0]], element[1], "producer " + element[0]);
+                    next[(int) element[0]]++;
+                    received[0]++;
+                }, 64);
+                if (drained == 0) {
+                    assertTrue(System.nanoTime() < deadline, "drain stalled at " + received[0]);
+                    Thread.yield();
+                }
+            }
+            for (Future<?> producer : running) {
+                producer.get(10, TimeUnit.SECONDS);
+            }
+
+            for (int p = 0; p < producers; p++) {
+                assertEquals(perProducer, next[p]);
+            }
+            assertEquals(0, buffer.size());
+            assertEquals(0, buffer.drain(element -> { }, 64));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.newsportal.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Single-thread social card throughput with a synthetic hero image, render only and render
+ * plus JPEG encode. Titles cycle through a small set, like repeated edits of the same articles.
+ * <p>
+ * Skipped by default; run with
+ * {@code mvn test -Dtest=SocialCardRendererBenchmarkTest -Dbenchmark=true [-Dbenchmark.iterations=2000]}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SocialCardRendererBenchmarkTest {
+
+    private static final int WARMUP = 50;
+
+    @Test
+    void renderThroughput() {
+        int iterations = Integer.getInteger("benchmark.iterations", 500);
+        SocialCardRenderer renderer = new SocialCardRenderer("SansSerif", "NewsPortal", 2048);
+
+        BufferedImage source = new BufferedImage(1792, 1024, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = source.createGraphics();
+        try {
+            g.setPaint(new GradientPaint(0, 0, new Color(0x1e3a8a), 1792, 1024, new Color(0xf97316)));
+            g.fillRect(0, 0, 1792, 1024);
+        } finally {
+            g.dispose();
+        }
+
+        SocialCardRenderer.CardFormat[] formats = SocialCardRenderer.CardFormat.values();
+        BufferedImage[] heroes = new BufferedImage[formats.length];
+        for (int i = 0; i < formats.length; i++) {
+            heroes[i] = renderer.prepareHero(source, formats[i]);
+        }
+
+        for (int i = 0; i < WARMUP; i++) {
+            run(renderer, formats, heroes, i, new long[3]);
+        }
+
+        long[] totals = new long[3]; // render ns, encode ns, bytes
+        for (int i = 0; i < iterations; i++) {
+            run(renderer, formats, heroes, i, totals);
+        }
+
+        double renderMs = totals[0] / 1e6;
+        double encodeMs = totals[1] / 1e6;
+        System.out.printf("Social cards: %d iterations, render %.2f ms avg (%.0f/s), render + encode %.0f/s, %d bytes avg%n",
+                iterations, renderMs / iterations, iterations / (renderMs / 1000),
+                iterations / ((renderMs + encodeMs) / 1000), totals[2] / iterations);
+        assertTrue(totals[2] > 0);
+    }
+
+    private static void run(SocialCardRenderer renderer, SocialCardRenderer.CardFormat[] formats,
+                            BufferedImage[] heroes, int i, long[] totals) {
+        int format = i % formats.length;
+        String title = "Breaking: parliament approves the new budget after an all-night session, update " + (i % 32);
+        String excerpt = "Lawmakers voted 212 to 198 in favour of the package, which includes tax changes "
+                + "and new spending on infrastructure and public health. Revision " + (i % 32);
+
+        long start = System.nanoTime();
+        BufferedImage card = renderer.render(formats[format], heroes[format], title, excerpt);
+        long rendered = System.nanoTime();
+        totals[2] += ImageOps.encode(card, "image/jpeg", 0.85f).length;
+        long encoded = System.nanoTime();
+
+        totals[0] += rendered - start;
+        totals[1] += encoded - rendered;
+    }
+}
@@ -0,0 +1,95 @@
+package com.newsportal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingRewriteParserTest {
+
+    private static final String RESPONSE = "Here is the rewrite:\n```json\n" +
+            "{\"title\": \"Caf\\u00e9 \\\"reopens\\\"\", \"tags\": [\"a\", {\"title\": \"nested\"}], " +
+            "\"excerpt\": \"Line one\\nLine two\", \"word_count\": 42, " +
+            "\"body_html\": \"<p>Hello, {world}</p>\"}\n```\nTrailing {ignored}";
+
+    @Test
+    void decodesStreamedFieldsFedWhole() {
+        StreamingRewriteParser parser = new StreamingRewriteParser();
+        List<StreamingRewriteParser.Event> events = parser.feed(RESPONSE);
+
+        assertEquals(Map.of(
+                "title", "Café \"reopens\"",
+                "excerpt", "Line one\nLine two",
+                "body_html", "<p>Hello, {world}</p>"), completedFields(events));
+        assertTrue(parser.isComplete());
+        assertTrue(parser.getJson().startsWith("{\"title\""));
+        assertTrue(parser.getJson().endsWith("</p>\"}"));
+    }
+
+    @Test
+    void deltasAddUpToFieldsForEveryChunkSize() {
+        for (int size = 1; size <= 7; size++) {
+            StreamingRewriteParser parser = new StreamingRewriteParser();
+            List<StreamingRewriteParser.Event> events = new ArrayList<>();
+            for (int i = 0; i < RESPONSE.length(); i += size) {
+                events.addAll(parser.feed(RESPONSE.substring(i, Math.min(RESPONSE.length(), i + size))));
+            }
+
+            Map<String, String> fields = completedFields(events);
+            Map<String, StringBuilder> deltas = new LinkedHashMap<>();
+            for (StreamingRewriteParser.Event event : events) {
+                if (!event.isCompleted()) {
+                    deltas.computeIfAbsent(event.getField(), field -> new StringBuilder()).append(event.getText());
+                }
+            }
+
+            assertEquals(List.of("title", "excerpt", "body_html"), List.copyOf(deltas.keySet()), "chunk size " + size);
+            for (Map.Entry<String, StringBuilder> delta : deltas.entrySet()) {
+                assertEquals(fields.get(delta.getKey()), delta.getValue().toString(), "chunk size " + size);
+            }
+            assertTrue(parser.isComplete());
+        }
+    }
+
+    @Test
+    void reportsPartialValueBeforeItCloses() {
+        StreamingRewriteParser parser = new StreamingRewriteParser();
+        List<StreamingRewriteParser.Event> events = parser.feed("{\"title\": \"Brea");
+
+        assertEquals(1, events.size());
+        assertFalse(events.get(0).isCompleted());
+        assertEquals("title", events.get(0).getField());
+        assertEquals("Brea", events.get(0).getText());
+        assertFalse(parser.isComplete());
+
+        events = parser.feed("king\"");
+        assertEquals("king", events.get(0).getText());
+        assertTrue(events.get(1).isCompleted());
+        assertEquals("Breaking", events.get(1).getText());
+    }
+
+    @Test
+    void ignoresInputAfterTheObjectCloses() {
+        StreamingRewriteParser parser = new StreamingRewriteParser();
+        parser.feed("{\"title\": \"Done\"}");
+        assertTrue(parser.feed("{\"title\": \"Again\"}").isEmpty());
+        assertEquals("{\"title\": \"Done\"}", parser.getJson());
+        assertTrue(parser.feed(null).isEmpty());
+    }
+
+    private static Map<String, String> completedFields(List<StreamingRewriteParser.Event> events) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (StreamingRewriteParser.Event event : events) {
+            if (event.isCompleted()) {
+                fields.put(event.getField(), event.getText());
+            }
+        }
+        return fields;
+    }
+}
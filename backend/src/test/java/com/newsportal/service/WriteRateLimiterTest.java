@@ -0,0 +1,136 @@
+package com.newsportal.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WriteRateLimiterTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private WriteRateLimiter limiter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        limiter = new WriteRateLimiter(redisTemplate);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "commentWindow", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(limiter, "commentsPerUser", 3);
+        ReflectionTestUtils.setField(limiter, "commentsPerIp", 5);
+        ReflectionTestUtils.setField(limiter, "duplicateWindow", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(limiter, "reportWindow", Duration.ofHours(1));
+        ReflectionTestUtils.setField(limiter, "reportsPerUser", 30);
+        ReflectionTestUtils.setField(limiter, "reportsPerIp", 100);
+    }
+
+    @Test
+    void fingerprintIgnoresCasePunctuationSpacingAndWidth() {
+        String fingerprint = WriteRateLimiter.fingerprint("Great article!");
+
+        assertEquals(fingerprint, WriteRateLimiter.fingerprint("  great   ARTICLE "));
+        assertEquals(fingerprint, WriteRateLimiter.fingerprint("great... article?!"));
+        assertEquals(fingerprint, WriteRateLimiter.fingerprint("ＧＲＥＡＴ ａｒｔｉｃｌｅ"));
+        assertNotEquals(fingerprint, WriteRateLimiter.fingerprint("Great articles"));
+        assertNotEquals(fingerprint, WriteRateLimiter.fingerprint("Greatarticle"));
+        assertEquals(32, fingerprint.length());
+    }
+
+    @Test
+    void localWindowLimitsUsersWhileRedisIsDown() {
+        redisDown();
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(WriteRateLimiter.Action.COMMENT, "alice", "10.0.0.1");
+        }
+        RateLimitExceededException exceeded = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(WriteRateLimiter.Action.COMMENT, "alice", "10.0.0.1"));
+        assertEquals(3, exceeded.getLimit());
+        assertTrue(exceeded.getRetryAfter().compareTo(Duration.ofMinutes(1)) <= 0);
+
+        // Another user from the same address still has room until the IP window fills
+        limiter.acquire(WriteRateLimiter.Action.COMMENT, "bob", "10.0.0.1");
+        limiter.acquire(WriteRateLimiter.Action.COMMENT, "bob", "10.0.0.1");
+        assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(WriteRateLimiter.Action.COMMENT, "carol", "10.0.0.1"));
+        assertDoesNotThrow(() -> limiter.acquire(WriteRateLimiter.Action.COMMENT, "carol", "10.0.0.2"));
+
+        // Reports are counted separately
+        assertDoesNotThrow(() -> limiter.acquire(WriteRateLimiter.Action.REPORT, "alice", "10.0.0.1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keyRejectedByRedisIsBlockedLocallyUntilItsWindowFrees() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any()))
+                .thenReturn(List.of(0L, 0L, 30_000L, 1L));
+
+        RateLimitExceededException exceeded = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(WriteRateLimiter.Action.COMMENT, "alice", "10.0.0.1"));
+        assertEquals(3, exceeded.getLimit());
+        assertEquals(Duration.ofSeconds(30), exceeded.getRetryAfter());
+
+        assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(WriteRateLimiter.Action.COMMENT, "alice", "10.0.0.1"));
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(), any(), any(), any());
+    }
+
+    @Test
+    void duplicateIsRejectedUntilReleasedWhileRedisIsDown() {
+        redisDown();
+
+        String key = limiter.checkDuplicate("alice", "Same text");
+        RateLimitExceededException duplicate = assertThrows(RateLimitExceededException.class,
+                () -> limiter.checkDuplicate("alice", "same TEXT!"));
+        assertNull(duplicate.getLimit());
+        assertDoesNotThrow(() -> limiter.checkDuplicate("bob", "Same text"));
+
+        limiter.releaseDuplicate(key);
+        assertDoesNotThrow(() -> limiter.checkDuplicate("alice", "Same text"));
+    }
+
+    @Test
+    void disabledLimiterAllowsEverything() {
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(WriteRateLimiter.Action.COMMENT, "alice", "10.0.0.1");
+            assertNull(limiter.checkDuplicate("alice", "Same text"));
+        }
+        verify(redisTemplate, times(0)).opsForValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void redisDown() {
+        RedisConnectionFailureException down = new RedisConnectionFailureException("down");
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any())).thenThrow(down);
+        when(valueOperations.setIfAbsent(anyString(), eq("1"), any(Duration.class))).thenThrow(down);
+        when(redisTemplate.delete(anyString())).thenThrow(down);
+    }
+}
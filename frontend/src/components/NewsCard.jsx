@@ -1,5 +1,6 @@
 import { motion } from 'framer-motion';
 import { Link } from 'react-router-dom';
+import { placeholderStyle } from '../lib/placeholder';
 
 const NewsCard = ({ news, index = 0 }) => {
     const formatDate = (dateString) => {
@@ -11,9 +12,11 @@ const NewsCard = ({ news, index = 0 }) => {
         });
     };
 
+    const primaryImage = news.images && news.images.length > 0 ? news.images[0] : null;
+
     const getPrimaryImage = () => {
-        if (news.images && news.images.length > 0) {
-            return news.images[0].url;
+        if (primaryImage) {
+            return primaryImage.thumbnailUrl || primaryImage.url;
         }
         return 'https://images.unsplash.com/photo-1504711434969-e33886168f5c?w=800&h=600&fit=crop';
     };
@@ -27,9 +30,12 @@ const NewsCard = ({ news, index = 0 }) => {
         >
             <Link to={`/news/${news.id}`} className="block">
                 {/* Image */}
-                <div className="relative h-64 overflow-hidden rounded-t-2xl">
+                <div className="relative h-64 overflow-hidden rounded-t-2xl" style={placeholderStyle(primaryImage)}>
                     <motion.img
                         src={getPrimaryImage()}
+                        srcSet={primaryImage?.srcset || undefined}
+                        sizes="(min-width: 1024px) 33vw, (min-width: 768px) 50vw, 100vw"
+                        loading="lazy"
                         alt={news.title}
                         className="w-full h-full object-cover"
                         whileHover={{ scale: 1.1 }}
@@ -50,11 +50,15 @@ export const newsAPI = {
     update: (id, newsData) => api.put(`/news/${id}`, newsData),
     delete: (id) => api.delete(`/news/${id}`),
     publish: (id) => api.post(`/news/${id}/publish`),
+    // Server-sent events with new comments and article changes
+    events: (id) => new EventSource(`${API_BASE_URL}/news/${id}/events`),
 };
 
 // Comments API
 export const commentsAPI = {
-    getByNewsId: (newsId) => api.get(`/news/${newsId}/comments`),
+    getByNewsId: (newsId, cursor) => api.get(`/news/${newsId}/comments`, { params: { cursor } }),
+    getReplies: (newsId, commentId, cursor) =>
+        api.get(`/news/${newsId}/comments/${commentId}/replies`, { params: { cursor } }),
     create: (newsId, commentData) => api.post(`/news/${newsId}/comments`, commentData),
     delete: (newsId, commentId) => api.delete(`/news/${newsId}/comments/${commentId}`),
 };
@@ -64,6 +68,10 @@ export const backofficeAPI = {
     getAutoGenerated: () => api.get('/backoffice/auto-generated'),
     approve: (id) => api.post(`/backoffice/news/${id}/approve`),
     reject: (id) => api.post(`/backoffice/news/${id}/reject`),
+    publishAll: (ids) => api.post('/backoffice/news/bulk/publish', { ids }),
+    rejectAll: (ids) => api.post('/backoffice/news/bulk/reject', { ids }),
+    approveComments: (ids) => api.post('/backoffice/comments/bulk/approve', { ids }),
+    rejectComments: (ids) => api.post('/backoffice/comments/bulk/reject', { ids }),
 };
 
 export default api;
@@ -0,0 +1,104 @@
+// Decodes the BlurHash placeholders computed by the backend (https://github.com/woltapp/blurhash)
+
+const BASE83 = '0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~';
+const SIZE = 32;
+const cache = new Map();
+
+const decode83 = (str) => {
+    let value = 0;
+    for (const char of str) {
+        value = value * 83 + BASE83.indexOf(char);
+    }
+    return value;
+};
+
+const srgbToLinear = (value) => {
+    const v = value / 255;
+    return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+};
+
+const linearToSrgb = (value) => {
+    const v = Math.max(0, Math.min(1, value));
+    return v <= 0.0031308
+        ? Math.round(v * 12.92 * 255)
+        : Math.round((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255);
+};
+
+const signPow = (value, exp) => Math.sign(value) * Math.pow(Math.abs(value), exp);
+
+export const decodeBlurHash = (hash, width, height) => {
+    const sizeFlag = decode83(hash[0]);
+    const numX = (sizeFlag % 9) + 1;
+    const numY = Math.floor(sizeFlag / 9) + 1;
+    const maximumValue = (decode83(hash[1]) + 1) / 166;
+
+    const colors = [];
+    const dc = decode83(hash.substring(2, 6));
+    colors.push([srgbToLinear(dc >> 16), srgbToLinear((dc >> 8) & 255), srgbToLinear(dc & 255)]);
+    for (let i = 1; i < numX * numY; i++) {
+        const ac = decode83(hash.substring(4 + i * 2, 6 + i * 2));
+        colors.push([
+            signPow((Math.floor(ac / 361) - 9) / 9, 2) * maximumValue,
+            signPow((Math.floor(ac / 19) % 19 - 9) / 9, 2) * maximumValue,
+            signPow((ac % 19 - 9) / 9, 2) * maximumValue,
+        ]);
+    }
+
+    const pixels = new Uint8ClampedArray(width * height * 4);
+    for (let y = 0; y < height; y++) {
+        for (let x = 0; x < width; x++) {
+            let r = 0, g = 0, b = 0;
+            for (let j = 0; j < numY; j++) {
+                for (let i = 0; i < numX; i++) {
+                    const basis = Math.cos((Math.PI * x * i) / width) * Math.cos((Math.PI * y * j) / height);
+                    const color = colors[i + j * numX];
+                    r += color[0] * basis;
+                    g += color[1] * basis;
+                    b += color[2] * basis;
+                }
+            }
+            const p = 4 * (x + y * width);
+            pixels[p] = linearToSrgb(r);
+            pixels[p + 1] = linearToSrgb(g);
+            pixels[p + 2] = linearToSrgb(b);
+            pixels[p + 3] = 255;
+        }
+    }
+    return pixels;
+};
+
+const blurHashToDataUrl = (hash) => {
+    if (cache.has(hash)) {
+        return cache.get(hash);
+    }
+    let url = null;
+    try {
+        const canvas = document.createElement('canvas');
+        canvas.width = SIZE;
+        canvas.height = SIZE;
+        const context = canvas.getContext('2d');
+        context.putImageData(new ImageData(decodeBlurHash(hash, SIZE, SIZE), SIZE, SIZE), 0, 0);
+        url = canvas.toDataURL();
+    } catch {
+        // Malformed hash or no canvas: fall back to the dominant colour
+    }
+    cache.set(hash, url);
+    return url;
+};
+
+// Inline style showing an image's placeholder until the image itself has loaded
+export const placeholderStyle = (image) => {
+    if (!image) {
+        return undefined;
+    }
+    const style = {};
+    if (image.dominantColor) {
+        style.backgroundColor = image.dominantColor;
+    }
+    const url = image.blurHash ? blurHashToDataUrl(image.blurHash) : null;
+    if (url) {
+        style.backgroundImage = `url(${url})`;
+        style.backgroundSize = 'cover';
+    }
+    return style;
+};
@@ -29,6 +29,21 @@ const Backoffice = () => {
         },
     });
 
+    const publishAllMutation = useMutation({
+        mutationFn: backofficeAPI.publishAll,
+        onSuccess: () => {
+            queryClient.invalidateQueries(['backoffice-news']);
+            setSelectedNews(null);
+        },
+    });
+
+    const handlePublishAll = () => {
+        const ids = autoGeneratedNews?.map((news) => news.id) || [];
+        if (ids.length && window.confirm(`¿Publicar las ${ids.length} noticias pendientes?`)) {
+            publishAllMutation.mutate(ids);
+        }
+    };
+
     const handleApprove = (id) => {
         if (window.confirm('¿Estás seguro de aprobar esta noticia? Se publicará inmediatamente.')) {
             approveMutation.mutate(id);
@@ -67,6 +82,15 @@ const Backoffice = () => {
                         <div className="px-4 py-2 glass rounded-xl text-sm">
                             Pendientes: <span className="font-bold text-primary-400">{autoGeneratedNews?.length || 0}</span>
                         </div>
+                        {autoGeneratedNews?.length > 1 && (
+                            <button
+                                onClick={handlePublishAll}
+                                disabled={publishAllMutation.isPending}
+                                className="btn-primary"
+                            >
+                                {publishAllMutation.isPending ? 'Procesando...' : 'Publicar todas'}
+                            </button>
+                        )}
                     </div>
                 </div>
 
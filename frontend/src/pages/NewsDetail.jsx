@@ -1,29 +1,141 @@
 import { motion } from 'framer-motion';
 import { useParams } from 'react-router-dom';
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
+import { useQuery, useInfiniteQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { newsAPI, commentsAPI } from '../lib/api';
-import { useState } from 'react';
+import { placeholderStyle } from '../lib/placeholder';
+import { useEffect, useState } from 'react';
+
+const formatDate = (dateString) => {
+    const date = new Date(dateString);
+    return date.toLocaleDateString('es-ES', {
+        year: 'numeric',
+        month: 'long',
+        day: 'numeric',
+        hour: '2-digit',
+        minute: '2-digit'
+    });
+};
+
+// A comment with the replies sent along with it and a button to page in the rest
+const CommentItem = ({ newsId, comment }) => {
+    const [replies, setReplies] = useState(comment.replies || []);
+    const [cursor, setCursor] = useState(comment.repliesCursor);
+    const [loading, setLoading] = useState(false);
+    const remaining = (comment.replyCount || 0) - replies.length;
+
+    const loadMoreReplies = async () => {
+        setLoading(true);
+        try {
+            const { data } = await commentsAPI.getReplies(newsId, comment.id, cursor);
+            setReplies((current) => [...current, ...data.comments]);
+            setCursor(data.nextCursor);
+        } finally {
+            setLoading(false);
+        }
+    };
+
+    return (
+        <div className="glass p-4 rounded-xl">
+            <div className="flex items-start gap-3">
+                <div className="w-10 h-10 rounded-full bg-gradient-to-br from-primary-500 to-accent-500 flex items-center justify-center flex-shrink-0">
+                    <span className="text-white font-bold">
+                        {comment.username?.[0]?.toUpperCase() || 'U'}
+                    </span>
+                </div>
+                <div className="flex-1">
+                    <div className="flex items-center gap-2 mb-2">
+                        <span className="font-semibold">{comment.username || 'Usuario'}</span>
+                        <span className="text-sm text-dark-400">
+                            {formatDate(comment.createdAt)}
+                        </span>
+                    </div>
+                    <p className="text-dark-200">{comment.content}</p>
+
+                    {replies.length > 0 && (
+                        <div className="mt-4 space-y-3">
+                            {replies.map((reply) => (
+                                <CommentItem key={reply.id} newsId={newsId} comment={reply} />
+                            ))}
+                        </div>
+                    )}
+
+                    {remaining > 0 && (
+                        <button
+                            onClick={loadMoreReplies}
+                            disabled={loading}
+                            className="mt-3 text-sm text-primary-400 hover:text-primary-300"
+                        >
+                            {loading ? 'Cargando...' : `Ver ${remaining} respuesta${remaining === 1 ? '' : 's'} más`}
+                        </button>
+                    )}
+                </div>
+            </div>
+        </div>
+    );
+};
 
 const NewsDetail = () => {
     const { id } = useParams();
     const queryClient = useQueryClient();
     const [commentText, setCommentText] = useState('');
+    const [inReview, setInReview] = useState(false);
 
     const { data: news, isLoading, error } = useQuery({
         queryKey: ['news', id],
         queryFn: () => newsAPI.getById(id).then(res => res.data),
     });
 
-    const { data: comments } = useQuery({
+    const {
+        data: commentPages,
+        fetchNextPage,
+        hasNextPage,
+        isFetchingNextPage,
+    } = useInfiniteQuery({
         queryKey: ['comments', id],
-        queryFn: () => commentsAPI.getByNewsId(id).then(res => res.data),
+        queryFn: ({ pageParam }) => commentsAPI.getByNewsId(id, pageParam).then(res => res.data),
+        initialPageParam: null,
+        getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined,
     });
+    const comments = commentPages?.pages.flatMap((page) => page.comments);
+
+    // Live updates: new top-level comments are prepended, anything else triggers a refetch
+    useEffect(() => {
+        const source = newsAPI.events(id);
+        source.addEventListener('update', (event) => {
+            const update = JSON.parse(event.data);
+            if (update.articleChanged) {
+                queryClient.invalidateQueries({ queryKey: ['news', id] });
+            }
+
+            const topLevel = update.addedComments.filter((comment) => comment.parentId == null);
+            if (update.commentsChanged || update.removedCommentIds.length > 0
+                || topLevel.length < update.addedComments.length) {
+                queryClient.invalidateQueries({ queryKey: ['comments', id] });
+                return;
+            }
+            if (topLevel.length === 0) {
+                return;
+            }
+            queryClient.setQueryData(['comments', id], (data) => {
+                if (!data?.pages.length) {
+                    return data;
+                }
+                const known = new Set(data.pages.flatMap((page) => page.comments.map((comment) => comment.id)));
+                const fresh = topLevel.filter((comment) => !known.has(comment.id)).reverse();
+                const [first, ...rest] = data.pages;
+                return { ...data, pages: [{ ...first, comments: [...fresh, ...first.comments] }, ...rest] };
+            });
+        });
+        return () => source.close();
+    }, [id, queryClient]);
 
     const createCommentMutation = useMutation({
-        mutationFn: (text) => commentsAPI.create(id, { text }),
-        onSuccess: () => {
+        mutationFn: (text) => commentsAPI.create(id, { content: text }),
+        onSuccess: (res) => {
             queryClient.invalidateQueries(['comments', id]);
             setCommentText('');
+            // Held comments appear once moderation approves them, pushed over the event stream
+            setInReview(!res.data.approved);
         },
     });
 
@@ -34,17 +146,6 @@ const NewsDetail = () => {
         }
     };
 
-    const formatDate = (dateString) => {
-        const date = new Date(dateString);
-        return date.toLocaleDateString('es-ES', {
-            year: 'numeric',
-            month: 'long',
-            day: 'numeric',
-            hour: '2-digit',
-            minute: '2-digit'
-        });
-    };
-
     const getPrimaryImage = () => {
         if (news?.images && news.images.length > 0) {
             return news.images[0].url;
@@ -84,6 +185,7 @@ const NewsDetail = () => {
                     initial={{ opacity: 0, scale: 0.95 }}
                     animate={{ opacity: 1, scale: 1 }}
                     className="relative h-96 rounded-2xl overflow-hidden mb-8"
+                    style={placeholderStyle(news.images?.[0])}
                 >
                     <img
                         src={getPrimaryImage()}
@@ -213,31 +315,29 @@ const NewsDetail = () => {
                         >
                             {createCommentMutation.isPending ? 'Enviando...' : 'Publicar Comentario'}
                         </button>
+                        {inReview && (
+                            <p className="text-sm text-dark-400 mt-2">
+                                Tu comentario se publicará cuando pase la moderación.
+                            </p>
+                        )}
                     </form>
 
                     {/* Comments List */}
                     <div className="space-y-4">
                         {comments?.map((comment) => (
-                            <div key={comment.id} className="glass p-4 rounded-xl">
-                                <div className="flex items-start gap-3">
-                                    <div className="w-10 h-10 rounded-full bg-gradient-to-br from-primary-500 to-accent-500 flex items-center justify-center flex-shrink-0">
-                                        <span className="text-white font-bold">
-                                            {comment.user?.username?.[0]?.toUpperCase() || 'U'}
-                                        </span>
-                                    </div>
-                                    <div className="flex-1">
-                                        <div className="flex items-center gap-2 mb-2">
-                                            <span className="font-semibold">{comment.user?.username || 'Usuario'}</span>
-                                            <span className="text-sm text-dark-400">
-                                                {formatDate(comment.createdAt)}
-                                            </span>
-                                        </div>
-                                        <p className="text-dark-200">{comment.text}</p>
-                                    </div>
-                                </div>
-                            </div>
+                            <CommentItem key={comment.id} newsId={id} comment={comment} />
                         ))}
 
+                        {hasNextPage && (
+                            <button
+                                onClick={() => fetchNextPage()}
+                                disabled={isFetchingNextPage}
+                                className="btn-ghost w-full"
+                            >
+                                {isFetchingNextPage ? 'Cargando...' : 'Cargar más comentarios'}
+                            </button>
+                        )}
+
                         {(!comments || comments.length === 0) && (
                             <p className="text-center text-dark-400 py-8">
                                 No hay comentarios aún. ¡Sé el primero en comentar!